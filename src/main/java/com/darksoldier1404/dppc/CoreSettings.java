@@ -0,0 +1,78 @@
+package com.darksoldier1404.dppc;
+
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
+import com.darksoldier1404.dppc.api.inventory.DefaultPageTools;
+import com.darksoldier1404.dppc.utils.SettingsReader;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The DPP-Core config.yml, bound once into final fields.
+ * <p>
+ * A new instance is bound on every {@link DPPCore#reload()} and replaces the old one as a
+ * whole, so readers see either the old or the new settings, never a mix. Code that runs per
+ * event or per tick reads these fields instead of the YAML tree.
+ */
+@DPPCoreVersion(since = "5.4.3")
+public final class CoreSettings {
+    public final String economyProvider;
+    public final boolean notifyAdminsOnJoin;
+    public final Set<String> metricsExcluded;
+    public final boolean hotReloadActions;
+
+    /**
+     * The saved default page tool layout, or the classic arrangement when none is saved.
+     * Shared by every DInventory; must not be modified.
+     */
+    public final DefaultPageTools.Layout pageToolLayout;
+
+    public final boolean variableJournal;
+    public final long variableAutosaveSeconds;
+    public final List<String> variableIndexes;
+    public final long slowIoWarningMillis;
+    public final long shutdownDeadlineMillis;
+
+    public final long logSavePeriodSeconds;
+    public final boolean logSaveIntegrated;
+    public final boolean logSaveSeparated;
+    public final boolean printConfigUtilsLogs;
+    public final boolean printCommandLogs;
+    public final boolean printDInventoryLogs;
+    public final boolean printDataContainerLogs;
+    public final boolean printPluginUtilsLogs;
+
+    public CoreSettings(SettingsReader reader) {
+        economyProvider = reader.getString("Settings.economy-provider", "AUTO");
+        notifyAdminsOnJoin = reader.getBoolean("Settings.notify_admins_on_join", true);
+        metricsExcluded = Collections.unmodifiableSet(new HashSet<>(reader.getStringList("Settings.metrics-excluded")));
+        hotReloadActions = reader.getBoolean("Settings.hot_reload_actions", false);
+
+        DefaultPageTools.Layout layout = DefaultPageTools.load(reader.getConfig());
+        pageToolLayout = layout != null ? layout : DefaultPageTools.defaultSeed(reader.getConfig());
+
+        variableJournal = reader.getBoolean("Settings.Data.variable_journal", false);
+        variableAutosaveSeconds = reader.getLong("Settings.Data.variable_autosave_seconds", 300L, 0L, Long.MAX_VALUE / 20L);
+        variableIndexes = reader.getStringList("Settings.Data.variable_indexes");
+        slowIoWarningMillis = reader.getLong("Settings.Data.slow_io_warning_ms", 50L, 0L, Long.MAX_VALUE);
+        shutdownDeadlineMillis = reader.getLong("Settings.Data.shutdown_deadline_ms", 30000L, 0L, Long.MAX_VALUE);
+
+        logSavePeriodSeconds = reader.getLong("Settings.Log.save_period", 3600L, 1L, Long.MAX_VALUE / 20L);
+        logSaveIntegrated = reader.getBoolean("Settings.Log.save_integrated", true);
+        logSaveSeparated = reader.getBoolean("Settings.Log.save_separated", true);
+        printConfigUtilsLogs = reader.getBoolean("Settings.Log.print_ConfigUtils_Debug", true);
+        printCommandLogs = reader.getBoolean("Settings.Log.print_Command_Debug", false);
+        printDInventoryLogs = reader.getBoolean("Settings.Log.print_DInventory_Debug", false);
+        printDataContainerLogs = reader.getBoolean("Settings.Log.print_DataContainer_Debug", true);
+        printPluginUtilsLogs = reader.getBoolean("Settings.Log.print_PluginUtils_Debug", true);
+    }
+
+    /**
+     * @return the current settings of DPP-Core.
+     */
+    public static CoreSettings get() {
+        return DPPCore.getInstance().getSettings();
+    }
+}
@@ -6,9 +6,16 @@ import com.darksoldier1404.dppc.builder.action.ActionBuilder;
 import com.darksoldier1404.dppc.builder.action.helper.ActionGUIHandler;
 import com.darksoldier1404.dppc.builder.action.obj.VariableStore;
 import com.darksoldier1404.dppc.data.DPlugin;
+import com.darksoldier1404.dppc.data.DataFlushService;
+import com.darksoldier1404.dppc.data.DataIO;
+import com.darksoldier1404.dppc.data.DataMetrics;
+import com.darksoldier1404.dppc.data.DataPreloader;
+import com.darksoldier1404.dppc.data.FolderWatcher;
+import com.darksoldier1404.dppc.data.storage.DataJournal;
 import com.darksoldier1404.dppc.events.DAnvilInventoryListener;
 import com.darksoldier1404.dppc.events.AdminUpdateNotifyListener;
 import com.darksoldier1404.dppc.events.DPPCPPanelListener;
+import com.darksoldier1404.dppc.events.DataPreloadListener;
 import com.darksoldier1404.dppc.events.InventoryEventListener;
 import com.darksoldier1404.dppc.events.PageToolEditorListener;
 import com.darksoldier1404.dppc.events.VariableStoreListener;
@@ -37,11 +44,32 @@ public class DPPCore extends DPlugin {
         super(true);
         plugin = this;
         init();
-        DLogManager.printConfigUtilsLogs = config.getBoolean("Settings.Log.print_ConfigUtils_Debug");
-        DLogManager.printCommandLogs = config.getBoolean("Settings.Log.print_Command_Debug");
-        DLogManager.printDInventoryLogs = config.getBoolean("Settings.Log.print_DInventory_Debug");
-        DLogManager.printDataContainerLogs = config.getBoolean("Settings.Log.print_DataContainer_Debug");
-        DLogManager.printPluginUtilsLogs = config.getBoolean("Settings.Log.print_PluginUtils_Debug");
+        applySettings(bindSettings(CoreSettings::new));
+    }
+
+    @Override
+    public void reload() {
+        super.reload();
+        applySettings(getSettings());
+        if (isEnabled()) {
+            PluginUtil.setWatchActions(CoreSettings.get().hotReloadActions);
+            if (variables != null) {
+                for (String name : CoreSettings.get().variableIndexes) {
+                    variables.index(name);
+                }
+                variables.startAutosave(CoreSettings.get().variableAutosaveSeconds);
+            }
+        }
+    }
+
+    private static void applySettings(CoreSettings settings) {
+        DLogManager.printConfigUtilsLogs = settings.printConfigUtilsLogs;
+        DLogManager.printCommandLogs = settings.printCommandLogs;
+        DLogManager.printDInventoryLogs = settings.printDInventoryLogs;
+        DLogManager.printDataContainerLogs = settings.printDataContainerLogs;
+        DLogManager.printPluginUtilsLogs = settings.printPluginUtilsLogs;
+        DataMetrics.setSlowThresholdMillis(settings.slowIoWarningMillis);
+        DataFlushService.setDeadlineMillis(settings.shutdownDeadlineMillis);
     }
 
     public static DPPCore getInstance() {
@@ -63,13 +91,21 @@ public class DPPCore extends DPlugin {
         PluginUtil.loadAllPlugins();
         PluginUtil.initializeSoftDependPlugins();
         PluginUtil.loadAllAction();
+        PluginUtil.setWatchActions(CoreSettings.get().hotReloadActions);
         PluginUtil.initPlaceholders();
         variables = new VariableStore(this);
+        variables.setJournal(CoreSettings.get().variableJournal);
         variables.loadGlobal();
+        DataPreloader.register(this, variables);
         for (org.bukkit.entity.Player pl : getServer().getOnlinePlayers()) {
             variables.loadPlayer(pl.getUniqueId());
         }
+        for (String name : CoreSettings.get().variableIndexes) {
+            variables.index(name);
+        }
+        variables.startAutosave(CoreSettings.get().variableAutosaveSeconds);
         getServer().getPluginManager().registerEvents(new ActionGUIHandler(), this);
+        getServer().getPluginManager().registerEvents(new DataPreloadListener(), this);
         getServer().getPluginManager().registerEvents(new VariableStoreListener(), this);
         getServer().getPluginManager().registerEvents(new InventoryEventListener(), this);
         getServer().getPluginManager().registerEvents(new DAnvilInventoryListener(), this);
@@ -85,10 +121,23 @@ public class DPPCore extends DPlugin {
 
     @Override
     public void onDisable() {
+        FolderWatcher.closeAll();
         DLogManager.saveIntegratedLog();
         if (variables != null) {
-            variables.saveAll();
+            DataPreloader.unregister(variables);
+            variables.stopAutosave();
+            DataFlushService.track(getName() + ":variables", variables.saveAllAsync());
         }
         saveAllData();
+        long deadline = DataFlushService.getDeadlineMillis();
+        DataFlushService.Report report = DataFlushService.awaitAll(deadline);
+        if (!report.getUnfinished().isEmpty()) {
+            log.severe("Data not saved within " + deadline + "ms on shutdown: " + String.join(", ", report.getUnfinished()), true);
+        }
+        for (Map.Entry<String, Throwable> entry : report.getFailed().entrySet()) {
+            log.severe("Failed to save data on shutdown: " + entry.getKey() + " - " + entry.getValue(), true);
+        }
+        DataJournal.closeAll();
+        DataIO.shutdown(1000L);
     }
 }
@@ -1,5 +1,6 @@
 package com.darksoldier1404.dppc.api.essentials;
 
+import com.darksoldier1404.dppc.CoreSettings;
 import com.darksoldier1404.dppc.DPPCore;
 import com.darksoldier1404.dppc.api.essentials.economy.EconomyProvider;
 import com.darksoldier1404.dppc.api.essentials.economy.EssentialsProvider;
@@ -28,8 +29,8 @@ public class MoneyAPI {
      */
     public static void init() {
         String setting = "AUTO";
-        if (plugin != null && plugin.config != null) {
-            setting = plugin.config.getString("Settings.economy-provider", "AUTO");
+        if (plugin != null && plugin.getSettings() != null) {
+            setting = CoreSettings.get().economyProvider;
         }
 
         EconomyProvider ess = resolveEssentials();
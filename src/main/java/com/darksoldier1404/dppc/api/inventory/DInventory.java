@@ -1,6 +1,6 @@
 package com.darksoldier1404.dppc.api.inventory;
 
-import com.darksoldier1404.dppc.DPPCore;
+import com.darksoldier1404.dppc.CoreSettings;
 import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
 import com.darksoldier1404.dppc.annotation.MultiPageOnly;
 import com.darksoldier1404.dppc.data.DPlugin;
@@ -409,11 +409,7 @@ public class DInventory implements InventoryHolder, Cloneable {
     @MultiPageOnly
     public void applyDefaultPageTools() {
         if (!useDefaultPageTools || !usePageTools) return;
-        DefaultPageTools.Layout layout = DefaultPageTools.load(DPPCore.getInstance().getConfig());
-        if (layout == null) {
-            layout = DefaultPageTools.defaultSeed(DPPCore.getInstance().getConfig());
-        }
-        this.pageTools = DefaultPageTools.render(layout, currentPage, pages, toolSlots);
+        this.pageTools = DefaultPageTools.render(CoreSettings.get().pageToolLayout, currentPage, pages, toolSlots);
     }
 
     @Override
@@ -1,5 +1,6 @@
 package com.darksoldier1404.dppc.api.logger;
 
+import com.darksoldier1404.dppc.CoreSettings;
 import com.darksoldier1404.dppc.DPPCore;
 import com.darksoldier1404.dppc.data.DPlugin;
 import com.darksoldier1404.dppc.utils.ConfigUtils;
@@ -29,10 +30,10 @@ public class DLogManager {
             logTask.cancel();
             logTask = null;
         }
-        long time = DPPCore.getInstance().getConfig().getInt("Settings.Log.save_period") * 20L;
+        long time = CoreSettings.get().logSavePeriodSeconds * 20L;
         logTask = DPPCore.getInstance().getServer().getScheduler().runTaskTimerAsynchronously(DPPCore.getInstance(), () -> {
             saveIntegratedLog();
-            if (DPPCore.getInstance().getConfig().getBoolean("Settings.Log.save_separated")) {
+            if (CoreSettings.get().logSaveSeparated) {
                 for (DPlugin plugin : logNodes.keySet()) {
                     saveLogNode(plugin, true);
                 }
@@ -41,7 +42,7 @@ public class DLogManager {
     }
 
     public static void saveIntegratedLog() {
-        if (DPPCore.getInstance().getConfig().getBoolean("Settings.Log.save_integrated")) {
+        if (CoreSettings.get().logSaveIntegrated) {
             List<DLogContext> logContexts = new ArrayList<>();
             for (DLogNode logNode : logNodes.values()) {
                 logContexts.addAll(logNode.getLogs());
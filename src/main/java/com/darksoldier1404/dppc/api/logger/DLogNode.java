@@ -20,11 +20,11 @@ public class DLogNode {
         return plugin;
     }
 
-    public ArrayList<DLogContext> getLogs() {
-        return logs;
+    public synchronized ArrayList<DLogContext> getLogs() {
+        return new ArrayList<>(logs);
     }
 
-    public void info(String message, boolean printToConsole) {
+    public synchronized void info(String message, boolean printToConsole) {
         DLogContext dlc = DLogContext.of(message, Level.INFO);
         logs.add(dlc);
         if (printToConsole) {
@@ -32,25 +32,25 @@ public class DLogNode {
         }
     }
 
-    public void warning(String message, boolean printToConsole) {
+    public synchronized void warning(String message, boolean printToConsole) {
         logs.add(DLogContext.of(message, Level.WARNING));
         if (printToConsole) {
             plugin.getLogger().log(Level.WARNING, message);
         }
     }
 
-    public void severe(String message, boolean printToConsole) {
+    public synchronized void severe(String message, boolean printToConsole) {
         logs.add(DLogContext.of(message, Level.SEVERE));
         if (printToConsole) {
             plugin.getLogger().log(Level.SEVERE, message);
         }
     }
 
-    public void clear() {
+    public synchronized void clear() {
         logs.clear();
     }
 
-    public YamlConfiguration serialize() {
+    public synchronized YamlConfiguration serialize() {
         YamlConfiguration data = new YamlConfiguration();
         logs.sort(Comparator.comparingLong(o -> o.getTimestamp().getTime()));
         logs.forEach(l -> data.set(l.getFormatedTimestamp(), l.getFormatedContext()));
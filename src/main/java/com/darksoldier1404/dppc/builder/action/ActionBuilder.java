@@ -4,6 +4,7 @@ import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
 import com.darksoldier1404.dppc.builder.action.actions.*;
 import com.darksoldier1404.dppc.builder.action.obj.Action;
 import com.darksoldier1404.dppc.builder.action.obj.ActionContext;
+import com.darksoldier1404.dppc.builder.action.obj.VariableSlots;
 import com.darksoldier1404.dppc.data.DPlugin;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
@@ -19,6 +20,7 @@ public class ActionBuilder {
     private String actionName;
     private boolean isEditing = false;
     private int currentEditIndex = 0;
+    private VariableSlots slots = new VariableSlots();
 
     public ActionBuilder(DPlugin plugin, String actionName) {
         this.plugin = plugin;
@@ -33,6 +35,14 @@ public class ActionBuilder {
         return actions;
     }
 
+    /**
+     * @return the temp variable names of this script, interned to the slot ids its actions use.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public VariableSlots getVariableSlots() {
+        return slots;
+    }
+
     public String getActionName() {
         return actionName;
     }
@@ -54,6 +64,7 @@ public class ActionBuilder {
     }
 
     private void update(Action a) {
+        a.bindSlots(slots);
         if (isEditing) {
             if (currentEditIndex < actions.size()) {
                 actions.set(currentEditIndex, a);
@@ -346,7 +357,7 @@ public class ActionBuilder {
     // --- Execution ---
 
     public void execute(Player player) {
-        new ActionExecutor(plugin, actions, player).start();
+        new ActionExecutor(plugin, actions, slots, player).start();
     }
 
     // --- Script Parsing ---
@@ -357,6 +368,7 @@ public class ActionBuilder {
             if (line.isEmpty() || line.startsWith("#")) continue;
             Action action = parseAction(line);
             if (action != null) {
+                action.bindSlots(slots);
                 actions.add(action);
             } else {
                 plugin.getLog().warning("Unknown action: " + line, true);
@@ -437,12 +449,14 @@ public class ActionBuilder {
 
     public ActionBuilder importFromYaml(YamlConfiguration file) {
         actions.clear();
+        slots = new VariableSlots();
         actionName = file.getString("ACTION_NAME");
         List<String> serialized = file.getStringList("actions");
         for (String line : serialized) {
             if (line != null && !line.isEmpty()) {
                 Action action = parseAction(line.trim());
                 if (action != null) {
+                    action.bindSlots(slots);
                     actions.add(action);
                 }
             }
@@ -458,10 +472,10 @@ public class ActionBuilder {
         private final ActionContext context;
         private int currentIndex = 0;
 
-        ActionExecutor(DPlugin plugin, List<Action> actions, Player player) {
+        ActionExecutor(DPlugin plugin, List<Action> actions, VariableSlots slots, Player player) {
             this.plugin = plugin;
             this.actions = new ArrayList<>(actions);
-            this.context = new ActionContext(player);
+            this.context = new ActionContext(player, slots);
         }
 
         public void start() {
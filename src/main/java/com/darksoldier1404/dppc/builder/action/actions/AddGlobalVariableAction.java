@@ -15,16 +15,7 @@ public class AddGlobalVariableAction implements Action {
 
     @Override
     public void execute(ActionContext context) {
-        try {
-            double current = Double.parseDouble(context.getGlobalVariable(name));
-            double result = current + amount;
-            String formatted = result == (long) result
-                    ? String.valueOf((long) result)
-                    : String.valueOf(result);
-            context.setGlobalVariable(name, formatted);
-        } catch (NumberFormatException e) {
-            context.setGlobalVariable(name, String.valueOf(amount));
-        }
+        context.addGlobalVariable(name, amount);
     }
 
     @Override
@@ -15,16 +15,7 @@ public class AddPlayerVariableAction implements Action {
 
     @Override
     public void execute(ActionContext context) {
-        try {
-            double current = Double.parseDouble(context.getPlayerVariable(name));
-            double result = current + amount;
-            String formatted = result == (long) result
-                    ? String.valueOf((long) result)
-                    : String.valueOf(result);
-            context.setPlayerVariable(name, formatted);
-        } catch (NumberFormatException e) {
-            context.setPlayerVariable(name, String.valueOf(amount));
-        }
+        context.addPlayerVariable(name, amount);
     }
 
     @Override
@@ -3,28 +3,27 @@ package com.darksoldier1404.dppc.builder.action.actions;
 import com.darksoldier1404.dppc.builder.action.obj.Action;
 import com.darksoldier1404.dppc.builder.action.obj.ActionContext;
 import com.darksoldier1404.dppc.builder.action.obj.ActionType;
+import com.darksoldier1404.dppc.builder.action.obj.VariableSlots;
 
 public class AddTempVariableAction implements Action {
     private final String name;
     private final double amount;
+    private VariableSlots.Slot slot;
 
     public AddTempVariableAction(String name, double amount) {
         this.name = name;
+        this.slot = VariableSlots.unbound(name);
         this.amount = amount;
     }
 
     @Override
     public void execute(ActionContext context) {
-        try {
-            double current = Double.parseDouble(context.getVariable(name));
-            double result = current + amount;
-            String formatted = result == (long) result
-                    ? String.valueOf((long) result)
-                    : String.valueOf(result);
-            context.setVariable(name, formatted);
-        } catch (NumberFormatException e) {
-            context.setVariable(name, String.valueOf(amount));
-        }
+        context.addVariable(slot, amount);
+    }
+
+    @Override
+    public void bindSlots(VariableSlots slots) {
+        slot = slots.intern(name);
     }
 
     @Override
@@ -17,11 +17,7 @@ public class IfGlobalVariableGreaterAction implements Action {
     public void execute(ActionContext context) {
         boolean result = false;
         if (context.shouldExecute()) {
-            try {
-                double val = Double.parseDouble(context.getGlobalVariable(name));
-                result = val > threshold;
-            } catch (NumberFormatException ignored) {
-            }
+            result = context.getGlobalVariableNumber(name) > threshold;
         }
         context.pushCondition(result);
     }
@@ -17,11 +17,7 @@ public class IfPlayerVariableLessAction implements Action {
     public void execute(ActionContext context) {
         boolean result = false;
         if (context.shouldExecute()) {
-            try {
-                double val = Double.parseDouble(context.getPlayerVariable(name));
-                result = val < threshold;
-            } catch (NumberFormatException ignored) {
-            }
+            result = context.getPlayerVariableNumber(name) < threshold;
         }
         context.pushCondition(result);
     }
@@ -3,20 +3,23 @@ package com.darksoldier1404.dppc.builder.action.actions;
 import com.darksoldier1404.dppc.builder.action.obj.Action;
 import com.darksoldier1404.dppc.builder.action.obj.ActionContext;
 import com.darksoldier1404.dppc.builder.action.obj.ActionType;
+import com.darksoldier1404.dppc.builder.action.obj.VariableSlots;
 
 public class IfTempVariableEqualsAction implements Action {
     private final String name;
     private final String value;
+    private VariableSlots.Slot slot;
 
     public IfTempVariableEqualsAction(String name, String value) {
         this.name = name;
+        this.slot = VariableSlots.unbound(name);
         this.value = value;
     }
 
     @Override
     public void execute(ActionContext context) {
         boolean result = context.shouldExecute()
-                && context.applyVariables(context.getVariable(name)).equals(context.applyVariables(value));
+                && context.applyVariables(context.getVariable(slot)).equals(context.applyVariables(value));
         context.pushCondition(result);
     }
 
@@ -25,6 +28,11 @@ public class IfTempVariableEqualsAction implements Action {
         return true;
     }
 
+    @Override
+    public void bindSlots(VariableSlots slots) {
+        slot = slots.intern(name);
+    }
+
     @Override
     public ActionType getActionType() {
         return ActionType.IF_TEMP_VARIABLE_EQUALS;
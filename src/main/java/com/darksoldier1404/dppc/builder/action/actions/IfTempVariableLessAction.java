@@ -3,13 +3,16 @@ package com.darksoldier1404.dppc.builder.action.actions;
 import com.darksoldier1404.dppc.builder.action.obj.Action;
 import com.darksoldier1404.dppc.builder.action.obj.ActionContext;
 import com.darksoldier1404.dppc.builder.action.obj.ActionType;
+import com.darksoldier1404.dppc.builder.action.obj.VariableSlots;
 
 public class IfTempVariableLessAction implements Action {
     private final String name;
     private final double threshold;
+    private VariableSlots.Slot slot;
 
     public IfTempVariableLessAction(String name, double threshold) {
         this.name = name;
+        this.slot = VariableSlots.unbound(name);
         this.threshold = threshold;
     }
 
@@ -17,11 +20,7 @@ public class IfTempVariableLessAction implements Action {
     public void execute(ActionContext context) {
         boolean result = false;
         if (context.shouldExecute()) {
-            try {
-                double val = Double.parseDouble(context.getVariable(name));
-                result = val < threshold;
-            } catch (NumberFormatException ignored) {
-            }
+            result = context.getVariableNumber(slot) < threshold;
         }
         context.pushCondition(result);
     }
@@ -31,6 +30,11 @@ public class IfTempVariableLessAction implements Action {
         return true;
     }
 
+    @Override
+    public void bindSlots(VariableSlots slots) {
+        slot = slots.intern(name);
+    }
+
     @Override
     public ActionType getActionType() {
         return ActionType.IF_TEMP_VARIABLE_LESS;
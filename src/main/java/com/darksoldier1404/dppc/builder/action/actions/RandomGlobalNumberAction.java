@@ -20,7 +20,7 @@ public class RandomGlobalNumberAction implements Action {
     @Override
     public void execute(ActionContext context) {
         int value = ThreadLocalRandom.current().nextInt(min, max + 1);
-        context.setGlobalVariable(name, String.valueOf(value));
+        context.setGlobalVariableNumber(name, value);
     }
 
     @Override
@@ -20,7 +20,7 @@ public class RandomPlayerNumberAction implements Action {
     @Override
     public void execute(ActionContext context) {
         int value = ThreadLocalRandom.current().nextInt(min, max + 1);
-        context.setPlayerVariable(name, String.valueOf(value));
+        context.setPlayerVariableNumber(name, value);
     }
 
     @Override
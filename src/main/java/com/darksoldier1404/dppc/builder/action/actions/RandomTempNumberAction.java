@@ -3,6 +3,7 @@ package com.darksoldier1404.dppc.builder.action.actions;
 import com.darksoldier1404.dppc.builder.action.obj.Action;
 import com.darksoldier1404.dppc.builder.action.obj.ActionContext;
 import com.darksoldier1404.dppc.builder.action.obj.ActionType;
+import com.darksoldier1404.dppc.builder.action.obj.VariableSlots;
 
 import java.util.concurrent.ThreadLocalRandom;
 
@@ -10,9 +11,11 @@ public class RandomTempNumberAction implements Action {
     private final String name;
     private final int min;
     private final int max;
+    private VariableSlots.Slot slot;
 
     public RandomTempNumberAction(String name, int min, int max) {
         this.name = name;
+        this.slot = VariableSlots.unbound(name);
         this.min = min;
         this.max = max;
     }
@@ -20,7 +23,12 @@ public class RandomTempNumberAction implements Action {
     @Override
     public void execute(ActionContext context) {
         int value = ThreadLocalRandom.current().nextInt(min, max + 1);
-        context.setVariable(name, String.valueOf(value));
+        context.setVariableNumber(slot, value);
+    }
+
+    @Override
+    public void bindSlots(VariableSlots slots) {
+        slot = slots.intern(name);
     }
 
     @Override
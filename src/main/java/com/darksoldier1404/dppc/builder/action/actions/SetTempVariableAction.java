@@ -3,19 +3,27 @@ package com.darksoldier1404.dppc.builder.action.actions;
 import com.darksoldier1404.dppc.builder.action.obj.Action;
 import com.darksoldier1404.dppc.builder.action.obj.ActionContext;
 import com.darksoldier1404.dppc.builder.action.obj.ActionType;
+import com.darksoldier1404.dppc.builder.action.obj.VariableSlots;
 
 public class SetTempVariableAction implements Action {
     private final String name;
     private final String value;
+    private VariableSlots.Slot slot;
 
     public SetTempVariableAction(String name, String value) {
         this.name = name;
+        this.slot = VariableSlots.unbound(name);
         this.value = value;
     }
 
     @Override
     public void execute(ActionContext context) {
-        context.setVariable(name, context.applyVariables(value));
+        context.setVariable(slot, context.applyVariables(value));
+    }
+
+    @Override
+    public void bindSlots(VariableSlots slots) {
+        slot = slots.intern(name);
     }
 
     @Override
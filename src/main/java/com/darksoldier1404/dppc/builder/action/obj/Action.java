@@ -1,5 +1,7 @@
 package com.darksoldier1404.dppc.builder.action.obj;
 
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
+
 public interface Action {
     void execute(ActionContext context);
 
@@ -18,4 +20,12 @@ public interface Action {
     default boolean isFlowControl() {
         return false;
     }
+
+    /**
+     * Binds the temporary variable names this action uses to slots of its script's table.
+     * Called by the builder when the action is added; actions without temp variables ignore it.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    default void bindSlots(VariableSlots slots) {
+    }
 }
@@ -1,30 +1,42 @@
 package com.darksoldier1404.dppc.builder.action.obj;
 
 import com.darksoldier1404.dppc.DPPCore;
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
 import org.bukkit.entity.Player;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
-import java.util.HashMap;
-import java.util.Map;
 
 public class ActionContext {
     private final Player player;
-    private final Map<String, String> variables = new HashMap<>();
+    private final VariableScope variables = new VariableScope();
+    private final VariableSlots slotTable;
+    private final SlotValues slots;
     private final Deque<Boolean> conditionStack = new ArrayDeque<>();
     private boolean cancelled = false;
     private VariableStore store;
 
     public ActionContext(Player player) {
-        this.player = player;
+        this(player, (VariableSlots) null);
     }
 
     /** Lets tests inject an isolated, memory-only store. */
     public ActionContext(Player player, VariableStore store) {
-        this.player = player;
+        this(player, (VariableSlots) null);
         this.store = store;
     }
 
+    /**
+     * @param slotTable The temp variable slots of the script this context executes; its
+     *                  variables are kept in arrays sized by the table. May be null.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public ActionContext(Player player, VariableSlots slotTable) {
+        this.player = player;
+        this.slotTable = slotTable;
+        this.slots = new SlotValues(slotTable == null ? 0 : slotTable.size());
+    }
+
     public Player getPlayer() {
         return player;
     }
@@ -78,16 +90,122 @@ public class ActionContext {
 
     // --- Temporary variables (per-execution) ---
 
+    /**
+     * @return the array index of the slot, or -1 if it belongs to another table or was interned
+     * after this context was created.
+     */
+    private int indexOf(VariableSlots.Slot slot) {
+        return slotTable != null && slot.getTable() == slotTable && slot.getIndex() < slots.size()
+                ? slot.getIndex() : -1;
+    }
+
+    private int indexOf(String name) {
+        if (slotTable == null) {
+            return -1;
+        }
+        int index = slotTable.indexOf(name);
+        return index < slots.size() ? index : -1;
+    }
+
     public void setVariable(String name, String value) {
-        variables.put(name, value);
+        int index = indexOf(name);
+        if (index >= 0) {
+            slots.set(index, value);
+        } else {
+            variables.set(name, value);
+        }
     }
 
     public String getVariable(String name) {
-        return variables.getOrDefault(name, "");
+        int index = indexOf(name);
+        if (index >= 0) {
+            String value = slots.find(index);
+            return value == null ? "" : value;
+        }
+        return variables.get(name);
     }
 
     public boolean hasVariable(String name) {
-        return variables.containsKey(name);
+        int index = indexOf(name);
+        return index >= 0 ? slots.has(index) : variables.has(name);
+    }
+
+    /**
+     * @return the value as a number, or {@link Double#NaN} if it is not set or not a number.
+     */
+    public double getVariableNumber(String name) {
+        int index = indexOf(name);
+        return index >= 0 ? slots.getNumber(index) : variables.getNumber(name);
+    }
+
+    public void setVariableNumber(String name, double value) {
+        int index = indexOf(name);
+        if (index >= 0) {
+            slots.setNumber(index, value);
+        } else {
+            variables.setNumber(name, value);
+        }
+    }
+
+    /**
+     * @return the new value; a variable that is not set or not a number is set to {@code amount}.
+     */
+    public double addVariable(String name, double amount) {
+        int index = indexOf(name);
+        return index >= 0 ? slots.add(index, amount) : variables.add(name, amount);
+    }
+
+    // Slot variants used by the temp variable actions: an array access when the slot belongs to
+    // this context's table, the name-keyed variables otherwise.
+
+    @DPPCoreVersion(since = "5.4.3")
+    public void setVariable(VariableSlots.Slot slot, String value) {
+        int index = indexOf(slot);
+        if (index >= 0) {
+            slots.set(index, value);
+        } else {
+            setVariable(slot.getName(), value);
+        }
+    }
+
+    @DPPCoreVersion(since = "5.4.3")
+    public String getVariable(VariableSlots.Slot slot) {
+        int index = indexOf(slot);
+        if (index >= 0) {
+            String value = slots.find(index);
+            return value == null ? "" : value;
+        }
+        return getVariable(slot.getName());
+    }
+
+    @DPPCoreVersion(since = "5.4.3")
+    public double getVariableNumber(VariableSlots.Slot slot) {
+        int index = indexOf(slot);
+        return index >= 0 ? slots.getNumber(index) : getVariableNumber(slot.getName());
+    }
+
+    @DPPCoreVersion(since = "5.4.3")
+    public void setVariableNumber(VariableSlots.Slot slot, double value) {
+        int index = indexOf(slot);
+        if (index >= 0) {
+            slots.setNumber(index, value);
+        } else {
+            setVariableNumber(slot.getName(), value);
+        }
+    }
+
+    @DPPCoreVersion(since = "5.4.3")
+    public double addVariable(VariableSlots.Slot slot, double amount) {
+        int index = indexOf(slot);
+        return index >= 0 ? slots.add(index, amount) : addVariable(slot.getName(), amount);
+    }
+
+    /**
+     * @return the temp variable as text, or null if it is not set.
+     */
+    private String findVariable(String name) {
+        int index = indexOf(name);
+        return index >= 0 ? slots.find(index) : variables.find(name);
     }
 
     // --- Player variables (persisted per player) ---
@@ -104,6 +222,18 @@ public class ActionContext {
         return store().hasPlayer(player.getUniqueId(), name);
     }
 
+    public double getPlayerVariableNumber(String name) {
+        return store().getPlayerNumber(player.getUniqueId(), name);
+    }
+
+    public void setPlayerVariableNumber(String name, double value) {
+        store().setPlayerNumber(player.getUniqueId(), name, value);
+    }
+
+    public double addPlayerVariable(String name, double amount) {
+        return store().addPlayer(player.getUniqueId(), name, amount);
+    }
+
     // --- Global variables (persisted server-wide) ---
 
     public void setGlobalVariable(String name, String value) {
@@ -118,6 +248,18 @@ public class ActionContext {
         return store().hasGlobal(name);
     }
 
+    public double getGlobalVariableNumber(String name) {
+        return store().getGlobalNumber(name);
+    }
+
+    public void setGlobalVariableNumber(String name, double value) {
+        store().setGlobalNumber(name, value);
+    }
+
+    public double addGlobalVariable(String name, double amount) {
+        return store().addGlobal(name, amount);
+    }
+
     public String applyVariables(String text) {
         if (text == null) return null;
         String result = text
@@ -129,15 +271,12 @@ public class ActionContext {
                 .replace("{player_health}", String.format("%.1f", player.getHealth()))
                 .replace("{player_level}", String.valueOf(player.getLevel()))
                 .replace("{player_food}", String.valueOf(player.getFoodLevel()));
-        for (Map.Entry<String, String> entry : variables.entrySet()) {
-            result = result.replace("{" + entry.getKey() + "}", entry.getValue());
-        }
-        for (Map.Entry<String, String> entry : store().getPlayerMap(player.getUniqueId()).entrySet()) {
-            result = result.replace("{pvar_" + entry.getKey() + "}", entry.getValue());
-        }
-        for (Map.Entry<String, String> entry : store().getGlobalMap().entrySet()) {
-            result = result.replace("{gvar_" + entry.getKey() + "}", entry.getValue());
+        result = VariableScope.replace(result, "", this::findVariable);
+        result = store().applyTop(result);
+        ConcurrentVariableScope playerScope = store().playerScope(player.getUniqueId());
+        if (playerScope != null) {
+            result = playerScope.apply(result, "pvar_");
         }
-        return result;
+        return store().globalScope().apply(result, "gvar_");
     }
 }
@@ -0,0 +1,320 @@
+package com.darksoldier1404.dppc.builder.action.obj;
+
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Thread-safe counterpart of {@link VariableScope}, used for the persisted global and player
+ * variables so they can be changed from async tasks.
+ * <p>
+ * A numeric variable is a cell holding the bits of its double, updated with compare-and-set,
+ * so {@link #addAndGet}, {@link #compareAndSet} and {@link #getAndUpdate} never lock and never
+ * lose an update. A text variable is a plain string in the map. When a cell is replaced by text
+ * or removed it is retired first; an update that finds a retired cell starts over from the map,
+ * so no update is ever applied to a cell that is no longer visible.
+ */
+@DPPCoreVersion(since = "5.4.3")
+public class ConcurrentVariableScope {
+    /** A NaN payload that {@link Double#doubleToLongBits} never produces. */
+    private static final long RETIRED = 0x7ff8_dead_0000_0001L;
+    private final ConcurrentHashMap<String, Object> slots = new ConcurrentHashMap<>();
+
+    private static final class Cell extends AtomicLong {
+        private Cell(double value) {
+            super(Double.doubleToLongBits(value));
+        }
+    }
+
+    public boolean has(String name) {
+        return slots.containsKey(name);
+    }
+
+    /**
+     * @return the value as text, or an empty string if it is not set.
+     */
+    public String get(String name) {
+        String value = find(name);
+        return value == null ? "" : value;
+    }
+
+    /**
+     * @return the value as text, or null if it is not set.
+     */
+    String find(String name) {
+        while (true) {
+            Object slot = slots.get(name);
+            if (!(slot instanceof Cell)) {
+                return (String) slot;
+            }
+            long bits = ((Cell) slot).get();
+            if (bits != RETIRED) {
+                return VariableScope.format(Double.longBitsToDouble(bits));
+            }
+        }
+    }
+
+    /**
+     * @return the numeric value, the text value parsed as a number, or {@link Double#NaN} if the
+     * variable is not set or not a number.
+     */
+    public double getNumber(String name) {
+        while (true) {
+            Object slot = slots.get(name);
+            if (slot == null) {
+                return Double.NaN;
+            }
+            if (!(slot instanceof Cell)) {
+                return VariableScope.parse((String) slot);
+            }
+            long bits = ((Cell) slot).get();
+            if (bits != RETIRED) {
+                return Double.longBitsToDouble(bits);
+            }
+        }
+    }
+
+    /**
+     * Sets a text value; text in canonical number form is stored as a number, like
+     * {@link VariableScope#set}.
+     *
+     * @return true if the stored value changed.
+     */
+    public boolean set(String name, String value) {
+        if (value == null) {
+            return remove(name);
+        }
+        if (VariableScope.isCanonicalNumber(value)) {
+            return setNumber(name, Double.parseDouble(value));
+        }
+        while (true) {
+            Object slot = slots.get(name);
+            if (slot == null) {
+                if (slots.putIfAbsent(name, value) == null) {
+                    return true;
+                }
+            } else if (slot instanceof Cell) {
+                if (retire((Cell) slot)) {
+                    slots.replace(name, slot, value);
+                    return true;
+                }
+            } else if (slots.replace(name, slot, value)) {
+                return !slot.equals(value);
+            }
+        }
+    }
+
+    /**
+     * @return true if the stored value changed.
+     */
+    public boolean setNumber(String name, double value) {
+        long update = Double.doubleToLongBits(value);
+        while (true) {
+            Object slot = slots.get(name);
+            if (slot == null) {
+                if (slots.putIfAbsent(name, new Cell(value)) == null) {
+                    return true;
+                }
+            } else if (slot instanceof Cell) {
+                Cell cell = (Cell) slot;
+                long bits = cell.get();
+                if (bits != RETIRED && cell.compareAndSet(bits, update)) {
+                    return bits != update;
+                }
+            } else if (slots.replace(name, slot, new Cell(value))) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Atomically adds to the variable. A variable that is not set or not a number is set to
+     * {@code delta}, printed as {@code String.valueOf(delta)} like {@link VariableScope#add}.
+     *
+     * @return the new value.
+     */
+    public double addAndGet(String name, double delta) {
+        while (true) {
+            Object slot = slots.get(name);
+            if (slot == null) {
+                if (slots.putIfAbsent(name, String.valueOf(delta)) == null) {
+                    return delta;
+                }
+            } else if (slot instanceof Cell) {
+                Cell cell = (Cell) slot;
+                long bits = cell.get();
+                if (bits != RETIRED) {
+                    double result = Double.longBitsToDouble(bits) + delta;
+                    if (cell.compareAndSet(bits, Double.doubleToLongBits(result))) {
+                        return result;
+                    }
+                }
+            } else {
+                double current = VariableScope.parse((String) slot);
+                if (Double.isNaN(current)) {
+                    if (slots.replace(name, slot, String.valueOf(delta))) {
+                        return delta;
+                    }
+                } else if (slots.replace(name, slot, new Cell(current + delta))) {
+                    return current + delta;
+                }
+            }
+        }
+    }
+
+    /**
+     * Atomically sets the variable to {@code update} if its numeric value is {@code expect}.
+     *
+     * @return true if the value was set; false if it is not set, not a number or not {@code expect}.
+     */
+    public boolean compareAndSet(String name, double expect, double update) {
+        while (true) {
+            Object slot = slots.get(name);
+            if (slot == null) {
+                return false;
+            }
+            if (slot instanceof Cell) {
+                Cell cell = (Cell) slot;
+                long bits = cell.get();
+                if (bits != RETIRED) {
+                    if (Double.compare(Double.longBitsToDouble(bits), expect) != 0) {
+                        return false;
+                    }
+                    if (cell.compareAndSet(bits, Double.doubleToLongBits(update))) {
+                        return true;
+                    }
+                }
+            } else {
+                if (Double.compare(VariableScope.parse((String) slot), expect) != 0) {
+                    return false;
+                }
+                if (slots.replace(name, slot, new Cell(update))) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Atomically replaces the numeric value with the result of the function, which may be
+     * called more than once under contention and so must not have side effects. A variable that
+     * is not set or not a number is passed as {@link Double#NaN}.
+     *
+     * @return the previous value, or {@link Double#NaN} if it was not set or not a number.
+     */
+    public double getAndUpdate(String name, DoubleUnaryOperator function) {
+        while (true) {
+            Object slot = slots.get(name);
+            if (slot instanceof Cell) {
+                Cell cell = (Cell) slot;
+                long bits = cell.get();
+                if (bits != RETIRED) {
+                    double previous = Double.longBitsToDouble(bits);
+                    if (cell.compareAndSet(bits, Double.doubleToLongBits(function.applyAsDouble(previous)))) {
+                        return previous;
+                    }
+                }
+                continue;
+            }
+            double previous = slot == null ? Double.NaN : VariableScope.parse((String) slot);
+            Cell cell = new Cell(function.applyAsDouble(previous));
+            if (slot == null ? slots.putIfAbsent(name, cell) == null : slots.replace(name, slot, cell)) {
+                return previous;
+            }
+        }
+    }
+
+    /**
+     * @return true if the variable was set.
+     */
+    public boolean remove(String name) {
+        while (true) {
+            Object slot = slots.get(name);
+            if (slot == null) {
+                return false;
+            }
+            if (slot instanceof Cell) {
+                if (retire((Cell) slot)) {
+                    slots.remove(name, slot);
+                    return true;
+                }
+            } else if (slots.remove(name, slot)) {
+                return true;
+            }
+        }
+    }
+
+    public void putAll(Map<String, String> values) {
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            set(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public void clear() {
+        for (String name : slots.keySet()) {
+            remove(name);
+        }
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    public boolean isEmpty() {
+        return slots.isEmpty();
+    }
+
+    /**
+     * Calls the action with every variable as text. Weakly consistent like the iterators of
+     * {@link ConcurrentHashMap}: changes made meanwhile may or may not be seen.
+     */
+    public void forEach(BiConsumer<String, String> action) {
+        for (Map.Entry<String, Object> entry : slots.entrySet()) {
+            Object slot = entry.getValue();
+            if (slot instanceof Cell) {
+                long bits = ((Cell) slot).get();
+                if (bits != RETIRED) {
+                    action.accept(entry.getKey(), VariableScope.format(Double.longBitsToDouble(bits)));
+                }
+            } else {
+                action.accept(entry.getKey(), (String) slot);
+            }
+        }
+    }
+
+    /**
+     * @return a copy of every variable as text.
+     */
+    public Map<String, String> toMap() {
+        Map<String, String> result = new LinkedHashMap<>(size() * 2);
+        forEach(result::put);
+        return result;
+    }
+
+    /**
+     * Replaces every {@code {<prefix><name>}} in the text, like {@link VariableScope#apply}.
+     */
+    String apply(String source, String prefix) {
+        return VariableScope.replace(source, prefix, this::find);
+    }
+
+    /**
+     * @return true if this call retired the cell; false if it was already retired.
+     */
+    private static boolean retire(Cell cell) {
+        while (true) {
+            long bits = cell.get();
+            if (bits == RETIRED) {
+                return false;
+            }
+            if (cell.compareAndSet(bits, RETIRED)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.darksoldier1404.dppc.builder.action.obj;
+
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * The numeric value of one player variable for every player who ever had it saved, including
+ * offline players, kept sorted for leaderboards.
+ * <p>
+ * {@link VariableStore} updates the index whenever it saves or loads a player's variables and
+ * persists it next to the variable files, so {@link #get(UUID)} and {@link #top(int)} never read
+ * a player file. Players whose value is not a number are not in the index. All methods are
+ * thread-safe.
+ */
+@DPPCoreVersion(since = "5.4.3")
+public class PlayerVariableIndex {
+    private static final Comparator<Entry> ORDER = Comparator.comparingDouble(Entry::getValue).reversed()
+            .thenComparing(Entry::getUuid);
+    private final String name;
+    private final Map<UUID, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> sorted = new TreeSet<>(ORDER);
+    private boolean dirty;
+    private volatile boolean ready;
+
+    public PlayerVariableIndex(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return false while the index is still being built from the player files.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    void setReady() {
+        ready = true;
+    }
+
+    /**
+     * Sets the player's value; {@link Double#NaN} removes the player from the index.
+     */
+    public synchronized void update(UUID uuid, double value) {
+        Entry previous = entries.get(uuid);
+        if (previous != null) {
+            if (Double.compare(previous.value, value) == 0) {
+                return;
+            }
+            sorted.remove(previous);
+            entries.remove(uuid);
+            dirty = true;
+        }
+        if (!Double.isNaN(value)) {
+            Entry entry = new Entry(uuid, value);
+            entries.put(uuid, entry);
+            sorted.add(entry);
+            dirty = true;
+        }
+    }
+
+    /**
+     * @return the player's indexed value, or {@link Double#NaN} if the player is not indexed.
+     */
+    public synchronized double get(UUID uuid) {
+        Entry entry = entries.get(uuid);
+        return entry == null ? Double.NaN : entry.value;
+    }
+
+    /**
+     * @return the highest {@code count} entries, highest value first.
+     */
+    public synchronized List<Entry> top(int count) {
+        List<Entry> result = new ArrayList<>(Math.min(Math.max(count, 0), sorted.size()));
+        for (Entry entry : sorted) {
+            if (result.size() >= count) {
+                break;
+            }
+            result.add(entry);
+        }
+        return result;
+    }
+
+    /**
+     * @param rank The 1-based rank.
+     * @return the entry at that rank, or null if fewer players are indexed.
+     */
+    @Nullable
+    public Entry rank(int rank) {
+        List<Entry> top = top(rank);
+        return rank >= 1 && top.size() == rank ? top.get(rank - 1) : null;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the {@code uuid=value} lines to persist, or null if nothing changed since the last call
+     * or the index is still being built (a partial index would replace the persisted one).
+     */
+    @Nullable
+    synchronized List<String> drainLines() {
+        if (!dirty || !ready) {
+            return null;
+        }
+        dirty = false;
+        List<String> lines = new ArrayList<>(entries.size());
+        for (Entry entry : sorted) {
+            lines.add(entry.uuid + "=" + VariableScope.format(entry.value));
+        }
+        return lines;
+    }
+
+    synchronized void markDirty() {
+        dirty = true;
+    }
+
+    /**
+     * Adds persisted or scanned values; values already in the index are kept.
+     *
+     * @param changed Whether the added values differ from the persisted index.
+     */
+    synchronized void addAbsent(Map<UUID, Double> values, boolean changed) {
+        for (Map.Entry<UUID, Double> value : values.entrySet()) {
+            if (!entries.containsKey(value.getKey()) && !Double.isNaN(value.getValue())) {
+                Entry entry = new Entry(value.getKey(), value.getValue());
+                entries.put(value.getKey(), entry);
+                sorted.add(entry);
+                dirty |= changed;
+            }
+        }
+    }
+
+    public static final class Entry {
+        private final UUID uuid;
+        private final double value;
+
+        private Entry(UUID uuid, double value) {
+            this.uuid = uuid;
+            this.value = value;
+        }
+
+        public UUID getUuid() {
+            return uuid;
+        }
+
+        public double getValue() {
+            return value;
+        }
+    }
+}
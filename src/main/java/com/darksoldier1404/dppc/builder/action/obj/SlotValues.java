@@ -0,0 +1,70 @@
+package com.darksoldier1404.dppc.builder.action.obj;
+
+/**
+ * The temporary variables of an {@link ActionContext} that are interned in its
+ * {@link VariableSlots}, kept in flat arrays indexed by slot id. Same semantics as
+ * {@link VariableScope}: a slot holds either text or a primitive double.
+ * <p>
+ * Not thread-safe.
+ */
+final class SlotValues {
+    private final String[] text;
+    private final double[] numbers;
+    private final boolean[] numeric;
+
+    SlotValues(int size) {
+        text = new String[size];
+        numbers = new double[size];
+        numeric = new boolean[size];
+    }
+
+    int size() {
+        return text.length;
+    }
+
+    boolean has(int slot) {
+        return numeric[slot] || text[slot] != null;
+    }
+
+    /**
+     * @return the value as text, or null if it is not set.
+     */
+    String find(int slot) {
+        return numeric[slot] ? VariableScope.format(numbers[slot]) : text[slot];
+    }
+
+    double getNumber(int slot) {
+        return numeric[slot] ? numbers[slot] : VariableScope.parse(text[slot]);
+    }
+
+    void set(int slot, String value) {
+        if (VariableScope.isCanonicalNumber(value)) {
+            setNumber(slot, Double.parseDouble(value));
+            return;
+        }
+        numeric[slot] = false;
+        text[slot] = value;
+    }
+
+    void setNumber(int slot, double value) {
+        text[slot] = null;
+        numeric[slot] = true;
+        numbers[slot] = value;
+    }
+
+    /**
+     * Adds in place, like {@link VariableScope#add}.
+     */
+    double add(int slot, double amount) {
+        if (numeric[slot]) {
+            return numbers[slot] += amount;
+        }
+        double current = VariableScope.parse(text[slot]);
+        if (Double.isNaN(current)) {
+            set(slot, String.valueOf(amount));
+            return amount;
+        }
+        setNumber(slot, current + amount);
+        return current + amount;
+    }
+}
@@ -0,0 +1,323 @@
+package com.darksoldier1404.dppc.builder.action.obj;
+
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * One set of action variables: the temporary variables of an {@link ActionContext}. The
+ * persisted global and player variables use the thread-safe {@link ConcurrentVariableScope}.
+ * <p>
+ * Numeric values are kept as primitive doubles in an open-addressing table, so counters bumped
+ * by {@code add_*_variable} and compared by {@code if_*_greater/less} are never parsed or
+ * formatted per execution. Everything else is kept as text. A value set as text that is already
+ * in canonical number form ({@code "7"}, {@code "2.5"}) is stored as a number, so values read
+ * back from disk become numeric without changing how they print. Numbers are turned into text
+ * only by {@link #get(String)}, {@link #apply} and persistence.
+ * <p>
+ * Not thread-safe.
+ */
+@DPPCoreVersion(since = "5.4.3")
+public class VariableScope {
+    private static final int MIN_CAPACITY = 8;
+    private final Map<String, String> text = new HashMap<>();
+    private String[] keys = new String[MIN_CAPACITY];
+    private double[] values = new double[MIN_CAPACITY];
+    private int numbers;
+
+    public boolean has(String name) {
+        return indexOf(name) >= 0 || text.containsKey(name);
+    }
+
+    /**
+     * @return the value as text, or an empty string if it is not set.
+     */
+    public String get(String name) {
+        int index = indexOf(name);
+        if (index >= 0) {
+            return format(values[index]);
+        }
+        return text.getOrDefault(name, "");
+    }
+
+    /**
+     * @return the numeric value, the text value parsed as a number, or {@link Double#NaN} if the
+     * variable is not set or not a number.
+     */
+    public double getNumber(String name) {
+        int index = indexOf(name);
+        if (index >= 0) {
+            return values[index];
+        }
+        return parse(text.get(name));
+    }
+
+    /**
+     * @return true if the stored value changed.
+     */
+    public boolean set(String name, String value) {
+        if (isCanonicalNumber(value)) {
+            return setNumber(name, Double.parseDouble(value));
+        }
+        boolean changed = removeNumber(name);
+        return !Objects.equals(text.put(name, value), value) || changed;
+    }
+
+    /**
+     * @return true if the stored value changed.
+     */
+    public boolean setNumber(String name, double value) {
+        boolean changed = text.remove(name) != null;
+        int index = indexOf(name);
+        if (index >= 0) {
+            changed |= Double.compare(values[index], value) != 0;
+            values[index] = value;
+            return changed;
+        }
+        insert(-index - 1, name, value);
+        return true;
+    }
+
+    /**
+     * Adds to the variable in place. A variable that is not set or not a number is set to
+     * {@code amount}, printed as {@code String.valueOf(amount)} like the add actions always did.
+     *
+     * @return the new value.
+     */
+    public double add(String name, double amount) {
+        int index = indexOf(name);
+        if (index >= 0) {
+            return values[index] += amount;
+        }
+        double current = parse(text.get(name));
+        if (Double.isNaN(current)) {
+            set(name, String.valueOf(amount));
+            return amount;
+        }
+        double result = current + amount;
+        setNumber(name, result);
+        return result;
+    }
+
+    /**
+     * @return true if the variable was set.
+     */
+    public boolean remove(String name) {
+        return removeNumber(name) | text.remove(name) != null;
+    }
+
+    public void putAll(Map<String, String> values) {
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            set(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public void clear() {
+        text.clear();
+        Arrays.fill(keys, null);
+        numbers = 0;
+    }
+
+    public int size() {
+        return numbers + text.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Calls the action with every variable as text.
+     */
+    public void forEach(BiConsumer<String, String> action) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                action.accept(keys[i], format(values[i]));
+            }
+        }
+        text.forEach(action);
+    }
+
+    /**
+     * @return a copy of every variable as text.
+     */
+    public Map<String, String> toMap() {
+        Map<String, String> result = new LinkedHashMap<>(size() * 2);
+        forEach(result::put);
+        return result;
+    }
+
+    /**
+     * @return the value as text, or null if it is not set.
+     */
+    String find(String name) {
+        int index = indexOf(name);
+        return index >= 0 ? format(values[index]) : text.get(name);
+    }
+
+    /**
+     * Replaces every {@code {<prefix><name>}} in the text. Numbers are formatted only for
+     * placeholders that actually occur.
+     */
+    String apply(String source, String prefix) {
+        return replace(source, prefix, this::find);
+    }
+
+    /**
+     * Replaces every {@code {<prefix><name>}} in the text whose name the lookup resolves to a
+     * non-null value. The text is scanned once, so the cost follows the placeholders in the text
+     * rather than the number of variables, and no placeholder string is built per variable.
+     * Replaced values are not scanned again.
+     */
+    static String replace(String source, String prefix, Function<String, String> lookup) {
+        int open = source.indexOf('{');
+        StringBuilder result = null;
+        int copied = 0;
+        while (open >= 0) {
+            int close = source.indexOf('}', open + 1);
+            if (close < 0) {
+                break;
+            }
+            int next = source.indexOf('{', open + 1);
+            if (next >= 0 && next < close) {
+                open = next;
+                continue;
+            }
+            if (source.startsWith(prefix, open + 1)) {
+                String value = lookup.apply(source.substring(open + 1 + prefix.length(), close));
+                if (value != null) {
+                    if (result == null) {
+                        result = new StringBuilder(source.length() + 16);
+                    }
+                    result.append(source, copied, open).append(value);
+                    copied = close + 1;
+                }
+            }
+            open = next;
+        }
+        return result == null ? source : result.append(source, copied, source.length()).toString();
+    }
+
+    /**
+     * Formats a number the way the variable actions always have: without a fraction when it is
+     * a whole number.
+     */
+    public static String format(double value) {
+        return value == (long) value ? String.valueOf((long) value) : String.valueOf(value);
+    }
+
+    static double parse(String value) {
+        if (value == null || value.isEmpty()) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * @return true if the text is a number that {@link #format} prints back unchanged.
+     */
+    static boolean isCanonicalNumber(String value) {
+        if (value == null || value.isEmpty() || value.length() > 32) {
+            return false;
+        }
+        char first = value.charAt(0);
+        if (first == '-' && value.length() > 1) {
+            first = value.charAt(1);
+        }
+        if (first < '0' || first > '9') {
+            return false;
+        }
+        double parsed = parse(value);
+        return !Double.isNaN(parsed) && format(parsed).equals(value);
+    }
+
+    // --- Open-addressing table of numeric values (linear probing) ---
+
+    private static int hash(String name) {
+        int h = name.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return the slot of the name, or {@code -slot - 1} of the free slot it would go to.
+     */
+    private int indexOf(String name) {
+        int mask = keys.length - 1;
+        int i = hash(name) & mask;
+        while (true) {
+            String key = keys[i];
+            if (key == null) {
+                return -i - 1;
+            }
+            if (key.equals(name)) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    private void insert(int slot, String name, double value) {
+        if ((numbers + 1) * 4 > keys.length * 3) {
+            resize(keys.length * 2);
+            slot = -indexOf(name) - 1;
+        }
+        keys[slot] = name;
+        values[slot] = value;
+        numbers++;
+    }
+
+    private boolean removeNumber(String name) {
+        int i = indexOf(name);
+        if (i < 0) {
+            return false;
+        }
+        // Backward-shift deletion keeps every probe chain unbroken without tombstones.
+        int mask = keys.length - 1;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            String key = keys[j];
+            if (key == null) {
+                break;
+            }
+            int home = hash(key) & mask;
+            boolean reachable = i <= j ? (i < home && home <= j) : (i < home || home <= j);
+            if (!reachable) {
+                keys[i] = key;
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = null;
+        numbers--;
+        return true;
+    }
+
+    private void resize(int capacity) {
+        String[] oldKeys = keys;
+        double[] oldValues = values;
+        keys = new String[capacity];
+        values = new double[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.darksoldier1404.dppc.builder.action.obj;
+
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The temporary variable names of one action script, each interned to a slot id when the
+ * script is parsed.
+ * <p>
+ * Every temp variable action added to an {@link com.darksoldier1404.dppc.builder.action.ActionBuilder}
+ * is bound to its builder's table through {@link Action#bindSlots}, and every {@link ActionContext}
+ * the builder executes keeps its temp variables in flat arrays sized by {@link #size()}. A
+ * variable action then reads and writes its slot by index, without hashing its name.
+ * <p>
+ * An action that is not bound to the context's table, and a name looked up by text, fall back
+ * to the context's name-keyed variables, so both always see the same values. Filled while
+ * parsing on the main thread; not thread-safe.
+ */
+@DPPCoreVersion(since = "5.4.3")
+public class VariableSlots {
+    private final Map<String, Slot> slots = new HashMap<>();
+
+    /**
+     * @return the slot of the name, added to the table if it is new.
+     */
+    public Slot intern(String name) {
+        return slots.computeIfAbsent(name, key -> new Slot(this, slots.size(), key));
+    }
+
+    /**
+     * @return the slot id of the name, or -1 if it was never interned.
+     */
+    public int indexOf(String name) {
+        Slot slot = slots.get(name);
+        return slot == null ? -1 : slot.index;
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    /**
+     * @return a slot bound to no table, for actions created outside a builder; contexts look it
+     * up by name.
+     */
+    public static Slot unbound(String name) {
+        return new Slot(null, -1, name);
+    }
+
+    public static final class Slot {
+        private final VariableSlots table;
+        private final int index;
+        private final String name;
+
+        private Slot(VariableSlots table, int index, String name) {
+            this.table = table;
+            this.index = index;
+            this.name = name;
+        }
+
+        VariableSlots getTable() {
+            return table;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
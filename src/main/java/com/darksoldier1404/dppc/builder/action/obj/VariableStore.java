@@ -2,14 +2,39 @@ package com.darksoldier1404.dppc.builder.action.obj;
 
 import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
 import com.darksoldier1404.dppc.data.DPlugin;
+import com.darksoldier1404.dppc.data.DataIO;
+import com.darksoldier1404.dppc.data.PlayerPreloadable;
+import com.darksoldier1404.dppc.data.storage.DataJournal;
+import com.darksoldier1404.dppc.data.storage.FileStorageBackend;
+import com.darksoldier1404.dppc.data.storage.StorageBackend;
 import com.darksoldier1404.dppc.utils.ConfigUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.DoubleUnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Holds persisted action variables. Two scopes are supported:
@@ -17,27 +42,60 @@ import java.util.UUID;
  *     <li>Global: one value shared by the whole server, stored in
  *     {@code variables/global.yml}.</li>
  *     <li>Player: a value per player UUID, stored in
- *     {@code variables/players/<uuid>.yml}; loaded on join, saved on quit.</li>
+ *     {@code variables/players/<uuid>.yml}; read while the player logs in (see
+ *     {@link com.darksoldier1404.dppc.data.DataPreloader}), published on join, saved on quit.</li>
  * </ul>
  * Temporary (per-execution) variables are <b>not</b> handled here; they live in
  * {@link ActionContext}.
  *
  * <p>Each variable is serialized as a {@code "name=value"} line so that names
- * containing dots do not collide with YAML path separators.</p>
+ * containing dots do not collide with YAML path separators. In memory every scope is a
+ * {@link ConcurrentVariableScope}, which keeps numeric values as doubles; they are formatted
+ * back into the same lines on save.</p>
+ *
+ * <p>Variables may be read and changed from any thread. {@link #addGlobal},
+ * {@link #compareAndSetGlobal}, {@link #getAndUpdateGlobal} and their player counterparts are
+ * atomic and lock-free for numeric values. Loading, saving and unloading stay on the main
+ * thread.</p>
  *
  * <p>When constructed without a plugin the store is memory-only (no disk I/O),
  * which keeps unit tests free of a real data folder.</p>
+ *
+ * <p>With {@link #setJournal(boolean)} the files are written through the plugin's
+ * {@link DataJournal} instead of being rewritten in place on every save.</p>
+ *
+ * <p>Player variables can be {@linkplain #index(String) indexed}: the index holds the value of
+ * every player, online or not, is updated whenever a player's variables are saved or loaded and
+ * is persisted in {@code variables/index/<name>.yml}. It serves {@link #top(String, int)},
+ * {@link #getIndexedPlayerNumber(UUID, String)} and the {@code {pvar_top_<name>_<rank>}} and
+ * {@code {pvar_top_<name>_<rank>_value}} placeholders without reading any player file.</p>
+ *
+ * <p>Every scope has a dirty flag, set by {@link #setGlobal} and {@link #setPlayer} when a value
+ * changes, and the bulk saves ({@link #saveAll()}, {@link #saveAllAsync()} and the
+ * {@linkplain #startAutosave(long) autosave}) write only dirty files. Asynchronous writes run
+ * one after another on the {@link DataIO} pool, so an older copy of a file never overwrites a
+ * newer one.</p>
  */
 @DPPCoreVersion(since = "5.4.3")
-public class VariableStore {
+public class VariableStore implements PlayerPreloadable<Map<String, String>> {
     private static final String FOLDER = "variables";
     private static final String PLAYER_FOLDER = "variables/players";
+    private static final String INDEX_FOLDER = "variables/index";
     private static final String GLOBAL_FILE = "global";
+    private static final Pattern TOP_PLACEHOLDER = Pattern.compile("\\{pvar_top_([^{}]+?)_(\\d{1,6})(_value)?}");
     private static final String KEY = "variables";
+    private static final long PENDING_WAIT_SECONDS = 10L;
 
     private final DPlugin plugin;
-    private final Map<String, String> global = new HashMap<>();
-    private final Map<UUID, Map<String, String>> players = new HashMap<>();
+    private final ConcurrentVariableScope global = new ConcurrentVariableScope();
+    private final Map<UUID, ConcurrentVariableScope> players = new ConcurrentHashMap<>();
+    private volatile boolean globalDirty;
+    private final Set<UUID> dirtyPlayers = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, CompletableFuture<Void>> pendingSaves = new ConcurrentHashMap<>();
+    private final Map<String, PlayerVariableIndex> indexes = new ConcurrentHashMap<>();
+    private volatile CompletableFuture<Void> writes = CompletableFuture.completedFuture(null);
+    private volatile StorageBackend journal;
+    private BukkitTask autosaveTask;
 
     /** Memory-only store (used by unit tests). */
     public VariableStore() {
@@ -51,91 +109,677 @@ public class VariableStore {
     // --- Global ---
 
     public String getGlobal(String name) {
-        return global.getOrDefault(name, "");
+        return global.get(name);
+    }
+
+    /**
+     * @return the value as a number, or {@link Double#NaN} if it is not set or not a number.
+     */
+    public double getGlobalNumber(String name) {
+        return global.getNumber(name);
     }
 
     public boolean hasGlobal(String name) {
-        return global.containsKey(name);
+        return global.has(name);
     }
 
     public void setGlobal(String name, String value) {
-        global.put(name, value);
+        if (global.set(name, value)) {
+            globalDirty = true;
+        }
+    }
+
+    public void setGlobalNumber(String name, double value) {
+        if (global.setNumber(name, value)) {
+            globalDirty = true;
+        }
+    }
+
+    /**
+     * Atomically adds to a global variable; one that is not set or not a number is set to
+     * {@code amount}.
+     *
+     * @return the new value.
+     */
+    public double addGlobal(String name, double amount) {
+        double result = global.addAndGet(name, amount);
+        globalDirty = true;
+        return result;
+    }
+
+    /**
+     * Atomically sets a global variable to {@code update} if its numeric value is {@code expect}.
+     *
+     * @return true if the value was set.
+     */
+    public boolean compareAndSetGlobal(String name, double expect, double update) {
+        if (!global.compareAndSet(name, expect, update)) {
+            return false;
+        }
+        globalDirty = true;
+        return true;
+    }
+
+    /**
+     * Atomically replaces a global variable with the result of the function; see
+     * {@link ConcurrentVariableScope#getAndUpdate}.
+     *
+     * @return the previous value, or {@link Double#NaN} if it was not set or not a number.
+     */
+    public double getAndUpdateGlobal(String name, DoubleUnaryOperator function) {
+        double previous = global.getAndUpdate(name, function);
+        globalDirty = true;
+        return previous;
     }
 
+    /**
+     * @return a copy of the global variables as text; change them through {@link #setGlobal}
+     * so the scope is marked dirty.
+     */
     public Map<String, String> getGlobalMap() {
+        return Collections.unmodifiableMap(global.toMap());
+    }
+
+    public boolean isGlobalDirty() {
+        return globalDirty;
+    }
+
+    public void markGlobalDirty() {
+        globalDirty = true;
+    }
+
+    ConcurrentVariableScope globalScope() {
         return global;
     }
 
     // --- Player ---
 
-    private Map<String, String> playerMap(UUID uuid) {
-        return players.computeIfAbsent(uuid, k -> new HashMap<>());
+    private ConcurrentVariableScope playerMap(UUID uuid) {
+        return players.computeIfAbsent(uuid, k -> new ConcurrentVariableScope());
+    }
+
+    @Nullable
+    ConcurrentVariableScope playerScope(UUID uuid) {
+        return players.get(uuid);
     }
 
     public String getPlayer(UUID uuid, String name) {
-        Map<String, String> m = players.get(uuid);
-        return m == null ? "" : m.getOrDefault(name, "");
+        ConcurrentVariableScope m = players.get(uuid);
+        return m == null ? "" : m.get(name);
+    }
+
+    /**
+     * @return the value as a number, or {@link Double#NaN} if it is not set or not a number.
+     */
+    public double getPlayerNumber(UUID uuid, String name) {
+        ConcurrentVariableScope m = players.get(uuid);
+        return m == null ? Double.NaN : m.getNumber(name);
     }
 
     public boolean hasPlayer(UUID uuid, String name) {
-        Map<String, String> m = players.get(uuid);
-        return m != null && m.containsKey(name);
+        ConcurrentVariableScope m = players.get(uuid);
+        return m != null && m.has(name);
     }
 
     public void setPlayer(UUID uuid, String name, String value) {
-        playerMap(uuid).put(name, value);
+        if (playerMap(uuid).set(name, value)) {
+            dirtyPlayers.add(uuid);
+        }
+    }
+
+    public void setPlayerNumber(UUID uuid, String name, double value) {
+        if (playerMap(uuid).setNumber(name, value)) {
+            dirtyPlayers.add(uuid);
+        }
     }
 
+    /**
+     * Atomically adds to a player variable; one that is not set or not a number is set to
+     * {@code amount}.
+     *
+     * @return the new value.
+     */
+    public double addPlayer(UUID uuid, String name, double amount) {
+        double result = playerMap(uuid).addAndGet(name, amount);
+        dirtyPlayers.add(uuid);
+        return result;
+    }
+
+    /**
+     * Atomically sets a player variable to {@code update} if its numeric value is {@code expect}.
+     *
+     * @return true if the value was set.
+     */
+    public boolean compareAndSetPlayer(UUID uuid, String name, double expect, double update) {
+        if (!playerMap(uuid).compareAndSet(name, expect, update)) {
+            return false;
+        }
+        dirtyPlayers.add(uuid);
+        return true;
+    }
+
+    /**
+     * Atomically replaces a player variable with the result of the function; see
+     * {@link ConcurrentVariableScope#getAndUpdate}.
+     *
+     * @return the previous value, or {@link Double#NaN} if it was not set or not a number.
+     */
+    public double getAndUpdatePlayer(UUID uuid, String name, DoubleUnaryOperator function) {
+        double previous = playerMap(uuid).getAndUpdate(name, function);
+        dirtyPlayers.add(uuid);
+        return previous;
+    }
+
+    /**
+     * @return a copy of the player's variables as text; change them through {@link #setPlayer}
+     * so the scope is marked dirty.
+     */
     public Map<String, String> getPlayerMap(UUID uuid) {
-        return players.getOrDefault(uuid, Collections.emptyMap());
+        ConcurrentVariableScope m = players.get(uuid);
+        return m == null ? Collections.emptyMap() : Collections.unmodifiableMap(m.toMap());
+    }
+
+    public boolean isPlayerDirty(UUID uuid) {
+        return dirtyPlayers.contains(uuid);
+    }
+
+    /** Marks a loaded player's variables as changed; ignored if the player is not loaded. */
+    public void markPlayerDirty(UUID uuid) {
+        if (players.containsKey(uuid)) {
+            dirtyPlayers.add(uuid);
+        }
     }
 
     // --- Persistence ---
 
+    public boolean isJournal() {
+        return journal != null;
+    }
+
+    /**
+     * Routes reads and writes of the variable files through the plugin's {@link DataJournal}.
+     * Turning it off compacts the journal first, so the files are current again.
+     */
+    public void setJournal(boolean enabled) {
+        if (plugin == null || enabled == isJournal()) return;
+        if (enabled) {
+            journal = DataJournal.of(plugin).backend(new FileStorageBackend(plugin));
+            return;
+        }
+        try {
+            DataJournal.of(plugin).compact();
+        } catch (IOException e) {
+            plugin.getLog().warning("Failed to compact the variable journal: " + e.getMessage(), true);
+            return;
+        }
+        journal = null;
+    }
+
+    private StorageBackend storage() {
+        StorageBackend current = journal;
+        return current != null ? current : new FileStorageBackend(plugin);
+    }
+
     public void loadGlobal() {
         if (plugin == null) return;
+        awaitWrites();
         global.clear();
         global.putAll(read(GLOBAL_FILE, FOLDER));
+        globalDirty = false;
     }
 
+    /** Writes the global variables now, whether or not they changed. */
     public void saveGlobal() {
         if (plugin == null) return;
-        write(GLOBAL_FILE, FOLDER, global);
+        awaitWrites();
+        globalDirty = false;
+        if (!write(GLOBAL_FILE, FOLDER, global)) {
+            globalDirty = true;
+        }
     }
 
     public void loadPlayer(UUID uuid) {
         if (plugin == null) return;
-        Map<String, String> m = playerMap(uuid);
+        awaitSave(uuid);
+        ConcurrentVariableScope m = playerMap(uuid);
         m.clear();
         m.putAll(read(uuid.toString(), PLAYER_FOLDER));
+        dirtyPlayers.remove(uuid);
+        indexPlayer(uuid, m);
     }
 
+    /**
+     * Reads the player's variables without touching the in-memory store; safe on the async
+     * login thread. If a quit save of the player is still being written, it is waited for first,
+     * so a fast rejoin never reads the file before it.
+     */
+    @NotNull
+    @Override
+    public Map<String, String> preload(@NotNull UUID uuid) {
+        if (plugin == null) return new HashMap<>();
+        awaitSave(uuid);
+        return read(uuid.toString(), PLAYER_FOLDER);
+    }
+
+    /**
+     * Replaces the player's in-memory variables with the preloaded ones, like {@link #loadPlayer}.
+     * Variables still in memory with unsaved changes (a quit save that failed) are kept instead,
+     * since the file is older than them.
+     */
+    @Override
+    public void publish(@NotNull UUID uuid, @Nullable Map<String, String> staged) {
+        if (plugin == null) return;
+        if (players.containsKey(uuid) && dirtyPlayers.contains(uuid)) return;
+        ConcurrentVariableScope m = playerMap(uuid);
+        m.clear();
+        if (staged != null) m.putAll(staged);
+        dirtyPlayers.remove(uuid);
+        indexPlayer(uuid, m);
+    }
+
+    /** Writes the player's variables now, whether or not they changed. */
     public void savePlayer(UUID uuid) {
         if (plugin == null) return;
-        Map<String, String> m = players.get(uuid);
+        ConcurrentVariableScope m = players.get(uuid);
         if (m == null) return;
-        write(uuid.toString(), PLAYER_FOLDER, m);
+        awaitWrites();
+        dirtyPlayers.remove(uuid);
+        indexPlayer(uuid, m);
+        if (!write(uuid.toString(), PLAYER_FOLDER, m)) {
+            dirtyPlayers.add(uuid);
+        }
+    }
+
+    /**
+     * Copies the player's variables on the calling (main) thread and writes them on the
+     * {@link DataIO} pool. Nothing is written if they did not change.
+     *
+     * @return A future completed once the file is written (or any earlier save of it).
+     */
+    public CompletableFuture<Void> savePlayerAsync(UUID uuid) {
+        if (plugin == null) return CompletableFuture.completedFuture(null);
+        ConcurrentVariableScope m = players.get(uuid);
+        if (m == null || !dirtyPlayers.remove(uuid)) {
+            CompletableFuture<Void> pending = pendingSaves.get(uuid);
+            return pending != null ? pending : CompletableFuture.completedFuture(null);
+        }
+        String fileName = uuid.toString();
+        List<String> lines = toLines(m);
+        indexPlayer(uuid, m);
+        StorageBackend storage = storage();
+        CompletableFuture<Void> saved = enqueue(() -> {
+            try {
+                storage.put(PLAYER_FOLDER, fileName, dump(lines));
+            } catch (IOException e) {
+                dirtyPlayers.add(uuid);
+                throw new CompletionException(e);
+            }
+        });
+        trackPending(Collections.singleton(uuid), saved);
+        return saved;
+    }
+
+    /**
+     * Saves the player's variables off the main thread and unloads them once the write has
+     * finished. Until then they stay in memory, and they are kept if the player rejoined or
+     * changed them again in the meantime.
+     *
+     * @return A future completed once the file is written.
+     */
+    public CompletableFuture<Void> quitPlayer(UUID uuid) {
+        CompletableFuture<Void> saved = savePlayerAsync(uuid);
+        if (saved.isDone()) {
+            unloadPlayer(uuid);
+            return saved;
+        }
+        saved.whenComplete((ignored, error) -> {
+            if (error != null) {
+                plugin.getLog().warning("Failed to save variables of " + uuid + ": " + error.getMessage(), true);
+            }
+            if (plugin.isEnabled()) {
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    if (Bukkit.getPlayer(uuid) == null && !dirtyPlayers.contains(uuid)) {
+                        unloadPlayer(uuid);
+                    }
+                });
+            }
+        });
+        return saved;
     }
 
     public void unloadPlayer(UUID uuid) {
         players.remove(uuid);
+        dirtyPlayers.remove(uuid);
     }
 
-    /** Persists the global store and every player store currently in memory. */
+    /** Persists the global store and every loaded player store that changed since it was last saved. */
     public void saveAll() {
         if (plugin == null) return;
-        saveGlobal();
-        for (UUID uuid : players.keySet()) {
-            savePlayer(uuid);
+        if (globalDirty) {
+            saveGlobal();
+        }
+        for (UUID uuid : new ArrayList<>(dirtyPlayers)) {
+            if (players.containsKey(uuid)) {
+                savePlayer(uuid);
+            } else {
+                dirtyPlayers.remove(uuid);
+            }
+        }
+        Map<PlayerVariableIndex, List<String>> indexLines = drainIndexes();
+        for (Map.Entry<PlayerVariableIndex, List<String>> e : indexLines.entrySet()) {
+            try {
+                storage().put(INDEX_FOLDER, indexKey(e.getKey().getName()), dump(e.getValue()));
+            } catch (IOException ex) {
+                e.getKey().markDirty();
+                plugin.getLog().warning("Failed to write variable index " + e.getKey().getName() + ": " + ex.getMessage(), true);
+            }
+        }
+    }
+
+    /**
+     * Two-phase {@link #saveAll()}: the changed variables are copied into lines on the calling
+     * (main) thread; the YAML files are dumped and written on the {@link DataIO} pool after any
+     * earlier asynchronous write. Scopes whose write fails are marked dirty again.
+     *
+     * @return A future completed once every file is written.
+     */
+    public CompletableFuture<Void> saveAllAsync() {
+        if (plugin == null) return CompletableFuture.completedFuture(null);
+        List<String> globalLines = null;
+        if (globalDirty) {
+            globalDirty = false;
+            globalLines = toLines(global);
+        }
+        Map<UUID, List<String>> playerLines = new LinkedHashMap<>();
+        for (UUID uuid : new ArrayList<>(dirtyPlayers)) {
+            dirtyPlayers.remove(uuid);
+            ConcurrentVariableScope m = players.get(uuid);
+            if (m != null) {
+                playerLines.put(uuid, toLines(m));
+                indexPlayer(uuid, m);
+            }
+        }
+        Map<PlayerVariableIndex, List<String>> indexLines = drainIndexes();
+        if (globalLines == null && playerLines.isEmpty() && indexLines.isEmpty()) {
+            return writes;
+        }
+        List<String> globalSnapshot = globalLines;
+        StorageBackend storage = storage();
+        CompletableFuture<Void> saved = enqueue(() -> {
+            try {
+                if (globalSnapshot != null) {
+                    storage.put(FOLDER, GLOBAL_FILE, dump(globalSnapshot));
+                }
+                if (!playerLines.isEmpty()) {
+                    Map<String, byte[]> files = new LinkedHashMap<>();
+                    for (Map.Entry<UUID, List<String>> e : playerLines.entrySet()) {
+                        files.put(e.getKey().toString(), dump(e.getValue()));
+                    }
+                    storage.batch(PLAYER_FOLDER, files);
+                }
+                if (!indexLines.isEmpty()) {
+                    Map<String, byte[]> files = new LinkedHashMap<>();
+                    for (Map.Entry<PlayerVariableIndex, List<String>> e : indexLines.entrySet()) {
+                        files.put(indexKey(e.getKey().getName()), dump(e.getValue()));
+                    }
+                    storage.batch(INDEX_FOLDER, files);
+                }
+            } catch (IOException e) {
+                if (globalSnapshot != null) {
+                    globalDirty = true;
+                }
+                dirtyPlayers.addAll(playerLines.keySet());
+                indexLines.keySet().forEach(PlayerVariableIndex::markDirty);
+                throw new CompletionException(e);
+            }
+        });
+        trackPending(playerLines.keySet(), saved);
+        return saved;
+    }
+
+    // --- Indexes ---
+
+    /**
+     * Returns the index of a player variable, creating it if needed. A new index starts with the
+     * loaded players and is filled on the {@link DataIO} pool from its persisted file, or, the
+     * first time, from a scan of every player file; {@link PlayerVariableIndex#isReady()} tells
+     * when that has finished. The build starts after the writes already queued but is not part of
+     * the write queue, so saves made meanwhile do not wait for it; their values take precedence
+     * over what the build reads.
+     */
+    public PlayerVariableIndex index(String name) {
+        PlayerVariableIndex existing = indexes.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        PlayerVariableIndex index = new PlayerVariableIndex(name);
+        indexes.put(name, index);
+        for (Map.Entry<UUID, ConcurrentVariableScope> e : players.entrySet()) {
+            index.update(e.getKey(), e.getValue().getNumber(name));
+        }
+        if (plugin == null) {
+            index.setReady();
+            return index;
+        }
+        StorageBackend storage = storage();
+        writes.thenRunAsync(() -> {
+            try {
+                byte[] persisted = storage.get(INDEX_FOLDER, indexKey(name));
+                if (persisted != null) {
+                    index.addAbsent(parseIndex(parse(persisted)), false);
+                } else {
+                    index.addAbsent(scanPlayers(storage, name), true);
+                }
+            } catch (IOException | InvalidConfigurationException e) {
+                plugin.getLog().warning("Failed to build variable index " + name + ": " + e.getMessage(), true);
+            } finally {
+                index.setReady();
+            }
+        }, DataIO.getExecutor());
+        return index;
+    }
+
+    @Nullable
+    public PlayerVariableIndex getIndex(String name) {
+        return indexes.get(name);
+    }
+
+    /**
+     * @return the highest {@code count} players of an indexed variable, or an empty list if the
+     * variable is not indexed.
+     */
+    public List<PlayerVariableIndex.Entry> top(String name, int count) {
+        PlayerVariableIndex index = indexes.get(name);
+        return index == null ? Collections.emptyList() : index.top(count);
+    }
+
+    /**
+     * Reads a player variable without loading the player: the live value if the player is
+     * loaded, otherwise the value in the variable's index.
+     *
+     * @return the value, or {@link Double#NaN} if it is unknown or the variable is not indexed.
+     */
+    public double getIndexedPlayerNumber(UUID uuid, String name) {
+        ConcurrentVariableScope m = players.get(uuid);
+        if (m != null) {
+            return m.getNumber(name);
+        }
+        PlayerVariableIndex index = indexes.get(name);
+        return index == null ? Double.NaN : index.get(uuid);
+    }
+
+    /**
+     * Replaces {@code {pvar_top_<name>_<rank>}} with the player name and
+     * {@code {pvar_top_<name>_<rank>_value}} with the value at that rank of an indexed variable.
+     */
+    String applyTop(String text) {
+        if (indexes.isEmpty() || !text.contains("{pvar_top_")) {
+            return text;
+        }
+        Matcher matcher = TOP_PLACEHOLDER.matcher(text);
+        StringBuilder result = new StringBuilder(text.length());
+        while (matcher.find()) {
+            PlayerVariableIndex index = indexes.get(matcher.group(1));
+            if (index == null) {
+                continue;
+            }
+            PlayerVariableIndex.Entry entry = index.rank(Integer.parseInt(matcher.group(2)));
+            String replacement = "";
+            if (entry != null) {
+                if (matcher.group(3) != null) {
+                    replacement = VariableScope.format(entry.getValue());
+                } else {
+                    String playerName = Bukkit.getOfflinePlayer(entry.getUuid()).getName();
+                    replacement = playerName != null ? playerName : entry.getUuid().toString();
+                }
+            }
+            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    private void indexPlayer(UUID uuid, ConcurrentVariableScope scope) {
+        for (PlayerVariableIndex index : indexes.values()) {
+            index.update(uuid, scope.getNumber(index.getName()));
+        }
+    }
+
+    private Map<PlayerVariableIndex, List<String>> drainIndexes() {
+        Map<PlayerVariableIndex, List<String>> result = new LinkedHashMap<>();
+        for (PlayerVariableIndex index : indexes.values()) {
+            List<String> lines = index.drainLines();
+            if (lines != null) {
+                result.put(index, lines);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads the variable from every player file; used once to build a new index.
+     */
+    private Map<UUID, Double> scanPlayers(StorageBackend storage, String name) throws IOException {
+        Map<UUID, Double> result = new HashMap<>();
+        for (String key : storage.scan(PLAYER_FOLDER)) {
+            UUID uuid;
+            try {
+                uuid = UUID.fromString(key);
+            } catch (IllegalArgumentException e) {
+                continue;
+            }
+            byte[] bytes = storage.get(PLAYER_FOLDER, key);
+            if (bytes == null) continue;
+            try {
+                double value = VariableScope.parse(parse(bytes).get(name));
+                if (!Double.isNaN(value)) {
+                    result.put(uuid, value);
+                }
+            } catch (InvalidConfigurationException e) {
+                plugin.getLog().warning("Skipped unreadable variables " + PLAYER_FOLDER + "/" + key + ": " + e.getMessage(), true);
+            }
+        }
+        return result;
+    }
+
+    private static Map<UUID, Double> parseIndex(Map<String, String> lines) {
+        Map<UUID, Double> result = new HashMap<>(lines.size() * 2);
+        for (Map.Entry<String, String> e : lines.entrySet()) {
+            try {
+                result.put(UUID.fromString(e.getKey()), VariableScope.parse(e.getValue()));
+            } catch (IllegalArgumentException ignored) {
+            }
+        }
+        return result;
+    }
+
+    private static String indexKey(String name) {
+        return name.replaceAll("[^A-Za-z0-9_.-]", "_");
+    }
+
+    /**
+     * Runs {@link #saveAllAsync()} every {@code periodSeconds} on the main thread, replacing any
+     * previous autosave. A period of 0 or less only stops it.
+     */
+    public void startAutosave(long periodSeconds) {
+        stopAutosave();
+        if (plugin == null || periodSeconds <= 0) return;
+        long ticks = periodSeconds * 20L;
+        autosaveTask = Bukkit.getScheduler().runTaskTimer(plugin, () -> saveAllAsync().exceptionally(e -> {
+            plugin.getLog().warning("Failed to autosave variables: " + e.getMessage(), true);
+            return null;
+        }), ticks, ticks);
+    }
+
+    public void stopAutosave() {
+        if (autosaveTask != null) {
+            autosaveTask.cancel();
+            autosaveTask = null;
+        }
+    }
+
+    /**
+     * Queues a write behind every earlier asynchronous write of this store.
+     */
+    private CompletableFuture<Void> enqueue(Runnable io) {
+        CompletableFuture<Void> step = writes.thenRunAsync(io, DataIO.getExecutor());
+        writes = step.handle((ignored, error) -> null);
+        return step;
+    }
+
+    /**
+     * Records the write as the pending save of each player until it finishes, so a preload of a
+     * rejoining player waits for it.
+     */
+    private void trackPending(Collection<UUID> uuids, CompletableFuture<Void> saved) {
+        for (UUID uuid : uuids) {
+            pendingSaves.put(uuid, saved);
+        }
+        saved.whenComplete((ignored, error) -> {
+            for (UUID uuid : uuids) {
+                pendingSaves.remove(uuid, saved);
+            }
+        });
+    }
+
+    /** Blocks until every queued asynchronous write has finished, so a synchronous write is not overtaken. */
+    private void awaitWrites() {
+        await(writes);
+    }
+
+    private void awaitSave(UUID uuid) {
+        CompletableFuture<Void> pending = pendingSaves.get(uuid);
+        if (pending != null) {
+            await(pending);
+        }
+    }
+
+    private void await(CompletableFuture<Void> future) {
+        try {
+            future.get(PENDING_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            plugin.getLog().warning("Pending variable write did not finish: " + e.getMessage(), true);
         }
     }
 
     private Map<String, String> read(String fileName, String path) {
         Map<String, String> result = new HashMap<>();
-        YamlConfiguration data = ConfigUtils.loadCustomData(plugin, fileName, path);
+        YamlConfiguration data = journal != null ? readJournaled(fileName, path) : ConfigUtils.loadCustomData(plugin, fileName, path);
         if (data == null) return result;
-        List<String> lines = data.getStringList(KEY);
-        for (String line : lines) {
+        return toMap(data);
+    }
+
+    private static Map<String, String> parse(byte[] bytes) throws InvalidConfigurationException {
+        YamlConfiguration data = new YamlConfiguration();
+        data.loadFromString(new String(bytes, StandardCharsets.UTF_8));
+        return toMap(data);
+    }
+
+    private static Map<String, String> toMap(YamlConfiguration data) {
+        Map<String, String> result = new HashMap<>();
+        for (String line : data.getStringList(KEY)) {
             if (line == null) continue;
             int idx = line.indexOf('=');
             if (idx < 0) continue;
@@ -144,13 +788,41 @@ public class VariableStore {
         return result;
     }
 
-    private void write(String fileName, String path, Map<String, String> map) {
-        YamlConfiguration data = new YamlConfiguration();
-        java.util.List<String> lines = new java.util.ArrayList<>();
-        for (Map.Entry<String, String> e : map.entrySet()) {
-            lines.add(e.getKey() + "=" + e.getValue());
+    private YamlConfiguration readJournaled(String fileName, String path) {
+        try {
+            byte[] bytes = journal.get(path, fileName);
+            if (bytes == null) return null;
+            YamlConfiguration data = new YamlConfiguration();
+            data.loadFromString(new String(bytes, StandardCharsets.UTF_8));
+            return data;
+        } catch (IOException | InvalidConfigurationException e) {
+            plugin.getLog().warning("Failed to read variables " + path + "/" + fileName + ": " + e.getMessage(), true);
+            return null;
         }
+    }
+
+    /**
+     * @return true if the file was written.
+     */
+    private boolean write(String fileName, String path, ConcurrentVariableScope map) {
+        try {
+            storage().put(path, fileName, dump(toLines(map)));
+            return true;
+        } catch (IOException e) {
+            plugin.getLog().warning("Failed to write variables " + path + "/" + fileName + ": " + e.getMessage(), true);
+            return false;
+        }
+    }
+
+    private static List<String> toLines(ConcurrentVariableScope scope) {
+        List<String> lines = new ArrayList<>(scope.size());
+        scope.forEach((name, value) -> lines.add(name + "=" + value));
+        return lines;
+    }
+
+    private static byte[] dump(List<String> lines) {
+        YamlConfiguration data = new YamlConfiguration();
         data.set(KEY, lines);
-        ConfigUtils.saveCustomData(plugin, data, fileName, path);
+        return data.saveToString().getBytes(StandardCharsets.UTF_8);
     }
 }
@@ -0,0 +1,50 @@
+package com.darksoldier1404.dppc.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Header framing for {@link BinaryDataCargo} entries: a magic number followed by the cargo
+ * layout version. The magic starts with a NUL byte, which a YAML dump never contains, so a
+ * backend can hold both kinds of payload under one key space.
+ */
+final class BinaryCargoCodec {
+    static final int MAGIC = 0x00445042;
+
+    private BinaryCargoCodec() {
+    }
+
+    static boolean isBinary(byte[] bytes) {
+        return bytes.length >= 8 && bytes[0] == 0 && bytes[1] == 'D' && bytes[2] == 'P' && bytes[3] == 'B';
+    }
+
+    static byte[] encode(BinaryDataCargo cargo) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(cargo.getBinaryVersion());
+        cargo.writeBinary(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return the value read by a new instance of clazz, or null if it is not an instance of clazz.
+     */
+    static Object decode(byte[] bytes, Class<?> clazz) throws IOException, ReflectiveOperationException {
+        if (!BinaryDataCargo.class.isAssignableFrom(clazz)) {
+            throw new IOException("Binary entry needs a BinaryDataCargo but " + clazz.getSimpleName() + " is not one");
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a binary DataCargo entry");
+        }
+        int version = in.readInt();
+        BinaryDataCargo cargo = (BinaryDataCargo) clazz.getDeclaredConstructor().newInstance();
+        Object value = cargo.readBinary(in, version);
+        return clazz.isInstance(value) ? value : null;
+    }
+}
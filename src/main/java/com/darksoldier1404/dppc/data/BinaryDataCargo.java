@@ -0,0 +1,36 @@
+package com.darksoldier1404.dppc.data;
+
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * A DataCargo that can also be written in a compact binary form.
+ * <p>
+ * A CUSTOM DataContainer stores values implementing this interface as a binary entry
+ * ({@code <key>.bin} with the default file backend) instead of YAML. Every entry starts with a
+ * header holding {@link #getBinaryVersion()}, which is handed back to {@link #readBinary} so
+ * older entries can still be read after the layout changed.
+ * <p>
+ * {@link #serialize()} and {@link #deserialize} are still used to read existing {@code .yml}
+ * entries when no binary entry exists yet; the next save of such an entry writes it as binary.
+ */
+@DPPCoreVersion(since = "5.4.3")
+public interface BinaryDataCargo extends DataCargo {
+    String EXTENSION = ".bin";
+
+    /**
+     * @return the layout version written in the header of new entries.
+     */
+    int getBinaryVersion();
+
+    void writeBinary(DataOutput out) throws IOException;
+
+    /**
+     * @param version The layout version the entry was written with.
+     * @return the loaded value, like {@link #deserialize}.
+     */
+    Object readBinary(DataInput in, int version) throws IOException;
+}
@@ -0,0 +1,515 @@
+package com.darksoldier1404.dppc.data;
+
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
+import com.darksoldier1404.dppc.api.logger.DLogManager;
+import com.darksoldier1404.dppc.api.logger.DLogNode;
+import com.darksoldier1404.dppc.data.storage.FileStorageBackend;
+import com.darksoldier1404.dppc.data.storage.StorageBackend;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A thread-safe counterpart of {@link DataContainer}, extending ConcurrentHashMap.
+ * Supports the same DataType constraints and storage backends.
+ * <p>
+ * {@link #load}, {@link #save}, {@link #create} and {@link #delete} hold a lock for the key
+ * while they run. The locks are striped (a fixed number of locks shared by hash), so loading
+ * one key on an async thread never blocks main-thread reads, and only rarely blocks an
+ * operation on another key. {@link #computeIfAbsentAndLoad} returns the resident value or
+ * loads it under the key lock, so two threads never read the same entry twice.
+ * <p>
+ * {@link #saveAll()} and the write phase of {@link #saveAllAsync()} wait for running single-key
+ * saves and block new ones while they write. Every write carries a version taken when its entry
+ * was serialized, and a batch skips entries that a newer save or delete already reached, so an
+ * older snapshot never overwrites a newer entry. Log output may come from any thread.
+ *
+ * @param <K> The key type (UUID for USER; UUID or String for YAML and CUSTOM)
+ * @param <V> The value type (YamlConfiguration for USER and YAML, DataCargo for CUSTOM)
+ */
+@DPPCoreVersion(since = "5.4.3")
+public class ConcurrentDataContainer<K, V> extends ConcurrentHashMap<K, V> implements IDataHandler<K, V>, Creatable<K, V> {
+    private static final int STRIPES = 64;
+    private final DPlugin plugin;
+    private final DataType dataType;
+    private final DLogNode logger;
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final ReentrantReadWriteLock saveAllLock = new ReentrantReadWriteLock();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, Long> writtenVersions = new ConcurrentHashMap<>();
+    private volatile String path;
+    private volatile StorageBackend backend;
+    private volatile StorageBackend binaryBackend;
+    private volatile int compressionThreshold = PayloadCompression.DISABLED;
+
+    /**
+     * Constructs a ConcurrentDataContainer with the specified plugin and data type.
+     *
+     * @param plugin   The JavaPlugin instance.
+     * @param dataType The type of data to manage (USER, YAML, or CUSTOM).
+     */
+    public ConcurrentDataContainer(DPlugin plugin, DataType dataType) {
+        this(plugin, dataType, null, new FileStorageBackend(plugin));
+    }
+
+    /**
+     * Constructs a ConcurrentDataContainer with a custom path.
+     *
+     * @param plugin   The JavaPlugin instance.
+     * @param dataType The type of data to manage (USER, YAML, or CUSTOM).
+     * @param path     The custom directory path for data storage.
+     */
+    public ConcurrentDataContainer(DPlugin plugin, DataType dataType, String path) {
+        this(plugin, dataType, path, new FileStorageBackend(plugin));
+    }
+
+    /**
+     * Constructs a ConcurrentDataContainer that stores its entries in the given backend.
+     *
+     * @param plugin   The JavaPlugin instance.
+     * @param dataType The type of data to manage (USER, YAML, or CUSTOM).
+     * @param path     The path (namespace) of the entries in the backend.
+     * @param backend  The storage backend.
+     */
+    public ConcurrentDataContainer(DPlugin plugin, DataType dataType, String path, @NotNull StorageBackend backend) {
+        super();
+        this.plugin = plugin;
+        this.dataType = dataType;
+        this.logger = plugin.getLog();
+        setPath(path);
+        setBackend(backend);
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public JavaPlugin getPlugin() {
+        return plugin;
+    }
+
+    @Override
+    public DataType getDataType() {
+        return dataType;
+    }
+
+    @Override
+    public String getPath() {
+        return path;
+    }
+
+    @Override
+    public void setPath(String path) {
+        this.path = path != null ? path : (dataType == DataType.USER ? "udata" : "data");
+    }
+
+    public StorageBackend getBackend() {
+        return backend;
+    }
+
+    public void setBackend(@NotNull StorageBackend backend) {
+        this.backend = backend;
+        this.binaryBackend = DataContainer.binaryBackendFor(backend);
+    }
+
+    /**
+     * @return the payload size from which entries are stored GZIP-compressed, or -1 if
+     * compression is disabled.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * Stores payloads of at least {@code thresholdBytes} GZIP-compressed; see
+     * {@link DataContainer#setCompression(int)}.
+     *
+     * @param thresholdBytes The minimum payload size to compress, or a negative value to disable.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public void setCompression(int thresholdBytes) {
+        this.compressionThreshold = thresholdBytes < 0 ? PayloadCompression.DISABLED : thresholdBytes;
+    }
+
+    private ReentrantLock lockFor(Object key) {
+        int h = key.hashCode();
+        return locks[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    /**
+     * Returns the resident value, or loads it from the backend under the key lock. Concurrent
+     * callers for the same key wait for the first load instead of reading the entry again.
+     *
+     * @param key   The key to look up.
+     * @param clazz The expected class of the value (must implement DataCargo for CUSTOM).
+     * @return The value, or null if neither memory nor the backend has it.
+     */
+    @Nullable
+    public V computeIfAbsentAndLoad(@NotNull K key, @Nullable Class<?> clazz) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            value = get(key);
+            if (value == null) {
+                value = read(key, clazz);
+                if (value != null) {
+                    put(key, value);
+                }
+            }
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Loads the entry from the backend, replacing the resident value. Safe to call from async threads.
+     *
+     * @param key   The key to load.
+     * @param clazz The expected class of the value (must implement DataCargo for CUSTOM).
+     * @return This ConcurrentDataContainer for method chaining.
+     */
+    public ConcurrentDataContainer<K, V> load(K key, Class<?> clazz) {
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            V value = read(key, clazz);
+            if (value != null) {
+                put(key, value);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return this;
+    }
+
+    /**
+     * Loads every stored entry. Entries are loaded one by one under their key locks.
+     *
+     * @param clazz The expected class of the values (must implement DataCargo for CUSTOM).
+     * @return This ConcurrentDataContainer for method chaining.
+     */
+    @Override
+    public ConcurrentDataContainer<K, V> loadAll(@Nullable Class<?> clazz) {
+        if (dataType == DataType.CUSTOM && (clazz == null || !DataCargo.class.isAssignableFrom(clazz))) {
+            logger.warning("Class " + (clazz == null ? "null" : clazz.getSimpleName()) + " does not implement DataCargo.", DLogManager.printDataContainerLogs);
+            return this;
+        }
+        List<String> storedKeys;
+        try {
+            storedKeys = DataContainer.scanKeys(backend, binaryBackend, path, clazz);
+        } catch (IOException e) {
+            logger.warning("Failed to list data of '" + path + "': " + e.getMessage(), DLogManager.printDataContainerLogs);
+            return this;
+        }
+        for (String strKey : storedKeys) {
+            K key;
+            try {
+                key = DataContainer.parseKey(dataType, strKey);
+            } catch (IllegalArgumentException e) {
+                logger.warning("Invalid key format: " + strKey, DLogManager.printDataContainerLogs);
+                continue;
+            }
+            load(key, clazz);
+        }
+        return this;
+    }
+
+    /**
+     * Reads and deserializes the stored entry. Must be called with the key lock held.
+     *
+     * @return The value, or null if nothing is stored or it could not be read (a warning is logged).
+     */
+    @Nullable
+    private V read(K key, @Nullable Class<?> clazz) {
+        String fileName;
+        try {
+            fileName = DataContainer.getFileName(dataType, key);
+        } catch (IllegalArgumentException e) {
+            logger.warning(e.getMessage(), DLogManager.printDataContainerLogs);
+            return null;
+        }
+        if (dataType == DataType.CUSTOM && (clazz == null || !DataCargo.class.isAssignableFrom(clazz))) {
+            logger.warning("Class " + (clazz == null ? "null" : clazz.getSimpleName()) + " does not implement DataCargo for key " + key, DLogManager.printDataContainerLogs);
+            return null;
+        }
+        try {
+            byte[] bytes = DataContainer.readPayload(backend, binaryBackend, path, fileName, clazz);
+            if (bytes == null) {
+                return null;
+            }
+            V value = DataContainer.deserializePayload(dataType, bytes, clazz);
+            if (value == null) {
+                logger.warning("Type mismatch on load for key " + key + ": Value not compatible with " + clazz.getSimpleName(), DLogManager.printDataContainerLogs);
+            }
+            return value;
+        } catch (IOException | InvalidConfigurationException | ReflectiveOperationException e) {
+            logger.warning("Failed to load data for key " + key + ": " + e.getMessage(), DLogManager.printDataContainerLogs);
+            return null;
+        }
+    }
+
+    /**
+     * Saves the entry under its key lock. Safe to call from async threads.
+     *
+     * @param key The key to save.
+     */
+    public void save(K key) {
+        saveAllLock.readLock().lock();
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            byte[] payload = serializeEntry(key, get(key), false);
+            if (payload == null) {
+                return;
+            }
+            long version = sequence.incrementAndGet();
+            String fileName = DataContainer.getFileName(dataType, key);
+            StorageBackend target = BinaryCargoCodec.isBinary(payload) ? binaryBackend : backend;
+            target.put(path, fileName, PayloadCompression.compress(payload, compressionThreshold));
+            writtenVersions.put(fileName, version);
+        } catch (IOException e) {
+            logger.warning("Failed to save data for key " + key + ": " + e.getMessage(), DLogManager.printDataContainerLogs);
+        } finally {
+            lock.unlock();
+            saveAllLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Saves every entry as one batch per backend. Each entry is serialized under its key lock.
+     */
+    @Override
+    public void saveAll() {
+        saveAllLock.writeLock().lock();
+        try {
+            writeBatch(snapshot());
+        } catch (IOException e) {
+            logger.warning("Failed to save entries of '" + path + "': " + e.getMessage(), DLogManager.printDataContainerLogs);
+        } finally {
+            saveAllLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Serializes every entry on the calling thread and writes them on the {@link DataIO} pool.
+     * Entries saved or deleted by a single-key call after the snapshot was taken are left out of
+     * the write, so the newer data is kept.
+     */
+    @Override
+    public CompletableFuture<Void> saveAllAsync() {
+        return saveAllAsync(DataIO.getExecutor());
+    }
+
+    /**
+     * Takes the snapshot on the calling thread and writes it on the executor, like {@link #saveAllAsync(Executor)}.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    @Override
+    public CompletableFuture<Void> flushAsync(Executor executor) {
+        return saveAllAsync(executor);
+    }
+
+    public CompletableFuture<Void> saveAllAsync(@NotNull Executor executor) {
+        Snapshot snapshot = snapshot();
+        return CompletableFuture.runAsync(() -> {
+            saveAllLock.writeLock().lock();
+            try {
+                writeBatch(snapshot);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            } finally {
+                saveAllLock.writeLock().unlock();
+            }
+        }, executor);
+    }
+
+    /**
+     * Serializes every entry under its key lock and records the version of each payload.
+     */
+    private Snapshot snapshot() {
+        Snapshot snapshot = new Snapshot();
+        for (K key : keySet()) {
+            ReentrantLock lock = lockFor(key);
+            lock.lock();
+            try {
+                byte[] payload = serializeEntry(key, get(key), true);
+                if (payload != null) {
+                    String fileName = DataContainer.getFileName(dataType, key);
+                    (BinaryCargoCodec.isBinary(payload) ? snapshot.binary : snapshot.yaml).put(fileName, payload);
+                    snapshot.versions.put(fileName, sequence.incrementAndGet());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Writes the snapshot, leaving out entries a newer write already reached. Must be called
+     * with the write lock of {@code saveAllLock} held.
+     */
+    private void writeBatch(Snapshot snapshot) throws IOException {
+        String savePath = path;
+        StorageBackend yamlTarget = backend;
+        StorageBackend binaryTarget = binaryBackend;
+        int threshold = compressionThreshold;
+        for (Map<String, byte[]> group : Arrays.asList(snapshot.yaml, snapshot.binary)) {
+            group.keySet().removeIf(fileName -> writtenVersions.getOrDefault(fileName, 0L) > snapshot.versions.get(fileName));
+            if (threshold >= 0) {
+                for (Map.Entry<String, byte[]> entry : group.entrySet()) {
+                    entry.setValue(PayloadCompression.compress(entry.getValue(), threshold));
+                }
+            }
+        }
+        if (yamlTarget == binaryTarget) {
+            Map<String, byte[]> all = new LinkedHashMap<>(snapshot.yaml);
+            all.putAll(snapshot.binary);
+            if (!all.isEmpty()) {
+                yamlTarget.batch(savePath, all);
+            }
+        } else {
+            if (!snapshot.yaml.isEmpty()) {
+                yamlTarget.batch(savePath, snapshot.yaml);
+            }
+            if (!snapshot.binary.isEmpty()) {
+                binaryTarget.batch(savePath, snapshot.binary);
+            }
+        }
+        for (Map<String, byte[]> group : Arrays.asList(snapshot.yaml, snapshot.binary)) {
+            for (String fileName : group.keySet()) {
+                writtenVersions.merge(fileName, snapshot.versions.get(fileName), Math::max);
+            }
+        }
+    }
+
+    /**
+     * Serialized entries split into the YAML and the binary backend, with the version of each.
+     */
+    private static final class Snapshot {
+        private final Map<String, byte[]> yaml = new LinkedHashMap<>();
+        private final Map<String, byte[]> binary = new LinkedHashMap<>();
+        private final Map<String, Long> versions = new HashMap<>();
+    }
+
+    /**
+     * Validates the entry and returns its payload: the binary form for a BinaryDataCargo,
+     * dumped YAML otherwise.
+     *
+     * @param copyFirst Whether a YAML value is copied before it is dumped, so the dump does not
+     *                  race with a caller mutating the live document.
+     * @return The payload, or null if the key or value is invalid (a warning is logged).
+     */
+    @Nullable
+    private byte[] serializeEntry(K key, V value, boolean copyFirst) {
+        Object serialized = DataContainer.serializeValue(dataType, logger, key, value, copyFirst);
+        return serialized instanceof YamlConfiguration ? DataContainer.encode((YamlConfiguration) serialized) : (byte[]) serialized;
+    }
+
+    /**
+     * Deletes the stored entry and the resident value under the key lock.
+     *
+     * @return true if something was deleted from the backend.
+     */
+    public boolean delete(K key) {
+        String fileName;
+        try {
+            fileName = DataContainer.getFileName(dataType, key);
+        } catch (IllegalArgumentException e) {
+            logger.warning(e.getMessage(), DLogManager.printDataContainerLogs);
+            return false;
+        }
+        saveAllLock.readLock().lock();
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            // Versioned like a save, so a pending older snapshot does not write the entry back.
+            writtenVersions.put(fileName, sequence.incrementAndGet());
+            boolean success = backend.delete(path, fileName);
+            if (binaryBackend != backend) {
+                success |= binaryBackend.delete(path, fileName);
+            }
+            remove(key);
+            return success;
+        } catch (IOException e) {
+            logger.warning("Failed to delete data for key " + key + ": " + e.getMessage(), DLogManager.printDataContainerLogs);
+            return false;
+        } finally {
+            lock.unlock();
+            saveAllLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Checks whether the backend has an entry for the key, without loading it.
+     */
+    public boolean exists(K key) {
+        try {
+            String fileName = DataContainer.getFileName(dataType, key);
+            return backend.exists(path, fileName) || (binaryBackend != backend && binaryBackend.exists(path, fileName));
+        } catch (IllegalArgumentException | IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a new DataCargo for the key under its lock, unless a value is already resident.
+     */
+    @Nullable
+    @Override
+    @SuppressWarnings("unchecked")
+    public V create(@NotNull K key, @NotNull Class<V> clazz) {
+        if (dataType == DataType.CUSTOM && !DataCargo.class.isAssignableFrom(clazz)) {
+            logger.warning("Class " + clazz.getSimpleName() + " does not implement DataCargo for CUSTOM data type.", DLogManager.printDataContainerLogs);
+            return null;
+        }
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            V existing = get(key);
+            if (existing != null) {
+                return existing;
+            }
+            V value = (V) clazz.getDeclaredConstructor().newInstance();
+            put(key, value);
+            return value;
+        } catch (Exception e) {
+            logger.warning("Failed to create instance of " + clazz.getSimpleName() + ": " + e.getMessage(), DLogManager.printDataContainerLogs);
+            return null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Nullable
+    @Override
+    public V createAndSave(@NotNull K key, @NotNull Class<V> clazz) {
+        V value = create(key, clazz);
+        if (value != null) {
+            save(key);
+        }
+        return value;
+    }
+}
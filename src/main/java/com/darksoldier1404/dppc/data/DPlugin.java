@@ -10,14 +10,20 @@ import com.darksoldier1404.dppc.api.logger.DLogNode;
 import com.darksoldier1404.dppc.lang.DLang;
 import com.darksoldier1404.dppc.utils.ColorUtils;
 import com.darksoldier1404.dppc.utils.ConfigUtils;
+import com.darksoldier1404.dppc.utils.SettingsReader;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 @DPPCoreVersion(since = "5.3.0")
 public class DPlugin extends JavaPlugin {
@@ -27,6 +33,8 @@ public class DPlugin extends JavaPlugin {
     private final boolean useDLang;
     private @Nullable DLang lang;
     public @NotNull DLogNode log;
+    private @Nullable Function<SettingsReader, ?> settingsBinder;
+    private volatile @Nullable Object settings;
 
     public DPlugin() {
         this(false);
@@ -41,6 +49,9 @@ public class DPlugin extends JavaPlugin {
         this.config = ConfigUtils.loadDefaultPluginConfig(this);
         this.prefix = ColorUtils.applyColor(config.getString("Settings.prefix"));
         initDLang();
+        if (settingsBinder != null) {
+            rebindSettings();
+        }
     }
 
     @Override
@@ -52,6 +63,55 @@ public class DPlugin extends JavaPlugin {
         this.config = config;
     }
 
+    /**
+     * Binds a typed settings object from the config, now and again on every {@link #reload()}.
+     * <p>
+     * The binder reads each value once with its default and validation (see
+     * {@link SettingsReader}); hot paths then read the final fields of the result through
+     * {@link #getSettings()} instead of looking up the YAML tree on every call. A reload swaps
+     * the whole object at once.
+     *
+     * @param binder Usually the constructor of the settings class, e.g. {@code MySettings::new}.
+     * @return the bound settings.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public <S> S bindSettings(@NotNull Function<SettingsReader, S> binder) {
+        this.settingsBinder = binder;
+        return rebindSettings();
+    }
+
+    /**
+     * Binds the settings again from the current config. If the binder fails, the previous
+     * settings are kept.
+     *
+     * @return the current settings.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    @SuppressWarnings("unchecked")
+    public <S> S rebindSettings() {
+        if (settingsBinder == null) {
+            throw new IllegalStateException("No settings are bound for " + getName());
+        }
+        try {
+            settings = settingsBinder.apply(new SettingsReader(config, log));
+        } catch (RuntimeException e) {
+            log.severe("Failed to bind the settings of " + getName() + ": " + e, true);
+            if (settings == null) {
+                throw e;
+            }
+        }
+        return (S) settings;
+    }
+
+    /**
+     * @return the settings bound by {@link #bindSettings(Function)}, or null if none are.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    @SuppressWarnings("unchecked")
+    public <S> S getSettings() {
+        return (S) settings;
+    }
+
     public String getPrefix() {
         return prefix;
     }
@@ -95,13 +155,51 @@ public class DPlugin extends JavaPlugin {
         }
     }
 
+    /**
+     * Saves the config, every data handler and the log.
+     * <p>
+     * Called from {@code onDisable} (the plugin is no longer enabled), the handlers are handed to
+     * {@link DataFlushService} instead and written in parallel. During a server shutdown they
+     * overlap with the other plugins and DPP-Core waits for all of them, up to
+     * {@code Settings.Data.shutdown_deadline_ms}, at the end of the shutdown; otherwise this
+     * method waits for them, up to the same deadline.
+     */
     public void saveAllData() {
         ConfigUtils.savePluginConfig(this, config);
+        if (isEnabled()) {
+            for (Map.Entry<String, IDataHandler<?, ?>> entry : data.entrySet()) {
+                IDataHandler<?, ?> handler = entry.getValue();
+                handler.saveAll();
+            }
+        } else {
+            DataFlushService.flush(this);
+            if (!DataFlushService.isServerStopping()) {
+                DataFlushService.await(this, DataFlushService.getDeadlineMillis());
+            }
+        }
+        saveLog();
+    }
+
+    /**
+     * Like {@link #saveAllData()}, but the data handlers only take their snapshot on the calling
+     * (main) thread and write it on the I/O pool.
+     *
+     * @return A future completed once every handler has written its data.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public CompletableFuture<Void> saveAllDataAsync() {
+        ConfigUtils.savePluginConfig(this, config);
+        List<CompletableFuture<Void>> futures = new ArrayList<>(data.size());
         for (Map.Entry<String, IDataHandler<?, ?>> entry : data.entrySet()) {
-            IDataHandler<?, ?> handler = entry.getValue();
-            handler.saveAll();
+            futures.add(entry.getValue().saveAllAsync());
         }
         saveLog();
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    @DPPCoreVersion(since = "5.4.3")
+    public Map<String, IDataHandler<?, ?>> getDataHandlers() {
+        return Collections.unmodifiableMap(data);
     }
 
     public void saveDataContainer() {
@@ -3,17 +3,47 @@ package com.darksoldier1404.dppc.data;
 import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
 import com.darksoldier1404.dppc.api.logger.DLogManager;
 import com.darksoldier1404.dppc.api.logger.DLogNode;
-import com.darksoldier1404.dppc.utils.ConfigUtils;
+import com.darksoldier1404.dppc.data.storage.DataJournal;
+import com.darksoldier1404.dppc.data.storage.FileStorageBackend;
+import com.darksoldier1404.dppc.data.storage.JournalStorageBackend;
+import com.darksoldier1404.dppc.data.storage.StorageBackend;
+import com.darksoldier1404.dppc.data.storage.YamlSnapshotCache;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
 
 /**
  * A type-safe container for managing data in a Bukkit plugin, extending HashMap.
@@ -22,15 +52,44 @@ import java.util.UUID;
  * - YAML: Keys must be UUID or String, values must be YamlConfiguration.
  * - CUSTOM: Keys must be UUID or String, values must implement DataCargo.
  *
+ * <p>Entries are written as YAML through a {@link StorageBackend}. The default
+ * {@link FileStorageBackend} keeps the classic one-file-per-key layout under the plugin
+ * data folder; pass another backend (e.g. SQLite) to the constructor to change where they go.
+ * CUSTOM values implementing {@link BinaryDataCargo} are stored in binary form instead
+ * ({@code <key>.bin} next to the YAML files with the file backend).</p>
+ *
+ * <p>Keys changed through {@link #put}, {@link #create} or {@link #markDirty} are tracked as dirty,
+ * as are changes made through the other Map mutators and the {@code keySet}/{@code values}/
+ * {@code entrySet} views (including {@code Entry.setValue}).
+ * With {@link #enableWriteBehind(long)} a periodic flusher writes only those keys, so autosave
+ * cost follows the number of changed entries instead of the size of the container.</p>
+ *
  * @param <K> The key type (UUID for USER; UUID or String for YAML and CUSTOM)
  * @param <V> The value type (YamlConfiguration for USER and YAML, DataCargo for CUSTOM)
  */
 @DPPCoreVersion(since = "5.3.0")
 public class DataContainer<K, V> extends HashMap<K, V> implements IDataHandler<K, V>, Creatable<K, V> {
+    private static final long FLUSH_WAIT_SECONDS = 10L;
+    private static final String MISSING_ENTRY = "Entry disappeared while loading";
     private final DPlugin plugin;
     private final DataType dataType;
     private final DLogNode logger;
-    private String path;
+    private volatile String path;
+    private volatile StorageBackend backend;
+    private volatile StorageBackend binaryBackend;
+    private boolean snapshotCache;
+    private volatile int compressionThreshold = PayloadCompression.DISABLED;
+    private final Set<K> dirtyKeys = new LinkedHashSet<>();
+    private final Set<K> unconfirmedKeys = ConcurrentHashMap.newKeySet();
+    private BukkitTask flushTask;
+    private volatile CompletableFuture<Void> pendingFlush = CompletableFuture.completedFuture(null);
+    private @Nullable Preload preload;
+    private volatile @Nullable FolderWatcher watcher;
+    private final Map<String, Long> ownWrites = new ConcurrentHashMap<>();
+    private final Map<String, DataIndex<K, V, ?>> indexes = new LinkedHashMap<>();
+    private transient Set<K> keyView;
+    private transient Collection<V> valueView;
+    private transient Set<Map.Entry<K, V>> entryView;
 
     /**
      * Constructs a DataContainer with the specified plugin and data type.
@@ -44,6 +103,8 @@ public class DataContainer<K, V> extends HashMap<K, V> implements IDataHandler<K
         this.dataType = dataType;
         this.logger = plugin.getLog();
         this.path = dataType == DataType.USER ? "udata" : "data";
+        this.backend = new FileStorageBackend(plugin);
+        this.binaryBackend = binaryBackendFor(backend);
     }
 
     /**
@@ -58,6 +119,21 @@ public class DataContainer<K, V> extends HashMap<K, V> implements IDataHandler<K
         this.path = path != null ? path : this.path;
     }
 
+    /**
+     * Constructs a DataContainer that stores its entries in the given backend.
+     *
+     * @param plugin   The JavaPlugin instance.
+     * @param dataType The type of data to manage (USER, YAML, or CUSTOM).
+     * @param path     The path (namespace) of the entries in the backend.
+     * @param backend  The storage backend.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public DataContainer(DPlugin plugin, DataType dataType, String path, @NotNull StorageBackend backend) {
+        this(plugin, dataType, path);
+        this.backend = backend;
+        this.binaryBackend = binaryBackendFor(backend);
+    }
+
     public DPlugin getPlugin() {
         return plugin;
     }
@@ -74,221 +150,1036 @@ public class DataContainer<K, V> extends HashMap<K, V> implements IDataHandler<K
         this.path = path != null ? path : (dataType == DataType.USER ? "udata" : "data");
     }
 
+    @DPPCoreVersion(since = "5.4.3")
+    public StorageBackend getBackend() {
+        return backend;
+    }
+
     /**
-     * Validates and returns the file name for the given key.
+     * Switches the backend used by later loads and saves. Entries already stored in the
+     * previous backend are not moved.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public void setBackend(@NotNull StorageBackend backend) {
+        awaitPendingFlush();
+        this.backend = backend;
+        this.binaryBackend = binaryBackendFor(backend);
+    }
+
+    /**
+     * @return the persistence metrics of the container's current path.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public DataMetrics getMetrics() {
+        return DataMetrics.of(plugin, path);
+    }
+
+    /**
+     * Routes the container's writes through the plugin's {@link DataJournal}: saves become
+     * appends to one sequential log, committed in groups and compacted into the current backend
+     * in the background. Turning it off compacts the journal first.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public void setJournal(boolean journal) {
+        if (journal == isJournal()) {
+            return;
+        }
+        if (journal) {
+            setBackend(DataJournal.of(plugin).backend(backend));
+            return;
+        }
+        JournalStorageBackend journaled = (JournalStorageBackend) backend;
+        awaitPendingFlush();
+        try {
+            journaled.getJournal().compact();
+        } catch (IOException e) {
+            logger.warning("Failed to compact the journal of '" + path + "': " + e.getMessage(), DLogManager.printDataContainerLogs);
+            return;
+        }
+        setBackend(journaled.getDelegate());
+    }
+
+    @DPPCoreVersion(since = "5.4.3")
+    public boolean isJournal() {
+        return backend instanceof JournalStorageBackend;
+    }
+
+    /**
+     * Switches the file backend to the sharded layout ({@code <path>/ab/cd/<key>.yml} for depth 2),
+     * or back to the flat layout with depth 0. The path is marked as pending a reshard, so existing
+     * files can still be loaded, checked and deleted by key from any layout, but {@link #loadAll}
+     * only lists the new layout and the flat folder until {@link #reshard()} has moved them.
      *
-     * @param key The key to validate.
-     * @return The sanitized file name.
-     * @throws IllegalArgumentException If the key type is invalid for the DataType.
+     * @throws IllegalStateException If the container does not use a {@link FileStorageBackend}.
      */
-    private String getFileName(K key) {
-        if (key == null) {
-            throw new IllegalArgumentException("Key cannot be null");
+    @DPPCoreVersion(since = "5.4.3")
+    public void setShardDepth(int shardDepth) {
+        if (!(backend instanceof FileStorageBackend)) {
+            throw new IllegalStateException("Sharding requires a FileStorageBackend, found " + backend.getName());
         }
-        if (dataType == DataType.USER) {
-            if (!(key instanceof UUID)) {
-                throw new IllegalArgumentException("Invalid key type for USER: Expected UUID but found " + key.getClass().getSimpleName());
-            }
-        } else {
-            if (!(key instanceof UUID || key instanceof String)) {
-                throw new IllegalArgumentException("Invalid key type for " + dataType + ": Expected UUID or String but found " + key.getClass().getSimpleName());
+        setBackend(((FileStorageBackend) backend).withShardDepth(shardDepth));
+        try {
+            ((FileStorageBackend) backend).markReshardPending(path);
+            if (binaryBackend instanceof FileStorageBackend && binaryBackend != backend) {
+                ((FileStorageBackend) binaryBackend).markReshardPending(path);
             }
+        } catch (IOException e) {
+            logger.warning("Failed to mark '" + path + "' for resharding: " + e.getMessage(), DLogManager.printDataContainerLogs);
         }
-        return key.toString().replace(".yml", "");
     }
 
     /**
-     * Validates the value type for the given DataType.
+     * Moves the stored files of this container into the current shard layout on the
+     * {@link DataIO} pool. Loads and saves keep working while it runs.
      *
-     * @param value The value to validate.
-     * @param key   The associated key for error reporting.
-     * @throws IllegalArgumentException If the value type is invalid.
+     * @return a future with the number of files moved.
      */
-    private void validateValue(V value, K key) {
-        if (value == null) {
-            throw new IllegalArgumentException("Value cannot be null for key: " + key);
+    @DPPCoreVersion(since = "5.4.3")
+    public CompletableFuture<Integer> reshard() {
+        String reshardPath = path;
+        StorageBackend yamlTarget = backend;
+        StorageBackend binaryTarget = binaryBackend;
+        if (!(yamlTarget instanceof FileStorageBackend)) {
+            return CompletableFuture.completedFuture(0);
         }
-        if (dataType == DataType.CUSTOM) {
-            if (!(value instanceof DataCargo)) {
-                throw new IllegalArgumentException("Invalid value type for CUSTOM: Expected DataCargo but found " + value.getClass().getSimpleName() + " for key " + key);
-            }
-        } else {
-            if (!(value instanceof YamlConfiguration)) {
-                throw new IllegalArgumentException("Invalid value type for " + dataType + ": Expected YamlConfiguration but found " + value.getClass().getSimpleName() + " for key " + key);
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                int moved = ((FileStorageBackend) yamlTarget).reshard(reshardPath);
+                if (binaryTarget != yamlTarget && binaryTarget instanceof FileStorageBackend) {
+                    moved += ((FileStorageBackend) binaryTarget).reshard(reshardPath);
+                }
+                return moved;
+            } catch (IOException e) {
+                throw new CompletionException(e);
             }
+        }, DataIO.getExecutor());
+    }
+
+    /**
+     * Registers the container with {@link DataPreloader}: the entry of a logging-in player is
+     * read on the async login thread and put into the container when the player joins, so
+     * {@code load(uuid)} in a join handler is no longer needed. An entry that is still in memory
+     * at join (the player rejoined before it was unloaded) is kept as it is.
+     *
+     * @param clazz The value class (must implement DataCargo for CUSTOM).
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public void enablePreload(@Nullable Class<?> clazz) {
+        disablePreload();
+        preload = new Preload(clazz);
+        DataPreloader.register(plugin, preload);
+    }
+
+    @DPPCoreVersion(since = "5.4.3")
+    public void disablePreload() {
+        if (preload != null) {
+            DataPreloader.unregister(preload);
+            preload = null;
         }
     }
 
-    public boolean delete(K key) {
-        String fileName;
-        try {
-            fileName = getFileName(key);
-        } catch (IllegalArgumentException e) {
-            logger.warning(e.getMessage(), DLogManager.printDataContainerLogs);
-            return false;
+    @DPPCoreVersion(since = "5.4.3")
+    public boolean isPreload() {
+        return preload != null;
+    }
+
+    /**
+     * Watches the data folder and reloads single entries whose files are edited, replaced or
+     * deleted outside the server, instead of reloading the whole container. An entry with
+     * unsaved changes in memory is kept; the container's own writes are recognized and skipped.
+     * Only a flat (unsharded) file backend can be watched.
+     *
+     * @param clazz The value class (must implement DataCargo for CUSTOM).
+     * @throws IllegalStateException If the backend is not a flat {@link FileStorageBackend}.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public void enableWatch(@Nullable Class<?> clazz) {
+        if (!(backend instanceof FileStorageBackend) || ((FileStorageBackend) backend).getShardDepth() != 0) {
+            throw new IllegalStateException("Only a flat FileStorageBackend can be watched, not " + backend.getName());
         }
+        disableWatch();
         try {
-            boolean success = Files.deleteIfExists(Path.of(plugin.getDataFolder().getPath(), path + "/" + fileName + ".yml"));
-            if (success) {
-                logger.info("Deleted file for key " + key, DLogManager.printDataContainerLogs);
-                remove(key);
-                return true;
-            } else {
-                logger.warning("No file found to delete for key " + key, DLogManager.printDataContainerLogs);
-                return false;
-            }
+            watcher = FolderWatcher.watch(plugin, ((FileStorageBackend) backend).getFolder(path), new Watch(clazz));
         } catch (IOException e) {
-            logger.warning("Failed to delete file for key " + key + ": " + e.getMessage(), DLogManager.printDataContainerLogs);
-            return false;
+            logger.warning("Failed to watch '" + path + "': " + e.getMessage(), DLogManager.printDataContainerLogs);
         }
     }
 
+    @DPPCoreVersion(since = "5.4.3")
+    public void disableWatch() {
+        FolderWatcher current = watcher;
+        if (current != null) {
+            current.close();
+            watcher = null;
+            ownWrites.clear();
+        }
+    }
+
+    @DPPCoreVersion(since = "5.4.3")
+    public boolean isWatch() {
+        return watcher != null;
+    }
+
+    @DPPCoreVersion(since = "5.4.3")
+    public boolean isSnapshotCache() {
+        return snapshotCache;
+    }
+
     /**
-     * Saves the data associated with the specified key to a file.
-     *
-     * @param key  The key to save.
-     * @param path The custom directory path (optional).
-     * @throws IllegalArgumentException If the key or value type is invalid.
+     * Enables the startup snapshot of the YAML file backend. {@link #saveAll()} then also writes
+     * a pre-parsed {@link YamlSnapshotCache} of the folder, and {@link #loadAll} and
+     * {@link #loadAllAsync} restore every file whose size and modification time still match it
+     * instead of parsing the YAML. Has no effect with other backends, a sharded file backend or
+     * BinaryDataCargo values.
      */
-    public void save(K key, String path) {
-        setPath(path);
-        save(key);
+    @DPPCoreVersion(since = "5.4.3")
+    public void setSnapshotCache(boolean snapshotCache) {
+        this.snapshotCache = snapshotCache;
     }
 
     /**
-     * Saves the data associated with the specified key to a file.
+     * @return the payload size from which entries are stored GZIP-compressed, or -1 if
+     * compression is disabled.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    @DPPCoreVersion(since = "5.4.3")
+    public boolean isCompression() {
+        return compressionThreshold >= 0;
+    }
+
+    /**
+     * Stores payloads of at least {@code thresholdBytes} GZIP-compressed, so large entries such
+     * as inventory pages cost less disk I/O; smaller entries stay plain, readable text.
+     * Compressed entries are detected by their header on every read, so existing plain files
+     * keep loading and switching compression off again needs no migration.
      *
-     * @param key The key to save.
-     * @throws IllegalArgumentException If the key or value type is invalid.
+     * @param thresholdBytes The minimum payload size to compress, or a negative value to disable.
      */
-    public void save(K key) {
-        String fileName;
-        try {
-            fileName = getFileName(key);
-        } catch (IllegalArgumentException e) {
-            logger.warning(e.getMessage(), DLogManager.printDataContainerLogs);
-            return;
+    @DPPCoreVersion(since = "5.4.3")
+    public void setCompression(int thresholdBytes) {
+        this.compressionThreshold = thresholdBytes < 0 ? PayloadCompression.DISABLED : thresholdBytes;
+    }
+
+    /**
+     * Enables compression with the default threshold of 16 KB, or disables it.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public void setCompression(boolean compression) {
+        setCompression(compression ? PayloadCompression.DEFAULT_THRESHOLD : PayloadCompression.DISABLED);
+    }
+
+    /**
+     * Binary entries go to a {@code .bin} sibling of a YAML file backend; every other backend
+     * stores both kinds of payload itself.
+     */
+    static StorageBackend binaryBackendFor(StorageBackend backend) {
+        if (backend instanceof JournalStorageBackend) {
+            JournalStorageBackend journaled = (JournalStorageBackend) backend;
+            StorageBackend binary = binaryBackendFor(journaled.getDelegate());
+            return binary == journaled.getDelegate() ? backend : journaled.getJournal().backend(binary);
         }
-        V value = get(key);
-        try {
-            validateValue(value, key);
-        } catch (IllegalArgumentException e) {
-            logger.warning(e.getMessage(), DLogManager.printDataContainerLogs);
-            return;
+        if (backend instanceof FileStorageBackend && !BinaryDataCargo.EXTENSION.equals(((FileStorageBackend) backend).getExtension())) {
+            return ((FileStorageBackend) backend).withExtension(BinaryDataCargo.EXTENSION);
         }
-        String savePath = path;
-        if (dataType == DataType.CUSTOM) {
-            Object serialized = ((DataCargo) value).serialize();
-            if (!(serialized instanceof YamlConfiguration)) {
-                logger.warning("Serialized data is not a YamlConfiguration for key: " + key, DLogManager.printDataContainerLogs);
-                return;
+        return backend;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        V previous = super.put(key, value);
+        dirtyKeys.add(key);
+        updateIndexes(key, value);
+        return previous;
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        super.putAll(m);
+        dirtyKeys.addAll(m.keySet());
+        for (Map.Entry<? extends K, ? extends V> entry : m.entrySet()) {
+            updateIndexes(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        forget(key);
+        return super.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        dirtyKeys.clear();
+        for (DataIndex<K, V, ?> index : indexes.values()) {
+            index.clear();
+        }
+        super.clear();
+    }
+
+    // HashMap implements the methods below without calling put/remove, so they are routed
+    // through them here; otherwise their writes would skip dirty tracking and the indexes.
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        V current = get(key);
+        return current == null ? put(key, value) : current;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (!containsKey(key) || !Objects.equals(super.get(key), value)) {
+            return false;
+        }
+        remove(key);
+        return true;
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        return containsKey(key) ? put(key, value) : null;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        if (!containsKey(key) || !Objects.equals(super.get(key), oldValue)) {
+            return false;
+        }
+        put(key, newValue);
+        return true;
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        V current = get(key);
+        if (current != null) {
+            return current;
+        }
+        V value = mappingFunction.apply(key);
+        if (value != null) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        V current = get(key);
+        return current == null ? null : store(key, remappingFunction.apply(key, current));
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        return store(key, remappingFunction.apply(key, get(key)));
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(value);
+        V current = get(key);
+        return store(key, current == null ? value : remappingFunction.apply(current, value));
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        for (Map.Entry<K, V> entry : super.entrySet()) {
+            V value = function.apply(entry.getKey(), entry.getValue());
+            entry.setValue(value);
+            dirtyKeys.add(entry.getKey());
+            updateIndexes(entry.getKey(), value);
+        }
+    }
+
+    /**
+     * Puts the value, or removes the key if it is null, like the compute methods of Map.
+     */
+    private V store(K key, V value) {
+        if (value == null) {
+            if (containsKey(key)) {
+                remove(key);
             }
-            ConfigUtils.saveCustomData(plugin, (YamlConfiguration) serialized, fileName, savePath);
         } else {
-            ConfigUtils.saveCustomData(plugin, (YamlConfiguration) value, fileName, savePath);
+            put(key, value);
         }
+        return value;
     }
 
     /**
-     * Saves all data entries to files.
+     * A view whose removals, including through its iterator, and whose {@code Entry.setValue}
+     * go through dirty tracking and the indexes.
      */
-    public void saveAll() {
-        String savePath = path;
-        for (Map.Entry<K, V> entry : entrySet()) {
-            K key = entry.getKey();
-            String fileName;
-            try {
-                fileName = getFileName(key);
-            } catch (IllegalArgumentException e) {
-                logger.warning(e.getMessage(), DLogManager.printDataContainerLogs);
-                continue;
-            }
-            V value = entry.getValue();
-            try {
-                validateValue(value, key);
-            } catch (IllegalArgumentException e) {
-                logger.warning(e.getMessage(), DLogManager.printDataContainerLogs);
-                continue;
-            }
-            if (dataType == DataType.CUSTOM) {
-                Object serialized = ((DataCargo) value).serialize();
-                if (!(serialized instanceof YamlConfiguration)) {
-                    logger.warning("Serialized data is not a YamlConfiguration for key: " + key, DLogManager.printDataContainerLogs);
-                    continue;
-                }
-                ConfigUtils.saveCustomData(plugin, (YamlConfiguration) serialized, fileName, savePath);
-            } else {
-                ConfigUtils.saveCustomData(plugin, (YamlConfiguration) value, fileName, savePath);
-            }
+    @Override
+    public Set<K> keySet() {
+        Set<K> view = keyView;
+        if (view == null) {
+            keyView = view = new KeyView();
         }
+        return view;
     }
 
     /**
-     * Loads data for the specified key from a file.
-     *
-     * @param key   The key to load.
-     * @param clazz The expected class of the value (must implement DataCargo for CUSTOM).
-     * @param path  The custom directory path (optional).
-     * @return This DataContainer for method chaining.
-     * @throws IllegalArgumentException If the key type or clazz is invalid.
+     * @see #keySet()
      */
-    public DataContainer<K, V> load(K key, Class<?> clazz, String path) {
-        setPath(path);
-        return load(key, clazz);
+    @Override
+    public Collection<V> values() {
+        Collection<V> view = valueView;
+        if (view == null) {
+            valueView = view = new ValueView();
+        }
+        return view;
     }
 
     /**
-     * Loads data for the specified key from a file.
-     *
-     * @param key   The key to load.
-     * @param clazz The expected class of the value (must implement DataCargo for CUSTOM).
-     * @return This DataContainer for method chaining.
-     * @throws IllegalArgumentException If the key type or clazz is invalid.
+     * @see #keySet()
      */
-    public DataContainer<K, V> load(K key, Class<?> clazz) {
-        String fileName;
-        try {
-            fileName = getFileName(key);
-        } catch (IllegalArgumentException e) {
-            logger.warning(e.getMessage(), DLogManager.printDataContainerLogs);
-            return this;
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        Set<Map.Entry<K, V>> view = entryView;
+        if (view == null) {
+            entryView = view = new EntryView();
         }
-        String loadPath = path;
-        YamlConfiguration data = ConfigUtils.loadCustomData(plugin, fileName, loadPath);
-        if (data == null) {
-            return this;
+        return view;
+    }
+
+    /**
+     * Drops the dirty flag and index entries of a key that is being removed from memory.
+     */
+    void forget(Object key) {
+        dirtyKeys.remove(key);
+        for (DataIndex<K, V, ?> index : indexes.values()) {
+            index.remove(key);
         }
-        if (dataType == DataType.CUSTOM) {
-            if (!DataCargo.class.isAssignableFrom(clazz)) {
-                logger.warning("Class " + clazz.getSimpleName() + " does not implement DataCargo for key " + key, DLogManager.printDataContainerLogs);
-                return this;
-            }
-            try {
-                DataCargo dataCargo = (DataCargo) clazz.getDeclaredConstructor().newInstance();
-                Object value = dataCargo.deserialize(data);
-                if (clazz.isInstance(value)) {
-                    put(key, (V) value);
-                } else {
-                    logger.warning("Type mismatch on load for key " + key + ": Value not compatible with " + clazz.getSimpleName(), DLogManager.printDataContainerLogs);
-                }
-            } catch (Exception e) {
-                logger.warning("Failed to load CUSTOM data for key " + key + " in " + clazz.getSimpleName() + ": " + e.getMessage(), DLogManager.printDataContainerLogs);
-            }
-        } else {
-            put(key, (V) data);
+    }
+
+    /**
+     * Stores a value that was just read from disk without marking it dirty. Every load path
+     * (load, loadAll, loadAllAsync, preload and watch reloads) goes through here.
+     */
+    void putLoaded(K key, V value) {
+        super.put(key, value);
+        dirtyKeys.remove(key);
+        updateIndexes(key, value);
+    }
+
+    private void updateIndexes(K key, V value) {
+        for (DataIndex<K, V, ?> index : indexes.values()) {
+            index.update(key, value);
         }
-        return this;
     }
 
     /**
-     * Loads all data from the specified directory.
+     * Registers a secondary index and fills it from the entries in memory. An index with the
+     * same name is replaced.
      *
-     * @param clazz The expected class of the values (must implement DataCargo for CUSTOM).
-     * @return This DataContainer for method chaining.
+     * @return the index, for queries.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public <I> DataIndex<K, V, I> addIndex(@NotNull DataIndex<K, V, I> index) {
+        index.clear();
+        for (Map.Entry<K, V> entry : entrySet()) {
+            index.update(entry.getKey(), entry.getValue());
+        }
+        indexes.put(index.getName(), index);
+        return index;
+    }
+
+    /**
+     * Shorthand for {@code addIndex(DataIndex.hash(name, extractor))}.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public <I> DataIndex<K, V, I> addHashIndex(@NotNull String name, @NotNull Function<? super V, ? extends I> extractor) {
+        return addIndex(DataIndex.hash(name, extractor));
+    }
+
+    /**
+     * Shorthand for {@code addIndex(DataIndex.sorted(name, extractor))}.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public <I extends Comparable<? super I>> DataIndex<K, V, I> addSortedIndex(@NotNull String name, @NotNull Function<? super V, ? extends I> extractor) {
+        return addIndex(DataIndex.sorted(name, extractor));
+    }
+
+    /**
+     * @return the index registered under the name, or null.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <I> DataIndex<K, V, I> getIndex(@NotNull String name) {
+        return (DataIndex<K, V, I>) indexes.get(name);
+    }
+
+    @DPPCoreVersion(since = "5.4.3")
+    public boolean removeIndex(@NotNull String name) {
+        return indexes.remove(name) != null;
+    }
+
+    /**
+     * Marks the entry as changed so the next flush writes it, and re-indexes it. Call this
+     * after mutating a value in place (for example a field of a DataCargo) instead of replacing it.
+     *
+     * @param key The key of the changed entry.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public void markDirty(K key) {
+        if (containsKey(key)) {
+            dirtyKeys.add(key);
+            updateIndexes(key, super.get(key));
+        }
+    }
+
+    @DPPCoreVersion(since = "5.4.3")
+    public boolean isDirty(K key) {
+        return dirtyKeys.contains(key);
+    }
+
+    /**
+     * @return true while an async write of the key has not succeeded yet; if it fails, the key
+     * is marked dirty again, which needs the entry to still be resident.
+     */
+    boolean isWritePending(K key) {
+        return unconfirmedKeys.contains(key);
+    }
+
+    /**
+     * @return a read-only view of the keys that changed since they were last written.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public Set<K> getDirtyKeys() {
+        return Collections.unmodifiableSet(dirtyKeys);
+    }
+
+    /**
+     * Starts the write-behind flusher. Every {@code periodTicks} the dirty entries are dumped on
+     * the main thread and written to disk on an async task. Repeated changes to the same key
+     * between two flushes are written once.
+     *
+     * @param periodTicks The flush interval in server ticks.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public void enableWriteBehind(long periodTicks) {
+        disableWriteBehind();
+        long period = Math.max(1L, periodTicks);
+        flushTask = Bukkit.getScheduler().runTaskTimer(plugin, this::flushDirty, period, period);
+    }
+
+    /**
+     * Stops the write-behind flusher and synchronously writes whatever is still dirty.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public void disableWriteBehind() {
+        if (flushTask == null) {
+            return;
+        }
+        flushTask.cancel();
+        flushTask = null;
+        saveDirty();
+    }
+
+    @DPPCoreVersion(since = "5.4.3")
+    public boolean isWriteBehind() {
+        return flushTask != null;
+    }
+
+    /**
+     * Copies every dirty entry on the calling (main) thread and dumps and writes them as one
+     * batch on the {@link DataIO} pool. Skipped while a previous write is still running; its
+     * keys stay dirty for the next run.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public void flushDirty() {
+        if (dirtyKeys.isEmpty() || !pendingFlush.isDone()) {
+            return;
+        }
+        PendingWrite<K> write = serializeEntries(dirtyKeys, true, null);
+        dirtyKeys.clear();
+        if (!write.isEmpty()) {
+            submit(write, DataIO.getExecutor());
+        }
+    }
+
+    /**
+     * Two-phase {@link #saveAll()} on the shared {@link DataIO} pool.
+     *
+     * @see #saveAllAsync(Executor)
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    @Override
+    public CompletableFuture<Void> saveAllAsync() {
+        return saveAllAsync(DataIO.getExecutor());
+    }
+
+    /**
+     * Takes the snapshot on the calling thread and writes it on the executor, like {@link #saveAllAsync(Executor)}.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    @Override
+    public CompletableFuture<Void> flushAsync(Executor executor) {
+        return saveAllAsync(executor);
+    }
+
+    /**
+     * Two-phase {@link #saveAll()}: the calling (main) thread only copies the entries (YAML
+     * values are deep-copied, DataCargo values are serialized, BinaryDataCargo values are
+     * encoded); YAML dumping and the writes run on {@code executor}, after any write of this
+     * container that is still running. Keys that fail to write are marked dirty again.
+     *
+     * @param executor The executor doing the dumping and writing.
+     * @return A future completed once everything is written; wait on it at shutdown.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public CompletableFuture<Void> saveAllAsync(@NotNull Executor executor) {
+        PendingWrite<K> write = serializeEntries(keySet(), true, snapshotFolder(path, null));
+        dirtyKeys.clear();
+        if (write.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return submit(write, executor);
+    }
+
+    /**
+     * Writes detached entries on the executor once the previous write of this container is done.
+     * Failures are logged and the keys marked dirty again on the main thread.
+     */
+    private CompletableFuture<Void> submit(PendingWrite<K> write, Executor executor) {
+        CompletableFuture<Void> previous = pendingFlush;
+        String savePath = path;
+        // Chained rather than joined, so no pool thread is held while the previous write runs.
+        CompletableFuture<Void> done = previous.thenRunAsync(() -> {
+            try {
+                write.write();
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+        pendingFlush = done.handle((ignored, error) -> null);
+        unconfirmedKeys.addAll(write.keys);
+        done.whenComplete((ignored, error) -> {
+            if (error == null) {
+                write.keys.forEach(unconfirmedKeys::remove);
+            }
+            if (!plugin.isEnabled() || (error == null && write.snapshotError == null)) {
+                return;
+            }
+            String message = error != null ? String.valueOf((error.getCause() != null ? error.getCause() : error).getMessage()) : null;
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                if (message != null) {
+                    logger.warning("Failed to write " + write.keys.size() + " entries of '" + savePath + "': " + message, DLogManager.printDataContainerLogs);
+                    write.keys.forEach(this::markDirty);
+                    write.keys.forEach(unconfirmedKeys::remove);
+                } else {
+                    logger.warning("Failed to write data snapshot of '" + savePath + "': " + write.snapshotError, DLogManager.printDataContainerLogs);
+                }
+            });
+        });
+        return done;
+    }
+
+    /**
+     * Synchronously writes only the dirty entries.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public void saveDirty() {
+        for (K key : new ArrayList<>(dirtyKeys)) {
+            save(key);
+        }
+    }
+
+    /**
+     * Waits for an in-flight async flush so a synchronous write never gets overwritten by an
+     * older snapshot.
+     */
+    private void awaitPendingFlush() {
+        try {
+            pendingFlush.get(FLUSH_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            logger.warning("Timed out waiting for pending flush of '" + path + "': " + e.getMessage(), DLogManager.printDataContainerLogs);
+        }
+    }
+
+    /**
+     * Validates and returns the file name for the given key.
+     *
+     * @param key The key to validate.
+     * @return The sanitized file name.
+     * @throws IllegalArgumentException If the key type is invalid for the DataType.
+     */
+    static String getFileName(DataType dataType, Object key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Key cannot be null");
+        }
+        if (dataType == DataType.USER) {
+            if (!(key instanceof UUID)) {
+                throw new IllegalArgumentException("Invalid key type for USER: Expected UUID but found " + key.getClass().getSimpleName());
+            }
+        } else {
+            if (!(key instanceof UUID || key instanceof String)) {
+                throw new IllegalArgumentException("Invalid key type for " + dataType + ": Expected UUID or String but found " + key.getClass().getSimpleName());
+            }
+        }
+        return key.toString().replace(".yml", "");
+    }
+
+    /**
+     * Validates the value type for the given DataType.
+     *
+     * @param value The value to validate.
+     * @param key   The associated key for error reporting.
+     * @throws IllegalArgumentException If the value type is invalid.
+     */
+    static void validateValue(DataType dataType, Object value, Object key) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value cannot be null for key: " + key);
+        }
+        if (dataType == DataType.CUSTOM) {
+            if (!(value instanceof DataCargo)) {
+                throw new IllegalArgumentException("Invalid value type for CUSTOM: Expected DataCargo but found " + value.getClass().getSimpleName() + " for key " + key);
+            }
+        } else {
+            if (!(value instanceof YamlConfiguration)) {
+                throw new IllegalArgumentException("Invalid value type for " + dataType + ": Expected YamlConfiguration but found " + value.getClass().getSimpleName() + " for key " + key);
+            }
+        }
+    }
+
+    /**
+     * Checks whether the backend has an entry for the key, without loading it.
+     *
+     * @param key The key to check.
+     * @return true if the entry exists; false if it does not, the key is invalid or the backend failed.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public boolean exists(K key) {
+        try {
+            String fileName = getFileName(dataType, key);
+            return backend.exists(path, fileName) || (binaryBackend != backend && binaryBackend.exists(path, fileName));
+        } catch (IllegalArgumentException | IOException e) {
+            return false;
+        }
+    }
+
+    public boolean delete(K key) {
+        String fileName;
+        try {
+            fileName = getFileName(dataType, key);
+        } catch (IllegalArgumentException e) {
+            logger.warning(e.getMessage(), DLogManager.printDataContainerLogs);
+            return false;
+        }
+        try {
+            awaitPendingFlush();
+            long start = System.nanoTime();
+            boolean success = backend.delete(path, fileName);
+            if (binaryBackend != backend) {
+                success |= binaryBackend.delete(path, fileName);
+            }
+            getMetrics().record(DataMetrics.Operation.DELETE, start, 1, 0, fileName);
+            if (success) {
+                logger.info("Deleted file for key " + key, DLogManager.printDataContainerLogs);
+                remove(key);
+                return true;
+            } else {
+                logger.warning("No file found to delete for key " + key, DLogManager.printDataContainerLogs);
+                return false;
+            }
+        } catch (IOException e) {
+            logger.warning("Failed to delete file for key " + key + ": " + e.getMessage(), DLogManager.printDataContainerLogs);
+            return false;
+        }
+    }
+
+    /**
+     * Saves the data associated with the specified key to a file.
+     *
+     * @param key  The key to save.
+     * @param path The custom directory path (optional).
+     * @throws IllegalArgumentException If the key or value type is invalid.
+     */
+    public void save(K key, String path) {
+        setPath(path);
+        save(key);
+    }
+
+    /**
+     * Saves the data associated with the specified key to a file.
+     *
+     * @param key The key to save.
+     * @throws IllegalArgumentException If the key or value type is invalid.
+     */
+    public void save(K key) {
+        PendingWrite<K> write = serializeEntries(Collections.singleton(key), false, null);
+        if (write.isEmpty()) {
+            return;
+        }
+        awaitPendingFlush();
+        try {
+            write.write();
+            dirtyKeys.remove(key);
+        } catch (IOException e) {
+            logger.warning("Failed to save data for key " + key + ": " + e.getMessage(), DLogManager.printDataContainerLogs);
+        }
+    }
+
+    /**
+     * Saves all data entries with a single {@link StorageBackend#batch} call, which is one
+     * transaction on backends that support it.
+     */
+    public void saveAll() {
+        awaitPendingFlush();
+        PendingWrite<K> write = serializeEntries(keySet(), false, snapshotFolder(path, null));
+        try {
+            write.write();
+            dirtyKeys.clear();
+        } catch (IOException e) {
+            logger.warning("Failed to save " + write.keys.size() + " entries of '" + path + "': " + e.getMessage(), DLogManager.printDataContainerLogs);
+            return;
+        }
+        if (write.snapshotError != null) {
+            logger.warning("Failed to write data snapshot of '" + path + "': " + write.snapshotError, DLogManager.printDataContainerLogs);
+        }
+    }
+
+    static byte[] encode(YamlConfiguration data) {
+        return data.saveToString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static YamlConfiguration decode(byte[] bytes) throws InvalidConfigurationException {
+        YamlConfiguration data = new YamlConfiguration();
+        data.loadFromString(new String(bytes, StandardCharsets.UTF_8));
+        return data;
+    }
+
+    static boolean isBinaryClass(@Nullable Class<?> clazz) {
+        return clazz != null && BinaryDataCargo.class.isAssignableFrom(clazz);
+    }
+
+    /**
+     * Reads the stored payload of one entry. For a BinaryDataCargo class the binary entry is
+     * preferred and the YAML entry is the migration fallback. Compressed payloads are returned
+     * uncompressed.
+     *
+     * @return The payload, or null if nothing is stored for the key.
+     */
+    @Nullable
+    static byte[] readPayload(StorageBackend yamlSource, StorageBackend binarySource, String loadPath, String strKey, @Nullable Class<?> clazz) throws IOException {
+        if (binarySource != yamlSource && isBinaryClass(clazz)) {
+            byte[] bytes = binarySource.get(loadPath, strKey);
+            if (bytes != null) {
+                return PayloadCompression.decompress(bytes);
+            }
+        }
+        byte[] bytes = yamlSource.get(loadPath, strKey);
+        return bytes == null ? null : PayloadCompression.decompress(bytes);
+    }
+
+    /**
+     * Lists every stored key of the path, including binary-only entries for a BinaryDataCargo class.
+     */
+    static List<String> scanKeys(StorageBackend yamlSource, StorageBackend binarySource, String loadPath, @Nullable Class<?> clazz) throws IOException {
+        if (binarySource == yamlSource || !isBinaryClass(clazz)) {
+            return yamlSource.scan(loadPath);
+        }
+        Set<String> keys = new LinkedHashSet<>(binarySource.scan(loadPath));
+        keys.addAll(yamlSource.scan(loadPath));
+        return new ArrayList<>(keys);
+    }
+
+    /**
+     * Lazy counterpart of {@link #scanKeys}. Binary keys come first; YAML keys that also have a
+     * binary entry are skipped with one existence check each instead of a set of every key.
+     */
+    private static Stream<String> streamKeys(StorageBackend yamlSource, StorageBackend binarySource, String loadPath, @Nullable Class<?> clazz) throws IOException {
+        if (!isBinaryClass(clazz)) {
+            return yamlSource.streamKeys(loadPath);
+        }
+        return streamKeys(yamlSource, binarySource, loadPath);
+    }
+
+    /**
+     * Streams the binary keys and then the YAML keys that have no binary entry.
+     */
+    static Stream<String> streamKeys(StorageBackend yamlSource, StorageBackend binarySource, String loadPath) throws IOException {
+        if (binarySource == yamlSource) {
+            return yamlSource.streamKeys(loadPath);
+        }
+        Stream<String> binaryKeys = binarySource.streamKeys(loadPath);
+        Stream<String> yamlKeys;
+        try {
+            yamlKeys = yamlSource.streamKeys(loadPath);
+        } catch (IOException e) {
+            binaryKeys.close();
+            throw e;
+        }
+        return Stream.concat(binaryKeys, yamlKeys.filter(key -> {
+            try {
+                return !binarySource.exists(loadPath, key);
+            } catch (IOException e) {
+                return true;
+            }
+        }));
+    }
+
+    /**
+     * @return true if the payload is YAML but the value class writes binary, so the entry
+     * should be written again in binary form.
+     */
+    private boolean needsMigration(byte[] bytes, @Nullable Class<?> clazz) {
+        return dataType == DataType.CUSTOM && isBinaryClass(clazz) && !BinaryCargoCodec.isBinary(bytes);
+    }
+
+    /**
+     * Validates and serializes the given entries, split by the backend they are written to.
+     * Invalid entries are skipped with a warning.
+     *
+     * @param detach         Whether YAML documents must be copied so they can be dumped off the main thread.
+     * @param snapshotFolder If not null, the write also replaces the snapshot of this folder.
+     */
+    private PendingWrite<K> serializeEntries(Collection<K> keys, boolean detach, @Nullable File snapshotFolder) {
+        PendingWrite<K> write = new PendingWrite<>(path, backend, binaryBackend, snapshotFolder, getMetrics());
+        write.compressionThreshold = compressionThreshold;
+        if (watcher != null) {
+            write.digests = ownWrites;
+        }
+        for (K key : keys) {
+            if (serializeEntry(key, write, detach)) {
+                write.keys.add(key);
+            }
+        }
+        return write;
+    }
+
+    /**
+     * Validates the entry and adds what has to be written for it: the binary form for a
+     * BinaryDataCargo, the YAML document otherwise.
+     *
+     * @param key The key to serialize.
+     * @return false if the key or value is invalid (a warning is logged).
+     */
+    private boolean serializeEntry(K key, PendingWrite<K> write, boolean detach) {
+        Object serialized = serializeValue(dataType, logger, key, get(key), detach);
+        if (serialized instanceof byte[]) {
+            write.binary.put(getFileName(dataType, key), (byte[]) serialized);
+        } else if (serialized != null) {
+            write.yaml.put(getFileName(dataType, key), (YamlConfiguration) serialized);
+        }
+        return serialized != null;
+    }
+
+    /**
+     * Validates the entry and returns what has to be written for it: the binary payload for a
+     * BinaryDataCargo, the YAML document otherwise.
+     *
+     * @param detach Whether the YAML document is copied, so it can be dumped off the main thread
+     *               while the caller keeps mutating the live value.
+     * @return a {@code byte[]} or a YamlConfiguration, or null if the key or value is invalid (a
+     * warning is logged).
+     */
+    @Nullable
+    static Object serializeValue(DataType dataType, DLogNode logger, Object key, @Nullable Object value, boolean detach) {
+        try {
+            getFileName(dataType, key);
+            validateValue(dataType, value, key);
+        } catch (IllegalArgumentException e) {
+            logger.warning(e.getMessage(), DLogManager.printDataContainerLogs);
+            return null;
+        }
+        if (value instanceof BinaryDataCargo) {
+            try {
+                return BinaryCargoCodec.encode((BinaryDataCargo) value);
+            } catch (IOException e) {
+                logger.warning("Failed to write binary data for key " + key + ": " + e.getMessage(), DLogManager.printDataContainerLogs);
+                return null;
+            }
+        }
+        YamlConfiguration data;
+        if (dataType == DataType.CUSTOM) {
+            Object serialized = ((DataCargo) value).serialize();
+            if (!(serialized instanceof YamlConfiguration)) {
+                logger.warning("Serialized data is not a YamlConfiguration for key: " + key, DLogManager.printDataContainerLogs);
+                return null;
+            }
+            data = (YamlConfiguration) serialized;
+        } else {
+            data = (YamlConfiguration) value;
+        }
+        return detach ? YamlCopy.of(data) : data;
+    }
+
+    /**
+     * Loads data for the specified key from a file.
+     *
+     * @param key   The key to load.
+     * @param clazz The expected class of the value (must implement DataCargo for CUSTOM).
+     * @param path  The custom directory path (optional).
+     * @return This DataContainer for method chaining.
+     * @throws IllegalArgumentException If the key type or clazz is invalid.
+     */
+    public DataContainer<K, V> load(K key, Class<?> clazz, String path) {
+        setPath(path);
+        return load(key, clazz);
+    }
+
+    /**
+     * Loads data for the specified key from a file.
+     *
+     * @param key   The key to load.
+     * @param clazz The expected class of the value (must implement DataCargo for CUSTOM).
+     * @return This DataContainer for method chaining.
+     * @throws IllegalArgumentException If the key type or clazz is invalid.
+     */
+    public DataContainer<K, V> load(K key, Class<?> clazz) {
+        String fileName;
+        try {
+            fileName = getFileName(dataType, key);
+        } catch (IllegalArgumentException e) {
+            logger.warning(e.getMessage(), DLogManager.printDataContainerLogs);
+            return this;
+        }
+        byte[] bytes;
+        try {
+            long start = System.nanoTime();
+            bytes = readPayload(backend, binaryBackend, path, fileName, clazz);
+            if (bytes != null) {
+                getMetrics().record(DataMetrics.Operation.LOAD, start, 1, bytes.length, fileName);
+            }
+        } catch (IOException e) {
+            logger.warning("Failed to read data for key " + key + ": " + e.getMessage(), DLogManager.printDataContainerLogs);
+            return this;
+        }
+        if (bytes == null) {
+            return this;
+        }
+        if (dataType == DataType.CUSTOM && !DataCargo.class.isAssignableFrom(clazz)) {
+            logger.warning("Class " + clazz.getSimpleName() + " does not implement DataCargo for key " + key, DLogManager.printDataContainerLogs);
+            return this;
+        }
+        try {
+            V value = deserializePayload(dataType, bytes, clazz);
+            if (value != null) {
+                putLoaded(key, value);
+                if (needsMigration(bytes, clazz)) {
+                    dirtyKeys.add(key);
+                }
+            } else {
+                logger.warning("Type mismatch on load for key " + key + ": Value not compatible with " + clazz.getSimpleName(), DLogManager.printDataContainerLogs);
+            }
+        } catch (Exception e) {
+            logger.warning("Failed to load data for key " + key + (clazz != null ? " in " + clazz.getSimpleName() : "") + ": " + e.getMessage(), DLogManager.printDataContainerLogs);
+        }
+        return this;
+    }
+
+    /**
+     * Loads all data from the specified directory.
+     *
+     * @param clazz The expected class of the values (must implement DataCargo for CUSTOM).
+     * @return This DataContainer for method chaining.
      */
     public DataContainer<K, V> loadAll(@Nullable Class<?> clazz) {
         String loadPath = path;
-        HashMap<String, YamlConfiguration> dataMap = ConfigUtils.loadCustomDataMap(plugin, loadPath);
         if (dataType == DataType.CUSTOM) {
             if (clazz == null) {
                 logger.warning("Class parameter is null for CUSTOM data type.", DLogManager.printDataContainerLogs);
@@ -299,41 +1190,655 @@ public class DataContainer<K, V> extends HashMap<K, V> implements IDataHandler<K
                 return this;
             }
         }
-        for (Map.Entry<String, YamlConfiguration> entry : dataMap.entrySet()) {
-            String strKey = entry.getKey();
-            YamlConfiguration data = entry.getValue();
-            if (data == null) {
-                continue;
+        List<String> storedKeys;
+        try {
+            storedKeys = scanKeys(backend, binaryBackend, loadPath, clazz);
+        } catch (IOException e) {
+            logger.warning("Failed to list data of '" + loadPath + "': " + e.getMessage(), DLogManager.printDataContainerLogs);
+            return this;
+        }
+        YamlSnapshotCache snapshot = readSnapshot(snapshotFolder(loadPath, clazz));
+        for (String strKey : storedKeys) {
+            LoadedEntry<K, V> entry = readEntry(backend, binaryBackend, snapshot, loadPath, strKey, clazz);
+            if (entry.error != null) {
+                logger.warning("Failed to load " + loadPath + "/" + strKey + ": " + entry.error, DLogManager.printDataContainerLogs);
+            } else {
+                publish(entry);
             }
-            try {
-                K key;
-                if (dataType == DataType.USER) {
-                    key = (K) UUID.fromString(strKey);
-                } else {
+        }
+        return this;
+    }
+
+    /**
+     * Streams every stored entry, reading one at a time from the backend instead of loading the
+     * whole folder. The entries are not put into the container; call {@link #put} for those that
+     * should stay. Entries that fail to load are skipped with a warning. The values are the
+     * stored state, not the in-memory one, so {@link #saveAll()} first if unsaved changes matter.
+     * <p>
+     * The stream must be closed (try-with-resources) to release the directory handle. It may
+     * be used from any thread.
+     *
+     * @param clazz The expected class of the values (must implement DataCargo for CUSTOM).
+     * @return A lazy stream of key/value pairs; empty if the folder cannot be listed.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public Stream<Map.Entry<K, V>> stream(@Nullable Class<?> clazz) {
+        if (dataType == DataType.CUSTOM && (clazz == null || !DataCargo.class.isAssignableFrom(clazz))) {
+            logger.warning("Class " + (clazz == null ? "null" : clazz.getSimpleName()) + " does not implement DataCargo.", DLogManager.printDataContainerLogs);
+            return Stream.empty();
+        }
+        awaitPendingFlush();
+        String loadPath = path;
+        StorageBackend source = backend;
+        StorageBackend binarySource = binaryBackend;
+        Stream<String> keys;
+        try {
+            keys = streamKeys(source, binarySource, loadPath, clazz);
+        } catch (IOException e) {
+            logger.warning("Failed to list data of '" + loadPath + "': " + e.getMessage(), DLogManager.printDataContainerLogs);
+            return Stream.empty();
+        }
+        return keys.map(strKey -> readEntry(source, binarySource, null, loadPath, strKey, clazz))
+                .filter(entry -> {
+                    if (entry.error == null) {
+                        return true;
+                    }
+                    if (!MISSING_ENTRY.equals(entry.error)) {
+                        logger.warning("Failed to load " + loadPath + "/" + entry.strKey + ": " + entry.error, DLogManager.printDataContainerLogs);
+                    }
+                    return false;
+                })
+                .map(entry -> new AbstractMap.SimpleImmutableEntry<>(entry.key, entry.value));
+    }
+
+    /**
+     * Like {@link #stream(Class)}, optionally as a parallel stream that reads and deserializes
+     * entries on the common fork-join pool.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public Stream<Map.Entry<K, V>> stream(@Nullable Class<?> clazz, boolean parallel) {
+        Stream<Map.Entry<K, V>> entries = stream(clazz);
+        return parallel ? entries.parallel() : entries;
+    }
+
+    /**
+     * Passes every stored entry to the action without keeping it in memory; see {@link #stream(Class)}.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public void forEachOnDisk(@Nullable Class<?> clazz, @NotNull BiConsumer<? super K, ? super V> action) {
+        forEachOnDisk(clazz, action, false);
+    }
+
+    /**
+     * Passes every stored entry to the action without keeping it in memory; see {@link #stream(Class)}.
+     *
+     * @param parallel Whether the action is called from several threads at once.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public void forEachOnDisk(@Nullable Class<?> clazz, @NotNull BiConsumer<? super K, ? super V> action, boolean parallel) {
+        try (Stream<Map.Entry<K, V>> entries = stream(clazz, parallel)) {
+            entries.forEach(entry -> action.accept(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    /**
+     * Loads all data from the directory in parallel, off the main thread.
+     * Uses the shared {@link DataIO} pool.
+     *
+     * @param clazz The expected class of the values (must implement DataCargo for CUSTOM).
+     * @return A future completed on the main thread once every entry has been published.
+     * @see #loadAllAsync(Class, Executor)
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public CompletableFuture<DataContainer<K, V>> loadAllAsync(@Nullable Class<?> clazz) {
+        return loadAllAsync(clazz, DataIO.getExecutor());
+    }
+
+    /**
+     * Loads all data from the directory in parallel, off the main thread.
+     * <p>
+     * The backend is scanned and every entry is read and parsed (and, for CUSTOM, deserialized into a new
+     * DataCargo) on {@code executor}. The results are then put into this container in a single
+     * step on the main thread, where per-file failures and the total time are logged.
+     * {@code DataCargo.deserialize} therefore runs off the main thread and must not touch
+     * world state. Do not block the main thread on the returned future.
+     *
+     * @param clazz    The expected class of the values (must implement DataCargo for CUSTOM).
+     * @param executor The executor that parses the files; bound its size to bound the parallelism.
+     * @return A future completed on the main thread once every entry has been published.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public CompletableFuture<DataContainer<K, V>> loadAllAsync(@Nullable Class<?> clazz, @NotNull Executor executor) {
+        if (dataType == DataType.CUSTOM && (clazz == null || !DataCargo.class.isAssignableFrom(clazz))) {
+            logger.warning("Class " + (clazz == null ? "null" : clazz.getSimpleName()) + " does not implement DataCargo.", DLogManager.printDataContainerLogs);
+            return CompletableFuture.completedFuture(this);
+        }
+        long start = System.nanoTime();
+        String loadPath = path;
+        File snapshotFolder = snapshotFolder(loadPath, clazz);
+        Executor mainThread = task -> Bukkit.getScheduler().runTask(plugin, task);
+        StorageBackend source = backend;
+        StorageBackend binarySource = binaryBackend;
+        return CompletableFuture.supplyAsync(() -> {
                     try {
-                        key = (K) UUID.fromString(strKey);
-                    } catch (IllegalArgumentException e) {
-                        key = (K) strKey;
+                        return scanKeys(source, binarySource, loadPath, clazz);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor)
+                .thenCompose(storedKeys -> {
+                    YamlSnapshotCache snapshot = readSnapshot(snapshotFolder);
+                    List<CompletableFuture<LoadedEntry<K, V>>> futures = new ArrayList<>(storedKeys.size());
+                    for (String strKey : storedKeys) {
+                        futures.add(CompletableFuture.supplyAsync(() -> readEntry(source, binarySource, snapshot, loadPath, strKey, clazz), executor));
+                    }
+                    return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                            .thenApply(ignored -> futures.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+                })
+                .thenApplyAsync(entries -> {
+                    int failed = 0;
+                    for (LoadedEntry<K, V> entry : entries) {
+                        if (entry.error != null) {
+                            failed++;
+                            logger.warning("Failed to load " + loadPath + "/" + entry.strKey + ": " + entry.error, DLogManager.printDataContainerLogs);
+                        } else {
+                            publish(entry);
+                        }
                     }
+                    long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    logger.info("Loaded " + (entries.size() - failed) + " entries from '" + loadPath + "' in " + millis + " ms (" + failed + " failed)", DLogManager.printDataContainerLogs);
+                    return this;
+                }, mainThread);
+    }
+
+    /**
+     * Reads and parses one stored entry into a key and value. Runs on a worker thread, so it
+     * only records failures instead of logging them.
+     */
+    private LoadedEntry<K, V> readEntry(StorageBackend source, StorageBackend binarySource, @Nullable YamlSnapshotCache snapshot, String loadPath, String strKey, @Nullable Class<?> clazz) {
+        try {
+            K key = parseKey(dataType, strKey);
+            YamlConfiguration cached = snapshot != null ? snapshot.restore(strKey) : null;
+            if (cached != null) {
+                V value = deserializeValue(dataType, cached, clazz);
+                if (value == null) {
+                    return LoadedEntry.failed(strKey, "Value not compatible with " + clazz.getSimpleName());
+                }
+                return new LoadedEntry<>(strKey, key, value, false, null);
+            }
+            long start = System.nanoTime();
+            byte[] bytes = readPayload(source, binarySource, loadPath, strKey, clazz);
+            if (bytes == null) {
+                return LoadedEntry.failed(strKey, MISSING_ENTRY);
+            }
+            DataMetrics.of(plugin, loadPath).record(DataMetrics.Operation.LOAD, start, 1, bytes.length, strKey);
+            V value = deserializePayload(dataType, bytes, clazz);
+            if (value == null) {
+                return LoadedEntry.failed(strKey, "Value not compatible with " + clazz.getSimpleName());
+            }
+            return new LoadedEntry<>(strKey, key, value, needsMigration(bytes, clazz), null);
+        } catch (IllegalArgumentException e) {
+            return LoadedEntry.failed(strKey, "Invalid key format: " + strKey);
+        } catch (Exception e) {
+            return LoadedEntry.failed(strKey, String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * Puts a loaded entry into the container on the main thread; YAML entries of a binary
+     * class stay dirty so they are written again as binary.
+     */
+    private void publish(LoadedEntry<K, V> entry) {
+        putLoaded(entry.key, entry.value);
+        if (entry.migrate) {
+            dirtyKeys.add(entry.key);
+        }
+    }
+
+    /**
+     * @return the folder whose snapshot may serve a load of the path, or null if the snapshot
+     * cache is off or does not apply to the backend or value class.
+     */
+    @Nullable
+    private File snapshotFolder(String loadPath, @Nullable Class<?> clazz) {
+        if (!snapshotCache || isBinaryClass(clazz) || !(backend instanceof FileStorageBackend)) {
+            return null;
+        }
+        FileStorageBackend files = (FileStorageBackend) backend;
+        return FileStorageBackend.YAML_EXTENSION.equals(files.getExtension()) && files.getShardDepth() == 0 ? files.getFolder(loadPath) : null;
+    }
+
+    @Nullable
+    private static YamlSnapshotCache readSnapshot(@Nullable File folder) {
+        return folder == null ? null : YamlSnapshotCache.read(folder, FileStorageBackend.YAML_EXTENSION);
+    }
+
+    /**
+     * Converts a stored key string back into a key.
+     *
+     * @throws IllegalArgumentException If the DataType is USER and the name is not a UUID.
+     */
+    @SuppressWarnings("unchecked")
+    static <K> K parseKey(DataType dataType, String strKey) {
+        if (dataType == DataType.USER) {
+            return (K) UUID.fromString(strKey);
+        }
+        try {
+            return (K) UUID.fromString(strKey);
+        } catch (IllegalArgumentException e) {
+            return (K) strKey;
+        }
+    }
+
+    /**
+     * Turns a stored payload into the container value. Binary payloads are read through
+     * {@link BinaryDataCargo#readBinary}, everything else is parsed as YAML.
+     *
+     * @return The value, or null if the deserialized CUSTOM value is not an instance of clazz.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    static <V> V deserializePayload(DataType dataType, byte[] bytes, @Nullable Class<?> clazz) throws IOException, InvalidConfigurationException, ReflectiveOperationException {
+        if (BinaryCargoCodec.isBinary(bytes)) {
+            if (dataType != DataType.CUSTOM || clazz == null) {
+                throw new IOException("Binary entries can only be loaded into a CUSTOM container");
+            }
+            return (V) BinaryCargoCodec.decode(bytes, clazz);
+        }
+        return deserializeValue(dataType, decode(bytes), clazz);
+    }
+
+    /**
+     * Turns loaded YAML into the container value: the YAML itself for USER and YAML,
+     * a freshly deserialized DataCargo for CUSTOM.
+     *
+     * @return The value, or null if the deserialized CUSTOM value is not an instance of clazz.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    static <V> V deserializeValue(DataType dataType, YamlConfiguration data, @Nullable Class<?> clazz) throws ReflectiveOperationException {
+        if (dataType != DataType.CUSTOM) {
+            return (V) data;
+        }
+        DataCargo dataCargo = (DataCargo) clazz.getDeclaredConstructor().newInstance();
+        Object value = dataCargo.deserialize(data);
+        return clazz.isInstance(value) ? (V) value : null;
+    }
+
+    /**
+     * Reads one player's entry for {@link DataPreloader}.
+     */
+    private final class Preload implements PlayerPreloadable<LoadedEntry<K, V>> {
+        private final @Nullable Class<?> clazz;
+
+        private Preload(@Nullable Class<?> clazz) {
+            this.clazz = clazz;
+        }
+
+        @Nullable
+        @Override
+        public LoadedEntry<K, V> preload(@NotNull UUID uuid) {
+            awaitPendingFlush();
+            LoadedEntry<K, V> entry = readEntry(backend, binaryBackend, null, path, uuid.toString(), clazz);
+            return MISSING_ENTRY.equals(entry.error) ? null : entry;
+        }
+
+        @Override
+        public void publish(@NotNull UUID uuid, @Nullable LoadedEntry<K, V> entry) {
+            if (entry == null) {
+                return;
+            }
+            if (entry.error != null) {
+                logger.warning("Failed to preload " + path + "/" + entry.strKey + ": " + entry.error, DLogManager.printDataContainerLogs);
+            } else if (!containsKey(entry.key)) {
+                DataContainer.this.publish(entry);
+            }
+        }
+    }
+
+    /**
+     * Entries taken out of the container and ready to be written, split into the YAML and the
+     * binary backend. Once its YAML documents are detached copies it can be written from any thread.
+     */
+    private static final class PendingWrite<K> {
+        private final String path;
+        private final StorageBackend yamlTarget;
+        private final StorageBackend binaryTarget;
+        private final @Nullable File snapshotFolder;
+        private final DataMetrics metrics;
+        private final Map<String, YamlConfiguration> yaml = new LinkedHashMap<>();
+        private final Map<String, byte[]> binary = new LinkedHashMap<>();
+        private final List<K> keys = new ArrayList<>();
+        private volatile String snapshotError;
+        private @Nullable Map<String, Long> digests;
+        private int compressionThreshold = PayloadCompression.DISABLED;
+
+        private PendingWrite(String path, StorageBackend yamlTarget, StorageBackend binaryTarget, @Nullable File snapshotFolder, DataMetrics metrics) {
+            this.path = path;
+            this.yamlTarget = yamlTarget;
+            this.binaryTarget = binaryTarget;
+            this.snapshotFolder = snapshotFolder;
+            this.metrics = metrics;
+        }
+
+        private boolean isEmpty() {
+            return keys.isEmpty();
+        }
+
+        /**
+         * Dumps the YAML documents, writes every entry and then replaces the snapshot, if any.
+         * A snapshot failure does not fail the write; it is kept in {@link #snapshotError}.
+         */
+        private void write() throws IOException {
+            Map<String, byte[]> dumped = new LinkedHashMap<>();
+            for (Map.Entry<String, YamlConfiguration> entry : yaml.entrySet()) {
+                dumped.put(entry.getKey(), encode(entry.getValue()));
+            }
+            if (digests != null) {
+                // Recorded before the write, so the watcher never sees the file before its digest.
+                // Readers see uncompressed payloads, so the digest is taken before compression.
+                dumped.forEach((key, payload) -> digests.put(key, checksum(payload)));
+                binary.forEach((key, payload) -> digests.put(key, checksum(payload)));
+            }
+            if (compressionThreshold >= 0) {
+                compressAll(dumped);
+                compressAll(binary);
+            }
+            long bytes = 0;
+            for (byte[] payload : dumped.values()) {
+                bytes += payload.length;
+            }
+            for (byte[] payload : binary.values()) {
+                bytes += payload.length;
+            }
+            int entries = dumped.size() + binary.size();
+            String subject = entries == 1 ? (dumped.isEmpty() ? binary : dumped).keySet().iterator().next() : entries + " entries";
+            long start = System.nanoTime();
+            if (yamlTarget == binaryTarget) {
+                dumped.putAll(binary);
+                yamlTarget.batch(path, dumped);
+            } else {
+                if (!dumped.isEmpty()) {
+                    yamlTarget.batch(path, dumped);
+                }
+                if (!binary.isEmpty()) {
+                    binaryTarget.batch(path, binary);
+                }
+            }
+            metrics.record(DataMetrics.Operation.SAVE, start, entries, bytes, subject);
+            if (snapshotFolder != null) {
+                YamlSnapshotCache snapshot = new YamlSnapshotCache(snapshotFolder, FileStorageBackend.YAML_EXTENSION);
+                for (Map.Entry<String, YamlConfiguration> entry : yaml.entrySet()) {
+                    snapshot.put(entry.getKey(), entry.getValue());
+                }
+                try {
+                    snapshot.write();
+                } catch (IOException e) {
+                    snapshotError = e.getMessage();
+                }
+            }
+        }
+
+        private void compressAll(Map<String, byte[]> payloads) throws IOException {
+            for (Map.Entry<String, byte[]> entry : payloads.entrySet()) {
+                entry.setValue(PayloadCompression.compress(entry.getValue(), compressionThreshold));
+            }
+        }
+    }
+
+    static long checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    /**
+     * Reloads entries whose files changed outside the server, for {@link #enableWatch}.
+     */
+    private final class Watch implements FolderWatcher.Handler<LoadedEntry<K, V>> {
+        private final @Nullable Class<?> clazz;
+
+        private Watch(@Nullable Class<?> clazz) {
+            this.clazz = clazz;
+        }
+
+        @Override
+        public boolean accepts(@NotNull File file) {
+            return strKey(file) != null;
+        }
+
+        @Nullable
+        @Override
+        public LoadedEntry<K, V> read(@NotNull File file) throws Exception {
+            String strKey = strKey(file);
+            K key = parseKey(dataType, strKey);
+            byte[] bytes = readPayload(backend, binaryBackend, path, strKey, clazz);
+            if (bytes == null) {
+                return new LoadedEntry<>(strKey, key, null, false, MISSING_ENTRY);
+            }
+            Long own = ownWrites.get(strKey);
+            if (own != null && own == checksum(bytes)) {
+                return null;
+            }
+            V value = deserializePayload(dataType, bytes, clazz);
+            if (value == null) {
+                return LoadedEntry.failed(strKey, "Value not compatible with " + clazz.getSimpleName());
+            }
+            return new LoadedEntry<>(strKey, key, value, needsMigration(bytes, clazz), null);
+        }
+
+        @Override
+        public void apply(@NotNull File file, @NotNull LoadedEntry<K, V> entry) {
+            if (entry.key != null && isDirty(entry.key)) {
+                logger.warning("Kept unsaved changes of " + path + "/" + entry.strKey + " over the changed file", DLogManager.printDataContainerLogs);
+            } else if (MISSING_ENTRY.equals(entry.error)) {
+                if (containsKey(entry.key)) {
+                    remove(entry.key);
+                    ownWrites.remove(entry.strKey);
+                    logger.info("Unloaded " + path + "/" + entry.strKey + ", its file was deleted", DLogManager.printDataContainerLogs);
                 }
-                if (dataType == DataType.CUSTOM) {
-                    DataCargo dataCargo = (DataCargo) clazz.getDeclaredConstructor().newInstance();
-                    Object value = dataCargo.deserialize(data);
-                    if (clazz.isInstance(value)) {
-                        put(key, (V) value);
-                    } else {
-                        logger.warning("Type mismatch on loadAll for key " + strKey + ": Value not compatible with " + clazz.getSimpleName(), DLogManager.printDataContainerLogs);
+            } else if (entry.error != null) {
+                logger.warning("Failed to reload " + path + "/" + entry.strKey + ": " + entry.error, DLogManager.printDataContainerLogs);
+            } else {
+                publish(entry);
+                logger.info("Reloaded " + path + "/" + entry.strKey, DLogManager.printDataContainerLogs);
+            }
+        }
+
+        @Nullable
+        private String strKey(File file) {
+            String name = file.getName();
+            for (StorageBackend source : new StorageBackend[]{backend, binaryBackend}) {
+                if (source instanceof FileStorageBackend) {
+                    String extension = ((FileStorageBackend) source).getExtension();
+                    if (name.endsWith(extension) && name.length() > extension.length()) {
+                        return name.substring(0, name.length() - extension.length());
                     }
-                } else {
-                    put(key, (V) data);
                 }
-            } catch (IllegalArgumentException e) {
-                logger.warning("Invalid UUID format for USER key: " + strKey, DLogManager.printDataContainerLogs);
-            } catch (Exception e) {
-                logger.warning("Failed to load data for key " + strKey + (clazz != null ? " in " + clazz.getSimpleName() : "") + ": " + e.getMessage(), DLogManager.printDataContainerLogs);
             }
+            return null;
+        }
+    }
+
+    private final class KeyView extends AbstractSet<K> {
+        @Override
+        public int size() {
+            return DataContainer.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!containsKey(o)) {
+                return false;
+            }
+            DataContainer.this.remove(o);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            DataContainer.this.clear();
+        }
+
+        @Override
+        public Iterator<K> iterator() {
+            return new ViewIterator<>(Map.Entry::getKey);
+        }
+    }
+
+    private final class ValueView extends AbstractCollection<V> {
+        @Override
+        public int size() {
+            return DataContainer.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsValue(o);
+        }
+
+        @Override
+        public void clear() {
+            DataContainer.this.clear();
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return new ViewIterator<>(Map.Entry::getValue);
+        }
+    }
+
+    private final class EntryView extends AbstractSet<Map.Entry<K, V>> {
+        @Override
+        public int size() {
+            return DataContainer.this.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            return containsKey(entry.getKey()) && Objects.equals(DataContainer.super.get(entry.getKey()), entry.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!contains(o)) {
+                return false;
+            }
+            DataContainer.this.remove(((Map.Entry<?, ?>) o).getKey());
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            DataContainer.this.clear();
+        }
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new ViewIterator<>(TrackedEntry::new);
+        }
+    }
+
+    private final class ViewIterator<T> implements Iterator<T> {
+        private final Iterator<Map.Entry<K, V>> entries = DataContainer.super.entrySet().iterator();
+        private final Function<Map.Entry<K, V>, T> mapper;
+        private @Nullable Map.Entry<K, V> last;
+
+        private ViewIterator(Function<Map.Entry<K, V>, T> mapper) {
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return entries.hasNext();
+        }
+
+        @Override
+        public T next() {
+            last = entries.next();
+            return mapper.apply(last);
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            K key = last.getKey();
+            entries.remove();
+            forget(key);
+            last = null;
+        }
+    }
+
+    private final class TrackedEntry implements Map.Entry<K, V> {
+        private final Map.Entry<K, V> entry;
+
+        private TrackedEntry(Map.Entry<K, V> entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public K getKey() {
+            return entry.getKey();
+        }
+
+        @Override
+        public V getValue() {
+            return entry.getValue();
+        }
+
+        @Override
+        public V setValue(V value) {
+            V previous = entry.setValue(value);
+            dirtyKeys.add(entry.getKey());
+            updateIndexes(entry.getKey(), value);
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return entry.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return entry.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return entry.toString();
+        }
+    }
+
+    private static final class LoadedEntry<K, V> {
+        private final String strKey;
+        private final K key;
+        private final V value;
+        private final boolean migrate;
+        private final String error;
+
+        private LoadedEntry(String strKey, K key, V value, boolean migrate, String error) {
+            this.strKey = strKey;
+            this.key = key;
+            this.value = value;
+            this.migrate = migrate;
+            this.error = error;
+        }
+
+        private static <K, V> LoadedEntry<K, V> failed(String strKey, String error) {
+            return new LoadedEntry<>(strKey, null, null, false, error);
         }
-        return this;
     }
 
     @DPPCoreVersion(since = "5.4.0")
@@ -0,0 +1,175 @@
+package com.darksoldier1404.dppc.data;
+
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Coordinates the data flush of every DPlugin at shutdown.
+ * <p>
+ * When a DPlugin is disabled, {@link DPlugin#saveAllData()} no longer saves its handlers one
+ * after another: it hands them to {@link #flush(DPlugin)}, which starts all of them at once on
+ * the {@link DataIO} pool and returns. Plugins are disabled before DPP-Core, so their writes
+ * overlap with each other; DPP-Core then waits for everything in {@link #awaitAll(long)} with a
+ * single total deadline ({@code Settings.Data.shutdown_deadline_ms}) and reports the handlers
+ * that did not finish or failed.
+ * <p>
+ * A plugin that is disabled while the server keeps running (by a plugin manager, or after an
+ * error on enable) is not covered by that wait, so {@code saveAllData()} waits for its own
+ * writes with {@link #await(DPlugin, long)} before {@code onDisable} returns.
+ */
+@DPPCoreVersion(since = "5.4.3")
+public final class DataFlushService {
+    private static final Map<String, CompletableFuture<Void>> pending = new ConcurrentHashMap<>();
+    private static final Map<String, Throwable> failures = new ConcurrentHashMap<>();
+    private static volatile long deadlineMillis = 30000L;
+
+    private DataFlushService() {
+    }
+
+    public static long getDeadlineMillis() {
+        return deadlineMillis;
+    }
+
+    /**
+     * @param millis The total time DPP-Core waits for all data writes at shutdown.
+     */
+    public static void setDeadlineMillis(long millis) {
+        deadlineMillis = Math.max(0L, millis);
+    }
+
+    /**
+     * Starts saving every data handler of the plugin on the I/O pool. Must be called on the main
+     * thread; handlers with an async save take their snapshot before this returns.
+     *
+     * @return A future completed once every handler of the plugin has been written.
+     */
+    public static CompletableFuture<Void> flush(@NotNull DPlugin plugin) {
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Map.Entry<String, IDataHandler<?, ?>> entry : plugin.getDataHandlers().entrySet()) {
+            CompletableFuture<Void> future;
+            try {
+                future = entry.getValue().flushAsync(DataIO.getExecutor());
+            } catch (RuntimeException e) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+            }
+            futures.add(track(plugin.getName() + ":" + entry.getKey(), future));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+    }
+
+    /**
+     * @return true while the server is shutting down. Only Paper reports this; elsewhere it is
+     * always false, so a disabled plugin waits for its own writes.
+     */
+    public static boolean isServerStopping() {
+        try {
+            Method isStopping = Bukkit.class.getMethod("isStopping");
+            return (Boolean) isStopping.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Adds a write that {@link #awaitAll(long)} waits for, under a label shown if it does not finish.
+     */
+    public static CompletableFuture<Void> track(@NotNull String label, @NotNull CompletableFuture<Void> future) {
+        pending.put(label, future);
+        return future.whenComplete((ignored, error) -> {
+            pending.remove(label, future);
+            if (error != null) {
+                failures.put(label, error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            }
+        });
+    }
+
+    /**
+     * @return the labels of the tracked writes that are still running.
+     */
+    public static List<String> getPending() {
+        return new ArrayList<>(pending.keySet());
+    }
+
+    /**
+     * Waits for the tracked writes of one plugin.
+     *
+     * @return true if all of them finished in time.
+     */
+    public static boolean await(@NotNull DPlugin plugin, long timeoutMillis) {
+        String prefix = plugin.getName() + ":";
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Map.Entry<String, CompletableFuture<Void>> entry : pending.entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                futures.add(entry.getValue());
+            }
+        }
+        return join(futures, timeoutMillis);
+    }
+
+    /**
+     * Waits for every tracked write, up to the deadline, and clears the tracked state.
+     *
+     * @return what did not finish in time and what failed.
+     */
+    public static Report awaitAll(long timeoutMillis) {
+        join(new ArrayList<>(pending.values()), timeoutMillis);
+        Report report = new Report(getPending(), new LinkedHashMap<>(failures));
+        pending.clear();
+        failures.clear();
+        return report;
+    }
+
+    private static boolean join(List<CompletableFuture<Void>> futures, long timeoutMillis) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(Math.max(0L, timeoutMillis), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            // A failed write; recorded in the failures, the others have finished.
+            return true;
+        }
+    }
+
+    /**
+     * The outcome of {@link #awaitAll(long)}.
+     */
+    public static final class Report {
+        private final List<String> unfinished;
+        private final Map<String, Throwable> failed;
+
+        private Report(List<String> unfinished, Map<String, Throwable> failed) {
+            this.unfinished = Collections.unmodifiableList(unfinished);
+            this.failed = Collections.unmodifiableMap(failed);
+        }
+
+        public List<String> getUnfinished() {
+            return unfinished;
+        }
+
+        public Map<String, Throwable> getFailed() {
+            return failed;
+        }
+
+        public boolean isComplete() {
+            return unfinished.isEmpty() && failed.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.darksoldier1404.dppc.data;
+
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared, bounded thread pool for data file I/O of all DP-Plugins.
+ * <p>
+ * The pool is created on first use and sized to the available processors (2 to 8 threads).
+ * Its threads are daemons, so a pool that was never shut down does not keep the JVM alive.
+ * DPP-Core shuts it down last in {@code onDisable}; a later call to {@link #getExecutor()}
+ * simply creates a new pool.
+ */
+@DPPCoreVersion(since = "5.4.3")
+public final class DataIO {
+    private static final int THREADS = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+    private static ExecutorService executor;
+
+    private DataIO() {
+    }
+
+    public static synchronized ExecutorService getExecutor() {
+        if (executor == null || executor.isShutdown()) {
+            executor = Executors.newFixedThreadPool(THREADS, new IOThreadFactory());
+        }
+        return executor;
+    }
+
+    public static int getThreadCount() {
+        return THREADS;
+    }
+
+    /**
+     * Stops accepting work and waits up to {@code timeoutMillis} for queued writes to finish.
+     *
+     * @return true if every queued task finished in time.
+     */
+    public static boolean shutdown(long timeoutMillis) {
+        ExecutorService current;
+        synchronized (DataIO.class) {
+            current = executor;
+            executor = null;
+        }
+        if (current == null) {
+            return true;
+        }
+        current.shutdown();
+        try {
+            return current.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static final class IOThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "DPP-Core-IO-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
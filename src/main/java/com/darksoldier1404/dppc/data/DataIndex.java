@@ -0,0 +1,219 @@
+package com.darksoldier1404.dppc.data;
+
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * A secondary index over the values of a {@link DataContainer}, registered with
+ * {@link DataContainer#addIndex(DataIndex)}.
+ * <p>
+ * The extractor maps a value to the indexed attribute (for example the owner or the balance of a
+ * DataCargo); values for which it returns null are not indexed. A hash index answers equality
+ * lookups; a sorted index also answers range and top-N queries in O(log n + result size).
+ * <p>
+ * The container updates its indexes on {@code put}, {@code remove}, {@code clear} and on every
+ * load. A value mutated in place is re-indexed by {@link DataContainer#markDirty(Object)}.
+ * Indexes only cover the entries in memory, so on a {@link LazyDataContainer} they see the
+ * resident working set. Not thread-safe; use it on the main thread like the container.
+ *
+ * @param <K> The key type of the container.
+ * @param <V> The value type of the container.
+ * @param <I> The type of the indexed attribute.
+ */
+@DPPCoreVersion(since = "5.4.3")
+public final class DataIndex<K, V, I> {
+    private final String name;
+    private final Function<? super V, ? extends I> extractor;
+    private final Map<I, Set<K>> entries;
+    private final Map<K, I> indexed = new HashMap<>();
+
+    private DataIndex(String name, Function<? super V, ? extends I> extractor, Map<I, Set<K>> entries) {
+        this.name = name;
+        this.extractor = extractor;
+        this.entries = entries;
+    }
+
+    /**
+     * Creates an index that answers equality lookups only.
+     */
+    public static <K, V, I> DataIndex<K, V, I> hash(@NotNull String name, @NotNull Function<? super V, ? extends I> extractor) {
+        return new DataIndex<>(name, extractor, new HashMap<>());
+    }
+
+    /**
+     * Creates an index sorted by the natural order of the attribute.
+     */
+    public static <K, V, I extends Comparable<? super I>> DataIndex<K, V, I> sorted(@NotNull String name, @NotNull Function<? super V, ? extends I> extractor) {
+        return new DataIndex<>(name, extractor, new TreeMap<>());
+    }
+
+    /**
+     * Creates an index sorted by the given comparator.
+     */
+    public static <K, V, I> DataIndex<K, V, I> sorted(@NotNull String name, @NotNull Function<? super V, ? extends I> extractor, @NotNull Comparator<? super I> comparator) {
+        return new DataIndex<>(name, extractor, new TreeMap<>(comparator));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isSorted() {
+        return entries instanceof NavigableMap;
+    }
+
+    /**
+     * @return the number of indexed entries.
+     */
+    public int size() {
+        return indexed.size();
+    }
+
+    /**
+     * @return the keys whose attribute equals the value, in insertion order.
+     */
+    public Set<K> get(@NotNull I value) {
+        Set<K> keys = entries.get(value);
+        return keys == null ? Collections.emptySet() : Collections.unmodifiableSet(keys);
+    }
+
+    /**
+     * @return the first key whose attribute equals the value, or null.
+     */
+    @Nullable
+    public K getFirst(@NotNull I value) {
+        Set<K> keys = entries.get(value);
+        return keys == null ? null : keys.iterator().next();
+    }
+
+    /**
+     * @return the attribute the key is indexed under, or null if it is not indexed.
+     */
+    @Nullable
+    public I getIndexed(K key) {
+        return indexed.get(key);
+    }
+
+    /**
+     * @return the keys whose attribute lies between the bounds, in ascending order; a null
+     * bound is open.
+     * @throws UnsupportedOperationException If this is a hash index.
+     */
+    public List<K> range(@Nullable I from, boolean fromInclusive, @Nullable I to, boolean toInclusive) {
+        NavigableMap<I, Set<K>> sorted = sorted();
+        if (from != null && to != null) {
+            sorted = sorted.subMap(from, fromInclusive, to, toInclusive);
+        } else if (from != null) {
+            sorted = sorted.tailMap(from, fromInclusive);
+        } else if (to != null) {
+            sorted = sorted.headMap(to, toInclusive);
+        }
+        return collect(sorted, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return up to {@code n} keys with the highest attributes, highest first.
+     * @throws UnsupportedOperationException If this is a hash index.
+     */
+    public List<K> top(int n) {
+        return collect(sorted().descendingMap(), n);
+    }
+
+    /**
+     * @return up to {@code n} keys with the lowest attributes, lowest first.
+     * @throws UnsupportedOperationException If this is a hash index.
+     */
+    public List<K> bottom(int n) {
+        return collect(sorted(), n);
+    }
+
+    /**
+     * @return the 1-based position of the key in {@link #top(int)} order, or -1 if it is not indexed.
+     * @throws UnsupportedOperationException If this is a hash index.
+     */
+    public int rankOf(K key) {
+        I value = indexed.get(key);
+        if (value == null) {
+            return -1;
+        }
+        int rank = 1;
+        for (Set<K> keys : sorted().tailMap(value, false).values()) {
+            rank += keys.size();
+        }
+        for (K k : entries.get(value)) {
+            if (k.equals(key)) {
+                return rank;
+            }
+            rank++;
+        }
+        return -1;
+    }
+
+    private NavigableMap<I, Set<K>> sorted() {
+        if (!(entries instanceof NavigableMap)) {
+            throw new UnsupportedOperationException("Index '" + name + "' is a hash index and does not support ordered queries");
+        }
+        return (NavigableMap<I, Set<K>>) entries;
+    }
+
+    private List<K> collect(Map<I, Set<K>> map, int limit) {
+        List<K> result = new ArrayList<>(Math.min(limit, 16));
+        for (Set<K> keys : map.values()) {
+            for (K key : keys) {
+                if (result.size() >= limit) {
+                    return result;
+                }
+                result.add(key);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Indexes the value under the key, replacing its previous entry.
+     */
+    void update(K key, @Nullable V value) {
+        I next = value == null ? null : extractor.apply(value);
+        I previous = indexed.get(key);
+        if (previous != null && previous.equals(next)) {
+            return;
+        }
+        remove(key);
+        if (next != null) {
+            entries.computeIfAbsent(next, ignored -> new LinkedHashSet<>()).add(key);
+            indexed.put(key, next);
+        }
+    }
+
+    void remove(Object key) {
+        I previous = indexed.remove(key);
+        if (previous == null) {
+            return;
+        }
+        Set<K> keys = entries.get(previous);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                entries.remove(previous);
+            }
+        }
+    }
+
+    void clear() {
+        entries.clear();
+        indexed.clear();
+    }
+}
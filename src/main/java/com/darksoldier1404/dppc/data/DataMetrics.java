@@ -0,0 +1,208 @@
+package com.darksoldier1404.dppc.data;
+
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
+import com.darksoldier1404.dppc.api.logger.DLogNode;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Persistence counters of one data container path: how many loads, saves and deletes ran, how
+ * many entries and bytes they moved and how long they took (a fixed-bucket latency histogram).
+ * Any single operation slower than {@link #setSlowThresholdMillis(long)} is reported as a
+ * warning in the plugin log.
+ * <p>
+ * Metrics are created on first use by the containers and {@code ConfigUtils} custom data files
+ * and kept for the server's lifetime; they are shown by {@code /dppc stats data}. Recording is thread-safe and lock-free.
+ */
+@DPPCoreVersion(since = "5.4.3")
+public final class DataMetrics {
+    private static final long[] BUCKET_MICROS = {100, 500, 1_000, 5_000, 10_000, 50_000, 100_000, 500_000, Long.MAX_VALUE};
+    private static final Map<String, DataMetrics> registry = new ConcurrentSkipListMap<>();
+    private static volatile long slowThresholdMillis = 50L;
+
+    private final String pluginName;
+    private final String path;
+    private final DLogNode logger;
+    private final OperationStats[] stats = new OperationStats[Operation.values().length];
+
+    public enum Operation {
+        LOAD, SAVE, DELETE
+    }
+
+    private DataMetrics(String pluginName, String path, DLogNode logger) {
+        this.pluginName = pluginName;
+        this.path = path;
+        this.logger = logger;
+        for (Operation operation : Operation.values()) {
+            stats[operation.ordinal()] = new OperationStats();
+        }
+    }
+
+    /**
+     * @return the metrics of the plugin's container path, created on first use.
+     */
+    public static DataMetrics of(@NotNull DPlugin plugin, @NotNull String path) {
+        return of(plugin, path, plugin.getLog());
+    }
+
+    /**
+     * @param logger The log that receives slow-operation warnings.
+     * @return the metrics of the plugin's data path, created on first use.
+     */
+    public static DataMetrics of(@NotNull Plugin plugin, @NotNull String path, @NotNull DLogNode logger) {
+        return registry.computeIfAbsent(plugin.getName() + "/" + path, ignored -> new DataMetrics(plugin.getName(), path, logger));
+    }
+
+    /**
+     * @return every container's metrics, sorted by plugin and path.
+     */
+    public static List<DataMetrics> getAll() {
+        return Collections.unmodifiableList(new ArrayList<>(registry.values()));
+    }
+
+    public static void resetAll() {
+        registry.clear();
+    }
+
+    public static long getSlowThresholdMillis() {
+        return slowThresholdMillis;
+    }
+
+    /**
+     * @param millis The duration above which a single operation is logged as slow; 0 or less disables it.
+     */
+    public static void setSlowThresholdMillis(long millis) {
+        slowThresholdMillis = millis;
+    }
+
+    public String getPluginName() {
+        return pluginName;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public OperationStats get(@NotNull Operation operation) {
+        return stats[operation.ordinal()];
+    }
+
+    /**
+     * Records one operation that started at {@code startNanos} ({@link System#nanoTime()}).
+     *
+     * @param entries The number of entries it covered (a batch save covers several).
+     * @param bytes   The payload bytes read or written.
+     * @param subject The key or a description of the entries, used in the slow warning.
+     */
+    public void record(@NotNull Operation operation, long startNanos, int entries, long bytes, @NotNull String subject) {
+        long nanos = System.nanoTime() - startNanos;
+        stats[operation.ordinal()].add(nanos, entries, bytes);
+        long threshold = slowThresholdMillis;
+        if (threshold > 0 && nanos >= TimeUnit.MILLISECONDS.toNanos(threshold)) {
+            logger.warning("Slow " + operation.name().toLowerCase() + " of " + pluginName + "/" + path + "/" + subject + ": "
+                    + TimeUnit.NANOSECONDS.toMillis(nanos) + " ms (" + bytes + " bytes)", true);
+        }
+    }
+
+    /**
+     * Counters and latency histogram of one kind of operation.
+     */
+    public static final class OperationStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder entries = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_MICROS.length);
+
+        private void add(long nanos, int entryCount, long byteCount) {
+            count.increment();
+            entries.add(entryCount);
+            bytes.add(byteCount);
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+            for (int i = 0; i < BUCKET_MICROS.length; i++) {
+                if (micros <= BUCKET_MICROS[i]) {
+                    buckets.incrementAndGet(i);
+                    return;
+                }
+            }
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getEntries() {
+            return entries.sum();
+        }
+
+        public long getBytes() {
+            return bytes.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        public double getAverageMillis() {
+            long n = getCount();
+            return n == 0 ? 0.0 : getTotalNanos() / (double) n / 1_000_000.0;
+        }
+
+        /**
+         * @return the histogram counts; bucket {@code i} holds operations up to {@link #getBucketBoundsMicros()}{@code [i]}.
+         */
+        public long[] getBuckets() {
+            long[] copy = new long[buckets.length()];
+            for (int i = 0; i < copy.length; i++) {
+                copy[i] = buckets.get(i);
+            }
+            return copy;
+        }
+
+        public static long[] getBucketBoundsMicros() {
+            return BUCKET_MICROS.clone();
+        }
+
+        /**
+         * @param percentile A value between 0 and 1.
+         * @return the upper bound in milliseconds of the bucket holding the percentile, or the
+         * maximum for the last, open bucket; 0 if nothing was recorded.
+         */
+        public double getPercentileMillis(double percentile) {
+            long[] counts = getBuckets();
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            if (total == 0) {
+                return 0.0;
+            }
+            long rank = (long) Math.ceil(percentile * total);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && counts[i] > 0) {
+                    return BUCKET_MICROS[i] == Long.MAX_VALUE ? getMaxNanos() / 1_000_000.0 : BUCKET_MICROS[i] / 1000.0;
+                }
+            }
+            return getMaxNanos() / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.darksoldier1404.dppc.data;
+
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads per-player data while the player logs in, so the join itself reads nothing from disk.
+ * <p>
+ * DPP-Core calls {@link #stage(UUID)} from {@code AsyncPlayerPreLoginEvent} once the login is
+ * allowed: every registered {@link PlayerPreloadable} reads the player's data on the login
+ * thread and the results are kept in a staging area. {@link #publish(UUID)} hands them over at
+ * {@code PlayerJoinEvent} (lowest priority, so other join handlers already see the data).
+ * A handler without staged data, for example one registered after the login, is loaded
+ * synchronously at join as before.
+ * <p>
+ * Staged data is dropped when the login is denied and when the player quits, so a
+ * duplicate login that was staged before the old session saved is read again at join.
+ * Data that was never published, because the connection dropped between pre-login and join,
+ * expires after {@link #STAGE_TIMEOUT_SECONDS} and is swept at the next login.
+ */
+@DPPCoreVersion(since = "5.4.3")
+public final class DataPreloader {
+    public static final int STAGE_TIMEOUT_SECONDS = 60;
+    private static final List<Registration> handlers = new CopyOnWriteArrayList<>();
+    private static final Map<UUID, Staged> staged = new ConcurrentHashMap<>();
+
+    private DataPreloader() {
+    }
+
+    /**
+     * Registers a handler whose data is preloaded for every login while the plugin is enabled.
+     */
+    public static void register(@NotNull Plugin plugin, @NotNull PlayerPreloadable<?> handler) {
+        unregister(handler);
+        handlers.add(new Registration(plugin, handler));
+    }
+
+    public static void unregister(@NotNull PlayerPreloadable<?> handler) {
+        handlers.removeIf(registration -> registration.handler == handler);
+    }
+
+    public static int getHandlerCount() {
+        return handlers.size();
+    }
+
+    /**
+     * Reads the data of every registered handler into the staging area. Called on the async
+     * login thread; a handler that fails is skipped and loaded at join instead.
+     */
+    public static void stage(@NotNull UUID uuid) {
+        Map<Registration, Object> results = Collections.synchronizedMap(new IdentityHashMap<>());
+        for (Registration registration : handlers) {
+            if (!registration.plugin.isEnabled()) {
+                continue;
+            }
+            try {
+                results.put(registration, registration.handler.preload(uuid));
+            } catch (RuntimeException e) {
+                registration.plugin.getLogger().warning("Failed to preload data of " + uuid + ": " + e.getMessage());
+            }
+        }
+        staged.put(uuid, new Staged(results));
+        expireStaged(TimeUnit.SECONDS.toNanos(STAGE_TIMEOUT_SECONDS));
+    }
+
+    /**
+     * Drops staged data older than the given age.
+     *
+     * @return the number of players whose data was dropped.
+     */
+    static int expireStaged(long maxAgeNanos) {
+        int expired = 0;
+        for (Map.Entry<UUID, Staged> entry : staged.entrySet()) {
+            if (entry.getValue().isOlderThan(maxAgeNanos) && staged.remove(entry.getKey(), entry.getValue())) {
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * Publishes the staged data of every registered handler on the main thread; handlers
+     * without staged data are loaded synchronously.
+     */
+    public static void publish(@NotNull UUID uuid) {
+        Staged entry = staged.remove(uuid);
+        Map<Registration, Object> results = entry == null || entry.isOlderThan(TimeUnit.SECONDS.toNanos(STAGE_TIMEOUT_SECONDS)) ? null : entry.results;
+        for (Registration registration : handlers) {
+            if (!registration.plugin.isEnabled()) {
+                continue;
+            }
+            try {
+                if (results != null && results.containsKey(registration)) {
+                    registration.publish(uuid, results.get(registration));
+                } else {
+                    registration.publish(uuid, registration.handler.preload(uuid));
+                }
+            } catch (RuntimeException e) {
+                registration.plugin.getLogger().warning("Failed to publish data of " + uuid + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Drops the staged data of the player, if any.
+     */
+    public static void discard(@NotNull UUID uuid) {
+        staged.remove(uuid);
+    }
+
+    public static boolean isStaged(@NotNull UUID uuid) {
+        return staged.containsKey(uuid);
+    }
+
+    private static final class Staged {
+        private final Map<Registration, Object> results;
+        private final long stagedAt = System.nanoTime();
+
+        private Staged(Map<Registration, Object> results) {
+            this.results = results;
+        }
+
+        private boolean isOlderThan(long nanos) {
+            return System.nanoTime() - stagedAt >= nanos;
+        }
+    }
+
+    private static final class Registration {
+        private final Plugin plugin;
+        private final PlayerPreloadable<?> handler;
+
+        private Registration(Plugin plugin, PlayerPreloadable<?> handler) {
+            this.plugin = plugin;
+            this.handler = handler;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void publish(UUID uuid, Object value) {
+            ((PlayerPreloadable<Object>) handler).publish(uuid, value);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.darksoldier1404.dppc.data;
+
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
+import com.darksoldier1404.dppc.api.logger.DLogManager;
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches one folder for files that are created, edited or deleted outside the server and
+ * hands only those files to a {@link Handler}.
+ * <p>
+ * Events are debounced: a file is handled once no event arrived for {@code debounceMillis},
+ * so an editor that writes a file in several steps causes one reload. The watcher thread
+ * reads and parses the changed files ({@link Handler#read}); the results are applied together
+ * on the main thread ({@link Handler#apply}). Hidden files and {@code .tmp} files (the atomic
+ * write temp files of {@code FileStorageBackend}) are ignored. Subfolders are not watched.
+ * <p>
+ * Watchers are opt-in. DPP-Core closes every watcher that is still open when it is disabled.
+ */
+@DPPCoreVersion(since = "5.4.3")
+public final class FolderWatcher implements Closeable {
+    public static final long DEFAULT_DEBOUNCE_MILLIS = 500L;
+    private static final Set<FolderWatcher> open = ConcurrentHashMap.newKeySet();
+
+    private final DPlugin plugin;
+    private final File folder;
+    private final long debounceMillis;
+    private final Handler<?> handler;
+    private final WatchService service;
+    private volatile boolean closed;
+
+    /**
+     * Reloads what belongs to a changed file.
+     *
+     * @param <T> What {@link #read} produces for {@link #apply}.
+     */
+    public interface Handler<T> {
+        /**
+         * @return true if the file should be handled (e.g. it has the right extension).
+         */
+        default boolean accepts(@NotNull File file) {
+            return true;
+        }
+
+        /**
+         * Reads the changed file on the watcher thread. The file does not exist any more if it
+         * was deleted.
+         *
+         * @return What to apply, or null to skip the file.
+         */
+        @Nullable
+        T read(@NotNull File file) throws Exception;
+
+        /**
+         * Applies a non-null result of {@link #read} on the main thread.
+         */
+        void apply(@NotNull File file, @NotNull T value);
+    }
+
+    private FolderWatcher(DPlugin plugin, File folder, long debounceMillis, Handler<?> handler) throws IOException {
+        this.plugin = plugin;
+        this.folder = folder;
+        this.debounceMillis = Math.max(1L, debounceMillis);
+        this.handler = handler;
+        this.service = folder.toPath().getFileSystem().newWatchService();
+    }
+
+    /**
+     * @see #watch(DPlugin, File, long, Handler)
+     */
+    public static FolderWatcher watch(@NotNull DPlugin plugin, @NotNull File folder, @NotNull Handler<?> handler) throws IOException {
+        return watch(plugin, folder, DEFAULT_DEBOUNCE_MILLIS, handler);
+    }
+
+    /**
+     * Starts watching the folder, creating it if needed.
+     *
+     * @throws IOException If the folder cannot be created or watched.
+     */
+    public static FolderWatcher watch(@NotNull DPlugin plugin, @NotNull File folder, long debounceMillis, @NotNull Handler<?> handler) throws IOException {
+        if (!folder.isDirectory() && !folder.mkdirs()) {
+            throw new IOException("Cannot create " + folder);
+        }
+        FolderWatcher watcher = new FolderWatcher(plugin, folder, debounceMillis, handler);
+        try {
+            folder.toPath().register(watcher.service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            watcher.service.close();
+            throw e;
+        }
+        Thread thread = new Thread(watcher::run, "DPP-Core-Watch-" + plugin.getName() + "-" + folder.getName());
+        thread.setDaemon(true);
+        open.add(watcher);
+        thread.start();
+        return watcher;
+    }
+
+    /**
+     * Closes every open watcher of the plugin.
+     */
+    public static void closeAll(@NotNull DPlugin plugin) {
+        for (FolderWatcher watcher : open) {
+            if (watcher.plugin == plugin) {
+                watcher.close();
+            }
+        }
+    }
+
+    /**
+     * Closes every open watcher.
+     */
+    public static void closeAll() {
+        for (FolderWatcher watcher : open) {
+            watcher.close();
+        }
+    }
+
+    public File getFolder() {
+        return folder;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        open.remove(this);
+        try {
+            service.close();
+        } catch (IOException ignored) {
+            // Nothing left to release.
+        }
+    }
+
+    private void run() {
+        Path dir = folder.toPath();
+        Set<Path> changed = new LinkedHashSet<>();
+        try {
+            while (!closed) {
+                WatchKey key = changed.isEmpty() ? service.take() : service.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                if (key == null) {
+                    dispatch(handler, changed);
+                    changed = new LinkedHashSet<>();
+                    continue;
+                }
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        // Events were lost; handle every file of the folder.
+                        File[] files = folder.listFiles();
+                        if (files != null) {
+                            for (File file : files) {
+                                changed.add(file.toPath());
+                            }
+                        }
+                        continue;
+                    }
+                    String name = event.context().toString();
+                    if (!name.startsWith(".") && !name.endsWith(".tmp")) {
+                        changed.add(dir.resolve(name));
+                    }
+                }
+                if (!key.reset()) {
+                    plugin.getLog().warning("Stopped watching " + folder.getPath() + ": the folder is no longer accessible", DLogManager.printDataContainerLogs);
+                    close();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ignored) {
+            // Closed by close().
+        }
+    }
+
+    private <T> void dispatch(Handler<T> handler, Set<Path> changed) {
+        Map<File, T> values = new LinkedHashMap<>();
+        for (Path path : changed) {
+            File file = path.toFile();
+            if (file.isDirectory() || !handler.accepts(file)) {
+                continue;
+            }
+            try {
+                T value = handler.read(file);
+                if (value != null) {
+                    values.put(file, value);
+                }
+            } catch (Exception e) {
+                plugin.getLog().warning("Failed to reload " + file.getPath() + ": " + e.getMessage(), DLogManager.printDataContainerLogs);
+            }
+        }
+        if (values.isEmpty() || closed || !plugin.isEnabled()) {
+            return;
+        }
+        List<Map.Entry<File, T>> entries = new ArrayList<>(values.entrySet());
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            for (Map.Entry<File, T> entry : entries) {
+                if (closed) {
+                    return;
+                }
+                handler.apply(entry.getKey(), entry.getValue());
+            }
+        });
+    }
+}
@@ -4,10 +4,35 @@ import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 @DPPCoreVersion(since = "5.3.0")
 public interface IDataHandler<K, V> {
     void saveAll();
 
+    /**
+     * Saves everything, doing as little as possible on the calling thread. Handlers without an
+     * async path save synchronously and return a completed future.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    default CompletableFuture<Void> saveAllAsync() {
+        saveAll();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Saves everything for the disable flush of {@link DataFlushService}. Like
+     * {@link #saveAllAsync()}, but a handler without an async path runs {@link #saveAll()} on the
+     * executor. The owning plugin is already disabled then, but the main thread goes on (during a
+     * shutdown it disables the other plugins), so a handler whose data other plugins can still
+     * change must override this and take its snapshot on the calling thread.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    default CompletableFuture<Void> flushAsync(Executor executor) {
+        return CompletableFuture.runAsync(this::saveAll, executor);
+    }
+
     IDataHandler<K, V> loadAll(@Nullable Class<?> clazz);
 
     String getPath();
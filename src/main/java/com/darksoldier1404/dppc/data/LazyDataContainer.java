@@ -0,0 +1,218 @@
+package com.darksoldier1404.dppc.data;
+
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
+import org.bukkit.Bukkit;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * A DataContainer that keeps only a bounded working set in memory.
+ * <p>
+ * Entries are read from disk on the first {@link #get(Object)} and the least recently used
+ * entries are evicted once more than {@code maxResident} are loaded. Dirty entries are written
+ * back before they are evicted; one that cannot be written stays resident. Pinned keys, and for UUID keys every online player, are never
+ * evicted, so the resident size follows concurrent players rather than every player who ever
+ * joined (it may exceed {@code maxResident} while more keys than that are pinned).
+ * <p>
+ * {@link #get(Object)} and {@link #create} are the lazy entry points; the other Map methods
+ * ({@code containsKey}, {@code keySet}, ...) only see resident entries. {@link #loadAll(Class)}
+ * does not read the folder, it only records the value class.
+ *
+ * @param <K> The key type (UUID for USER; UUID or String for YAML and CUSTOM)
+ * @param <V> The value type (YamlConfiguration for USER and YAML, DataCargo for CUSTOM)
+ */
+@DPPCoreVersion(since = "5.4.3")
+public class LazyDataContainer<K, V> extends DataContainer<K, V> {
+    private final LinkedHashMap<K, Boolean> accessOrder = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<K> pinned = new HashSet<>();
+    private final int maxResident;
+    private @Nullable Class<?> clazz;
+
+    /**
+     * @param plugin      The plugin owning the data.
+     * @param dataType    The type of data to manage (USER, YAML, or CUSTOM).
+     * @param clazz       The value class used for lazy loads (must implement DataCargo for CUSTOM).
+     * @param maxResident The number of entries kept in memory before eviction starts.
+     */
+    public LazyDataContainer(DPlugin plugin, DataType dataType, @Nullable Class<?> clazz, int maxResident) {
+        super(plugin, dataType);
+        this.clazz = clazz;
+        this.maxResident = Math.max(1, maxResident);
+    }
+
+    public LazyDataContainer(DPlugin plugin, DataType dataType, String path, @Nullable Class<?> clazz, int maxResident) {
+        super(plugin, dataType, path);
+        this.clazz = clazz;
+        this.maxResident = Math.max(1, maxResident);
+    }
+
+    public int getMaxResident() {
+        return maxResident;
+    }
+
+    /**
+     * Returns the entry, reading it from disk first if it is not resident.
+     *
+     * @return The value, or null if neither memory nor disk has it.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        V value = super.get(key);
+        if (value != null) {
+            accessOrder.get(key);
+            return value;
+        }
+        if (key == null || (getDataType() == DataType.CUSTOM && clazz == null) || !exists((K) key)) {
+            return null;
+        }
+        K k = (K) key;
+        load(k, clazz);
+        return super.get(k);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        V previous = super.put(key, value);
+        accessOrder.put(key, Boolean.TRUE);
+        evictIfNeeded(key);
+        return previous;
+    }
+
+    /**
+     * Entries read by any load path count towards the working set like entries that were put.
+     */
+    @Override
+    void putLoaded(K key, V value) {
+        super.putLoaded(key, value);
+        accessOrder.put(key, Boolean.TRUE);
+        evictIfNeeded(key);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        for (Map.Entry<? extends K, ? extends V> entry : m.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    void forget(Object key) {
+        accessOrder.remove(key);
+        super.forget(key);
+    }
+
+    @Override
+    public void clear() {
+        accessOrder.clear();
+        super.clear();
+    }
+
+    /**
+     * Loads the entry from disk if it exists there, so an existing entry is never replaced by a
+     * fresh instance; otherwise creates it.
+     */
+    @Nullable
+    @Override
+    public V create(@NotNull K key, @NotNull Class<V> clazz) {
+        get(key);
+        return super.create(key, clazz);
+    }
+
+    /**
+     * Does not read the folder; only records the value class used for later lazy loads.
+     */
+    @Override
+    public LazyDataContainer<K, V> loadAll(@Nullable Class<?> clazz) {
+        if (clazz != null) {
+            this.clazz = clazz;
+        }
+        return this;
+    }
+
+    /**
+     * Does not read the folder; only records the value class used for later lazy loads.
+     */
+    @Override
+    public CompletableFuture<DataContainer<K, V>> loadAllAsync(@Nullable Class<?> clazz, @NotNull Executor executor) {
+        loadAll(clazz);
+        return CompletableFuture.completedFuture(this);
+    }
+
+    /**
+     * Writes the entry back if it is dirty and drops it from memory. Pins are ignored. An entry
+     * that could not be written, or whose async write has not finished, stays resident so the
+     * change is not lost.
+     *
+     * @param key The key to unload.
+     */
+    public void unload(K key) {
+        if (!containsKey(key)) {
+            return;
+        }
+        if (isDirty(key)) {
+            save(key);
+        }
+        if (isDirty(key) || isWritePending(key)) {
+            return;
+        }
+        remove(key);
+    }
+
+    public void pin(K key) {
+        pinned.add(key);
+    }
+
+    public void unpin(K key) {
+        pinned.remove(key);
+    }
+
+    public Set<K> getPinned() {
+        return Collections.unmodifiableSet(pinned);
+    }
+
+    /**
+     * @return true if the key is explicitly pinned or is the UUID of an online player.
+     */
+    public boolean isPinned(K key) {
+        if (pinned.contains(key)) {
+            return true;
+        }
+        return key instanceof UUID && Bukkit.getPlayer((UUID) key) != null;
+    }
+
+    /**
+     * Evicts least recently used, unpinned entries until the resident size is back to the limit.
+     *
+     * @param keep The key that was just touched; it is never evicted by this call.
+     */
+    private void evictIfNeeded(K keep) {
+        int excess = size() - maxResident;
+        if (excess <= 0) {
+            return;
+        }
+        List<K> victims = new ArrayList<>(excess);
+        for (K key : accessOrder.keySet()) {
+            if (victims.size() >= excess) {
+                break;
+            }
+            if (!key.equals(keep) && !isPinned(key)) {
+                victims.add(key);
+            }
+        }
+        for (K key : victims) {
+            unload(key);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.darksoldier1404.dppc.data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * GZIP framing for stored payloads. A compressed payload starts with the GZIP magic
+ * ({@code 0x1f 0x8b}); a YAML dump never starts with a control character and a binary
+ * DataCargo starts with NUL, so readers detect compression from the first two bytes and
+ * compressed and plain entries can live side by side.
+ */
+final class PayloadCompression {
+    /**
+     * Threshold used when compression is enabled without an explicit size.
+     */
+    static final int DEFAULT_THRESHOLD = 16 * 1024;
+    static final int DISABLED = -1;
+
+    private PayloadCompression() {
+    }
+
+    static boolean isCompressed(byte[] bytes) {
+        return bytes.length >= 2 && bytes[0] == (byte) 0x1f && bytes[1] == (byte) 0x8b;
+    }
+
+    /**
+     * Compresses the payload if it is at least {@code threshold} bytes long and compression
+     * actually makes it smaller.
+     *
+     * @param threshold The minimum payload size, or a negative value to never compress.
+     * @return the payload to store.
+     */
+    static byte[] compress(byte[] payload, int threshold) throws IOException {
+        if (threshold < 0 || payload.length < threshold || isCompressed(payload)) {
+            return payload;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, payload.length / 4));
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes, 8192)) {
+            out.write(payload);
+        }
+        return bytes.size() < payload.length ? bytes.toByteArray() : payload;
+    }
+
+    /**
+     * @return the uncompressed payload; a payload without the GZIP magic is returned as is.
+     */
+    static byte[] decompress(byte[] bytes) throws IOException {
+        if (!isCompressed(bytes)) {
+            return bytes;
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes), 8192)) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.darksoldier1404.dppc.data;
+
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.UUID;
+
+/**
+ * Per-player data that {@link DataPreloader} reads while the player logs in.
+ *
+ * @param <S> The staged data handed from {@link #preload} to {@link #publish}.
+ */
+@DPPCoreVersion(since = "5.4.3")
+public interface PlayerPreloadable<S> {
+
+    /**
+     * Reads the player's data. Called on the async login thread, so it must not touch
+     * Bukkit state or the handler's in-memory data.
+     *
+     * @return The staged data, or null if nothing is stored for the player.
+     */
+    @Nullable
+    S preload(@NotNull UUID uuid);
+
+    /**
+     * Makes the staged data visible. Called on the main thread when the player joins.
+     *
+     * @param staged The value returned by {@link #preload}, or null if nothing was stored.
+     */
+    void publish(@NotNull UUID uuid, @Nullable S staged);
+}
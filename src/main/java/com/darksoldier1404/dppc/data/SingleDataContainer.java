@@ -3,12 +3,22 @@ package com.darksoldier1404.dppc.data;
 import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
 import com.darksoldier1404.dppc.api.logger.DLogManager;
 import com.darksoldier1404.dppc.api.logger.DLogNode;
-import com.darksoldier1404.dppc.utils.ConfigUtils;
+import com.darksoldier1404.dppc.data.storage.FileStorageBackend;
+import com.darksoldier1404.dppc.data.storage.StorageBackend;
+import org.bukkit.Bukkit;
+import org.bukkit.configuration.InvalidConfigurationException;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * A type-safe container for managing a single piece of data in a Bukkit plugin.
@@ -17,18 +27,25 @@ import java.util.UUID;
  * - USER: Key must be UUID, value must be YamlConfiguration.
  * - YAML: Key must be UUID or String, value must be YamlConfiguration.
  * - CUSTOM: Key must be UUID or String, value must implement DataCargo.
+ * <p>
+ * Like DataContainer, the entry is stored through a {@link StorageBackend}
+ * ({@link FileStorageBackend} by default).
  *
  * @param <K> The key type (UUID for USER; UUID or String for YAML and CUSTOM)
  * @param <V> The value type (YamlConfiguration for USER and YAML, DataCargo for CUSTOM)
  */
 @DPPCoreVersion(since = "5.3.0")
 public class SingleDataContainer<K, V> implements IDataHandler<K, V> {
+    private static final long PENDING_WAIT_SECONDS = 10L;
     private final DPlugin plugin;
     private final DataType dataType;
     private final DLogNode logger;
     private String path;
+    private StorageBackend backend;
+    private volatile int compressionThreshold = PayloadCompression.DISABLED;
     private K key;
     private V value;
+    private volatile CompletableFuture<Void> pending = CompletableFuture.completedFuture(null);
 
     /**
      * Constructs a SingleDataContainer with the specified plugin and data type.
@@ -41,6 +58,7 @@ public class SingleDataContainer<K, V> implements IDataHandler<K, V> {
         this.dataType = dataType;
         this.logger = plugin.getLog();
         this.path = dataType == DataType.USER ? "udata" : "data";
+        this.backend = new FileStorageBackend(plugin);
         this.key = null;
         this.value = null;
     }
@@ -57,6 +75,20 @@ public class SingleDataContainer<K, V> implements IDataHandler<K, V> {
         this.path = path != null ? path : this.path;
     }
 
+    /**
+     * Constructs a SingleDataContainer that stores its entry in the given backend.
+     *
+     * @param plugin   The JavaPlugin instance.
+     * @param dataType The type of data to manage (USER, YAML, or CUSTOM).
+     * @param path     The path (namespace) of the entry in the backend.
+     * @param backend  The storage backend.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public SingleDataContainer(DPlugin plugin, DataType dataType, String path, @NotNull StorageBackend backend) {
+        this(plugin, dataType, path);
+        this.backend = backend;
+    }
+
     @Override
     public JavaPlugin getPlugin() {
         return plugin;
@@ -77,6 +109,36 @@ public class SingleDataContainer<K, V> implements IDataHandler<K, V> {
         this.path = path != null ? path : (dataType == DataType.USER ? "udata" : "data");
     }
 
+    @DPPCoreVersion(since = "5.4.3")
+    public StorageBackend getBackend() {
+        return backend;
+    }
+
+    @DPPCoreVersion(since = "5.4.3")
+    public void setBackend(@NotNull StorageBackend backend) {
+        this.backend = backend;
+    }
+
+    /**
+     * @return the payload size from which the entry is stored GZIP-compressed, or -1 if
+     * compression is disabled.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public int getCompressionThreshold() {
+        return compressionThreshold;
+    }
+
+    /**
+     * Stores the entry GZIP-compressed once its payload reaches {@code thresholdBytes}; see
+     * {@link DataContainer#setCompression(int)}.
+     *
+     * @param thresholdBytes The minimum payload size to compress, or a negative value to disable.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public void setCompression(int thresholdBytes) {
+        this.compressionThreshold = thresholdBytes < 0 ? PayloadCompression.DISABLED : thresholdBytes;
+    }
+
     public K getKey() {
         return key;
     }
@@ -177,34 +239,111 @@ public class SingleDataContainer<K, V> implements IDataHandler<K, V> {
      * @throws IllegalArgumentException If the key or value is invalid or null.
      */
     public void save() {
+        PendingWrite write = snapshot();
+        if (write == null) {
+            return;
+        }
+        awaitPending();
+        try {
+            write.write();
+        } catch (IOException e) {
+            logger.warning("Failed to save data for key " + key + ": " + e.getMessage(), DLogManager.printDataContainerLogs);
+        }
+    }
+
+    /**
+     * {@link #saveAsync(Executor)} on the shared {@link DataIO} pool.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public CompletableFuture<Void> saveAsync() {
+        return saveAsync(DataIO.getExecutor());
+    }
+
+    /**
+     * Saves without blocking the calling (main) thread. The value is serialized into a snapshot
+     * right away, so it may be changed again while the snapshot is written. The write runs on
+     * {@code executor} after every async load or save of this container that is still running,
+     * never interleaved with one.
+     *
+     * @return A future completed on the main thread once the entry is written, or failed with
+     * the I/O error. It completes at once if there is nothing valid to save.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public CompletableFuture<Void> saveAsync(@NotNull Executor executor) {
+        PendingWrite write = snapshot();
+        if (write == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return onMainThread(submit(write, executor));
+    }
+
+    @DPPCoreVersion(since = "5.4.3")
+    @Override
+    public CompletableFuture<Void> saveAllAsync() {
+        return saveAsync();
+    }
+
+    /**
+     * Writes on the executor and completes there, since the main thread is waiting for the
+     * shutdown flush.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    @Override
+    public CompletableFuture<Void> flushAsync(Executor executor) {
+        PendingWrite write = snapshot();
+        if (write == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return submit(write, executor);
+    }
+
+    private CompletableFuture<Void> submit(PendingWrite write, Executor executor) {
+        return enqueue(() -> {
+            try {
+                write.write();
+                return null;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Serializes the current entry on the calling thread.
+     *
+     * @return the write, or null if the key or value is missing or invalid (a warning is logged).
+     */
+    @Nullable
+    private PendingWrite snapshot() {
         if (key == null || value == null) {
             logger.warning("Cannot save: Key or value is null", DLogManager.printDataContainerLogs);
-            return;
+            return null;
         }
         String fileName;
         try {
             fileName = getFileName(key);
         } catch (IllegalArgumentException e) {
             logger.warning(e.getMessage(), DLogManager.printDataContainerLogs);
-            return;
+            return null;
         }
         try {
             validateValue(value, key);
         } catch (IllegalArgumentException e) {
             logger.warning(e.getMessage(), DLogManager.printDataContainerLogs);
-            return;
+            return null;
         }
-        String savePath = path;
+        YamlConfiguration data;
         if (dataType == DataType.CUSTOM) {
             Object serialized = ((DataCargo) value).serialize();
             if (!(serialized instanceof YamlConfiguration)) {
                 logger.warning("Serialized data is not a YamlConfiguration for key: " + key, DLogManager.printDataContainerLogs);
-                return;
+                return null;
             }
-            ConfigUtils.saveCustomData(plugin, (YamlConfiguration) serialized, fileName, savePath);
+            data = (YamlConfiguration) serialized;
         } else {
-            ConfigUtils.saveCustomData(plugin, (YamlConfiguration) value, fileName, savePath);
+            data = (YamlConfiguration) value;
         }
+        return new PendingWrite(backend, path, fileName, DataContainer.encode(data), compressionThreshold);
     }
 
     /**
@@ -238,34 +377,130 @@ public class SingleDataContainer<K, V> implements IDataHandler<K, V> {
             logger.warning(e.getMessage(), DLogManager.printDataContainerLogs);
             return this;
         }
+        awaitPending();
+        this.value = read(backend, path, fileName, key, clazz);
+        return this;
+    }
+
+    /**
+     * {@link #loadAsync(Object, Class, Executor)} on the shared {@link DataIO} pool.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public CompletableFuture<SingleDataContainer<K, V>> loadAsync(K key, Class<?> clazz) {
+        return loadAsync(key, clazz, DataIO.getExecutor());
+    }
+
+    /**
+     * Reads and deserializes the entry on {@code executor}, after every async load or save of
+     * this container that is still running, and sets the key and value on the main thread.
+     * Until then the container keeps its current key and value.
+     *
+     * @param key   The key to load.
+     * @param clazz The expected class of the value (must implement DataCargo for CUSTOM).
+     * @return A future completed on the main thread once the key and value are set; the value is
+     * null if nothing could be loaded, as with {@link #load(Object, Class)}.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public CompletableFuture<SingleDataContainer<K, V>> loadAsync(K key, Class<?> clazz, @NotNull Executor executor) {
+        String fileName;
+        try {
+            fileName = getFileName(key);
+        } catch (IllegalArgumentException e) {
+            logger.warning(e.getMessage(), DLogManager.printDataContainerLogs);
+            this.key = key;
+            return CompletableFuture.completedFuture(this);
+        }
+        StorageBackend source = backend;
         String loadPath = path;
-        YamlConfiguration data = ConfigUtils.loadCustomData(plugin, fileName, loadPath);
-        if (data == null) {
-            this.value = null;
+        return onMainThread(enqueue(() -> read(source, loadPath, fileName, key, clazz), executor)).thenApply(loadedValue -> {
+            // Runs on the main thread: onMainThread completes there.
+            this.key = key;
+            this.value = loadedValue;
             return this;
+        });
+    }
+
+    /**
+     * Reads and deserializes the stored entry. Failures are logged.
+     *
+     * @return the value, or null if it does not exist or cannot be loaded.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private V read(StorageBackend source, String loadPath, String fileName, K key, Class<?> clazz) {
+        YamlConfiguration data;
+        try {
+            byte[] bytes = source.get(loadPath, fileName);
+            data = bytes == null ? null : DataContainer.decode(PayloadCompression.decompress(bytes));
+        } catch (IOException | InvalidConfigurationException e) {
+            logger.warning("Failed to read data for key " + key + ": " + e.getMessage(), DLogManager.printDataContainerLogs);
+            data = null;
         }
-        if (dataType == DataType.CUSTOM) {
-            if (!DataCargo.class.isAssignableFrom(clazz)) {
-                logger.warning("Class " + clazz.getSimpleName() + " does not implement DataCargo for key " + key, DLogManager.printDataContainerLogs);
-                return this;
+        if (data == null) {
+            return null;
+        }
+        if (dataType != DataType.CUSTOM) {
+            return (V) data;
+        }
+        if (!DataCargo.class.isAssignableFrom(clazz)) {
+            logger.warning("Class " + clazz.getSimpleName() + " does not implement DataCargo for key " + key, DLogManager.printDataContainerLogs);
+            return null;
+        }
+        try {
+            DataCargo dataCargo = (DataCargo) clazz.getDeclaredConstructor().newInstance();
+            Object loadedValue = dataCargo.deserialize(data);
+            if (clazz.isInstance(loadedValue)) {
+                return (V) loadedValue;
             }
-            try {
-                DataCargo dataCargo = (DataCargo) clazz.getDeclaredConstructor().newInstance();
-                Object loadedValue = dataCargo.deserialize(data);
-                if (clazz.isInstance(loadedValue)) {
-                    this.value = (V) loadedValue;
+            logger.warning("Type mismatch on load for key " + key + ": Value not compatible with " + clazz.getSimpleName(), DLogManager.printDataContainerLogs);
+        } catch (Exception e) {
+            logger.warning("Failed to load CUSTOM data for key " + key + " in " + clazz.getSimpleName() + ": " + e.getMessage(), DLogManager.printDataContainerLogs);
+        }
+        return null;
+    }
+
+    /**
+     * Runs the I/O step on the executor once the previous async operation of this container is
+     * done, so loads and saves never interleave.
+     */
+    private <T> CompletableFuture<T> enqueue(Supplier<T> io, Executor executor) {
+        CompletableFuture<T> step = pending.thenApplyAsync(ignored -> io.get(), executor);
+        pending = step.handle((ignored, error) -> null);
+        return step;
+    }
+
+    /**
+     * @return a future that completes like {@code future}, but on the main thread while the
+     * plugin is enabled (during shutdown the main thread is waiting, so it completes directly).
+     */
+    private <T> CompletableFuture<T> onMainThread(CompletableFuture<T> future) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        future.whenComplete((completed, error) -> {
+            Runnable complete = () -> {
+                if (error != null) {
+                    result.completeExceptionally(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
                 } else {
-                    logger.warning("Type mismatch on load for key " + key + ": Value not compatible with " + clazz.getSimpleName(), DLogManager.printDataContainerLogs);
-                    this.value = null;
+                    result.complete(completed);
                 }
-            } catch (Exception e) {
-                logger.warning("Failed to load CUSTOM data for key " + key + " in " + clazz.getSimpleName() + ": " + e.getMessage(), DLogManager.printDataContainerLogs);
-                this.value = null;
+            };
+            if (plugin.isEnabled() && !Bukkit.isPrimaryThread()) {
+                Bukkit.getScheduler().runTask(plugin, complete);
+            } else {
+                complete.run();
             }
-        } else {
-            this.value = (V) data;
+        });
+        return result;
+    }
+
+    /**
+     * Waits for a running async operation so a synchronous load or save never races with it.
+     */
+    private void awaitPending() {
+        try {
+            pending.get(PENDING_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            logger.warning("Timed out waiting for pending operation of '" + path + "': " + e.getMessage(), DLogManager.printDataContainerLogs);
         }
-        return this;
     }
 
     /**
@@ -299,4 +534,27 @@ public class SingleDataContainer<K, V> implements IDataHandler<K, V> {
         }
         return this;
     }
-}
\ No newline at end of file
+
+    /**
+     * A serialized entry, ready to be written from any thread.
+     */
+    private static final class PendingWrite {
+        private final StorageBackend target;
+        private final String path;
+        private final String fileName;
+        private final byte[] payload;
+        private final int compressionThreshold;
+
+        private PendingWrite(StorageBackend target, String path, String fileName, byte[] payload, int compressionThreshold) {
+            this.target = target;
+            this.path = path;
+            this.fileName = fileName;
+            this.payload = payload;
+            this.compressionThreshold = compressionThreshold;
+        }
+
+        private void write() throws IOException {
+            target.put(path, fileName, PayloadCompression.compress(payload, compressionThreshold));
+        }
+    }
+}
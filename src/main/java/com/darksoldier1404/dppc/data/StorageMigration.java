@@ -0,0 +1,489 @@
+package com.darksoldier1404.dppc.data;
+
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
+import com.darksoldier1404.dppc.data.storage.FileStorageBackend;
+import com.darksoldier1404.dppc.data.storage.SqliteStorageBackend;
+import com.darksoldier1404.dppc.data.storage.StorageBackend;
+import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Copies every entry of one data path from a source {@link StorageBackend} to a target backend,
+ * e.g. a {@code udata} folder of YAML files into SQLite. A file backend's {@code .bin} files
+ * ({@link BinaryDataCargo}) are migrated as well; where a key has both, the binary entry is the
+ * current one and the YAML file is ignored. Binary payloads go to the target's {@code .bin}
+ * files, or into the same table for SQLite.
+ * <p>
+ * Keys are streamed from the source, so the path is never held in memory as a whole. Each batch
+ * of {@value #BATCH_SIZE} entries is read and checked (YAML must parse) in parallel on the
+ * {@link DataIO} pool and then written with a single {@link StorageBackend#batch} call.
+ * Payloads are copied unchanged. After every batch the migrated keys and the CRC32 of their
+ * payloads are appended to a checkpoint file ({@code <dataFolder>/.migrate/}), so a stopped or
+ * failed migration resumes where it left off. At the end every migrated entry is read back from
+ * the target and compared with its checksum, and the number of entries is compared with the
+ * source; the checkpoint is deleted once this verification passes.
+ * <p>
+ * The source is not changed. The plugin should not save the path while it is migrated; an entry
+ * saved after it was copied is copied again only by a new migration (after the checkpoint was
+ * deleted). Moving files between the flat and the sharded layout of one folder is what
+ * {@link FileStorageBackend#reshard(String)} does and is rejected here.
+ */
+@DPPCoreVersion(since = "5.4.3")
+public class StorageMigration {
+    public static final int BATCH_SIZE = 256;
+    public static final String CHECKPOINT_FOLDER = ".migrate";
+    private static final long PROGRESS_INTERVAL_MILLIS = 2000L;
+    private static final Set<File> running = ConcurrentHashMap.newKeySet();
+
+    private final String path;
+    private final StorageBackend source;
+    private final StorageBackend target;
+    private final StorageBackend sourceBinary;
+    private final StorageBackend targetBinary;
+    private final File checkpoint;
+    private final AtomicLong total = new AtomicLong(-1);
+    private final AtomicLong migrated = new AtomicLong();
+    private final AtomicLong resumed = new AtomicLong();
+    private final Map<String, String> failed = new ConcurrentHashMap<>();
+    private volatile long startNanos;
+    private volatile boolean cancelled;
+    private @Nullable Consumer<Progress> listener;
+
+    /**
+     * The storage layouts the {@code /dppc migrate} command can move data between.
+     */
+    public enum Format {
+        /** One file per key, {@code <path>/<key>.yml} or {@code <path>/<key>.bin}. */
+        FILE,
+        /** One file per key in one level of shard folders, see {@link FileStorageBackend#withShardDepth(int)}. */
+        SHARDED,
+        /** The {@link SqliteStorageBackend} database {@code data.db}. */
+        SQLITE;
+
+        public StorageBackend open(@NotNull JavaPlugin plugin) {
+            switch (this) {
+                case SHARDED:
+                    return new FileStorageBackend(plugin, FileStorageBackend.YAML_EXTENSION, 1);
+                case SQLITE:
+                    return new SqliteStorageBackend(plugin);
+                default:
+                    return new FileStorageBackend(plugin);
+            }
+        }
+
+        @Nullable
+        public static Format of(@NotNull String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * @param plugin The plugin owning the data; the checkpoint goes to its data folder.
+     * @throws IllegalArgumentException If source and target are the same folder.
+     */
+    public StorageMigration(@NotNull JavaPlugin plugin, @NotNull String path, @NotNull StorageBackend source, @NotNull StorageBackend target) {
+        if (source == target || (source instanceof FileStorageBackend && target instanceof FileStorageBackend
+                && ((FileStorageBackend) source).getFolder(path).equals(((FileStorageBackend) target).getFolder(path)))) {
+            throw new IllegalArgumentException("Source and target of '" + path + "' are the same storage; use FileStorageBackend.reshard to change the file layout");
+        }
+        this.path = path;
+        this.source = source;
+        this.target = target;
+        this.sourceBinary = DataContainer.binaryBackendFor(source);
+        this.targetBinary = DataContainer.binaryBackendFor(target);
+        String name = path.replace('/', '_').replace('\\', '_') + "-" + source.getName() + "-" + target.getName() + ".checkpoint";
+        this.checkpoint = new File(new File(plugin.getDataFolder(), CHECKPOINT_FOLDER), name);
+    }
+
+    /**
+     * Sets the listener called from the migration thread every few seconds while it runs.
+     */
+    public StorageMigration onProgress(@Nullable Consumer<Progress> listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    public File getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Starts the migration on its own thread; only the reads are spread over the I/O pool.
+     *
+     * @return A future completed with the result, or failed if the source or target cannot be
+     * read or written (the checkpoint is kept, a new migration resumes from it).
+     * @throws IllegalStateException If the same migration is already running.
+     */
+    public CompletableFuture<Result> start() {
+        if (!running.add(checkpoint.getAbsoluteFile())) {
+            throw new IllegalStateException("A migration of '" + path + "' to " + target.getName() + " is already running");
+        }
+        CompletableFuture<Result> future = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                future.complete(run());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                running.remove(checkpoint.getAbsoluteFile());
+            }
+        }, "DPP-Core-Migrate-" + path);
+        thread.setDaemon(true);
+        thread.start();
+        return future;
+    }
+
+    /**
+     * Stops the migration after the current batch. The checkpoint is kept.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public Progress getProgress() {
+        long elapsed = startNanos == 0 ? 0 : (System.nanoTime() - startNanos) / 1_000_000L;
+        return new Progress(total.get(), migrated.get(), resumed.get(), failed.size(), elapsed);
+    }
+
+    private Result run() throws IOException {
+        startNanos = System.nanoTime();
+        Map<String, Long> done = readCheckpoint();
+        long unmigrated = retainSourceKeys(done);
+        resumed.set(done.size());
+        total.set(unmigrated + done.size());
+        long lastReport = System.nanoTime();
+        File dir = checkpoint.getParentFile();
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        try (Stream<String> keys = DataContainer.streamKeys(source, sourceBinary, path);
+             BufferedWriter writer = Files.newBufferedWriter(checkpoint.toPath(), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            Iterator<String> it = keys.iterator();
+            List<String> batch = new ArrayList<>(BATCH_SIZE);
+            while (!cancelled && it.hasNext()) {
+                String key = it.next();
+                if (done.containsKey(key)) {
+                    continue;
+                }
+                batch.add(key);
+                if (batch.size() == BATCH_SIZE) {
+                    migrateBatch(batch, done, writer);
+                    batch.clear();
+                    if (listener != null && System.nanoTime() - lastReport >= PROGRESS_INTERVAL_MILLIS * 1_000_000L) {
+                        lastReport = System.nanoTime();
+                        listener.accept(getProgress());
+                    }
+                }
+            }
+            if (!batch.isEmpty() && !cancelled) {
+                migrateBatch(batch, done, writer);
+            }
+        }
+        if (cancelled) {
+            return new Result(getProgress(), failed, Collections.emptyList(), -1, true);
+        }
+        return verify(done);
+    }
+
+    private void migrateBatch(List<String> batch, Map<String, Long> done, BufferedWriter writer) throws IOException {
+        List<CompletableFuture<SourceEntry>> reads = new ArrayList<>(batch.size());
+        for (String key : batch) {
+            reads.add(CompletableFuture.supplyAsync(() -> read(key), DataIO.getExecutor()));
+        }
+        Map<String, byte[]> payloads = new LinkedHashMap<>();
+        Map<String, byte[]> yaml = new LinkedHashMap<>();
+        Map<String, byte[]> binary = new LinkedHashMap<>();
+        for (int i = 0; i < batch.size(); i++) {
+            SourceEntry entry;
+            try {
+                entry = reads.get(i).join();
+            } catch (CompletionException e) {
+                failed.put(batch.get(i), String.valueOf(e.getCause().getMessage()));
+                continue;
+            }
+            if (entry != null) {
+                payloads.put(batch.get(i), entry.payload);
+                (entry.binary ? binary : yaml).put(batch.get(i), entry.payload);
+            }
+        }
+        if (payloads.isEmpty()) {
+            return;
+        }
+        if (targetBinary == target) {
+            target.batch(path, payloads);
+        } else {
+            if (!yaml.isEmpty()) {
+                target.batch(path, yaml);
+            }
+            if (!binary.isEmpty()) {
+                targetBinary.batch(path, binary);
+            }
+        }
+        for (Map.Entry<String, byte[]> entry : payloads.entrySet()) {
+            long checksum = checksum(entry.getValue());
+            done.put(entry.getKey(), checksum);
+            writer.write(entry.getKey() + "\t" + Long.toHexString(checksum));
+            writer.newLine();
+        }
+        writer.flush();
+        migrated.addAndGet(payloads.size());
+    }
+
+    /**
+     * Reads and checks one source entry on the I/O pool.
+     *
+     * @return the entry, or null if it disappeared since it was listed.
+     */
+    @Nullable
+    private SourceEntry read(String key) {
+        try {
+            byte[] payload = get(sourceBinary, source, key);
+            if (payload == null) {
+                return null;
+            }
+            // Copied as stored; a compressed entry is only unpacked to be checked.
+            byte[] plain = PayloadCompression.decompress(payload);
+            boolean binary = BinaryCargoCodec.isBinary(plain);
+            if (!binary) {
+                new YamlConfiguration().loadFromString(new String(plain, StandardCharsets.UTF_8));
+            }
+            return new SourceEntry(payload, binary);
+        } catch (IOException | InvalidConfigurationException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * @return the binary entry of the key, or its YAML entry if it has none.
+     */
+    @Nullable
+    private byte[] get(StorageBackend binary, StorageBackend yaml, String key) throws IOException {
+        byte[] payload = binary != yaml ? binary.get(path, key) : null;
+        return payload != null ? payload : yaml.get(path, key);
+    }
+
+    private Result verify(Map<String, Long> done) throws IOException {
+        long missing = retainSourceKeys(done);
+        List<String> mismatched = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : done.entrySet()) {
+            byte[] stored = get(targetBinary, target, entry.getKey());
+            if (stored == null || checksum(stored) != entry.getValue()) {
+                mismatched.add(entry.getKey());
+            }
+        }
+        Result result = new Result(getProgress(), failed, mismatched, missing, false);
+        if (result.isVerified()) {
+            Files.deleteIfExists(checkpoint.toPath());
+        }
+        return result;
+    }
+
+    /**
+     * Drops the checkpointed keys that were deleted from the source since they were copied.
+     *
+     * @return the number of source keys that are not checkpointed.
+     */
+    private long retainSourceKeys(Map<String, Long> done) throws IOException {
+        Set<String> present = new HashSet<>();
+        long unmigrated = 0;
+        try (Stream<String> keys = DataContainer.streamKeys(source, sourceBinary, path)) {
+            Iterator<String> it = keys.iterator();
+            while (it.hasNext()) {
+                String key = it.next();
+                if (done.containsKey(key)) {
+                    present.add(key);
+                } else {
+                    unmigrated++;
+                }
+            }
+        }
+        done.keySet().retainAll(present);
+        return unmigrated;
+    }
+
+    private Map<String, Long> readCheckpoint() throws IOException {
+        Map<String, Long> done = new HashMap<>();
+        if (!checkpoint.isFile()) {
+            return done;
+        }
+        for (String line : Files.readAllLines(checkpoint.toPath(), StandardCharsets.UTF_8)) {
+            int tab = line.lastIndexOf('\t');
+            if (tab <= 0) {
+                continue;
+            }
+            try {
+                done.put(line.substring(0, tab), Long.parseLong(line.substring(tab + 1), 16));
+            } catch (NumberFormatException ignored) {
+                // Torn last line of a crash; the entry is migrated again.
+            }
+        }
+        return done;
+    }
+
+    private static long checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    private static final class SourceEntry {
+        private final byte[] payload;
+        private final boolean binary;
+
+        private SourceEntry(byte[] payload, boolean binary) {
+            this.payload = payload;
+            this.binary = binary;
+        }
+    }
+
+    /**
+     * A snapshot of a running migration.
+     */
+    public static final class Progress {
+        private final long total;
+        private final long migrated;
+        private final long resumed;
+        private final int failed;
+        private final long elapsedMillis;
+
+        private Progress(long total, long migrated, long resumed, int failed, long elapsedMillis) {
+            this.total = total;
+            this.migrated = migrated;
+            this.resumed = resumed;
+            this.failed = failed;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        /**
+         * @return the number of source entries, or -1 while they are still being counted.
+         */
+        public long getTotal() {
+            return total;
+        }
+
+        /**
+         * @return the entries copied by this run.
+         */
+        public long getMigrated() {
+            return migrated;
+        }
+
+        /**
+         * @return the entries already copied by an earlier run, taken from the checkpoint.
+         */
+        public long getResumed() {
+            return resumed;
+        }
+
+        public int getFailed() {
+            return failed;
+        }
+
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        public double getEntriesPerSecond() {
+            return elapsedMillis == 0 ? 0 : migrated * 1000.0 / elapsedMillis;
+        }
+
+        /**
+         * @return the estimated time left, or -1 if it is not known yet.
+         */
+        public long getEtaMillis() {
+            double rate = getEntriesPerSecond();
+            if (total < 0 || rate <= 0) {
+                return -1;
+            }
+            long left = Math.max(0, total - resumed - migrated - failed);
+            return (long) (left / rate * 1000);
+        }
+    }
+
+    /**
+     * The outcome of a migration.
+     */
+    public static final class Result {
+        private final Progress progress;
+        private final Map<String, String> failed;
+        private final List<String> mismatched;
+        private final long missing;
+        private final boolean cancelled;
+
+        private Result(Progress progress, Map<String, String> failed, List<String> mismatched, long missing, boolean cancelled) {
+            this.progress = progress;
+            this.failed = Collections.unmodifiableMap(new HashMap<>(failed));
+            this.mismatched = Collections.unmodifiableList(mismatched);
+            this.missing = missing;
+            this.cancelled = cancelled;
+        }
+
+        public Progress getProgress() {
+            return progress;
+        }
+
+        /**
+         * @return the keys that could not be read or parsed, with the reason.
+         */
+        public Map<String, String> getFailed() {
+            return failed;
+        }
+
+        /**
+         * @return the keys whose payload in the target differs from what was copied.
+         */
+        public List<String> getMismatched() {
+            return mismatched;
+        }
+
+        /**
+         * @return how many more entries the source has than were migrated (entries added
+         * meanwhile or failed ones), or -1 if the migration was cancelled.
+         */
+        public long getMissing() {
+            return missing;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * @return true if every source entry is in the target with the same checksum.
+         */
+        public boolean isVerified() {
+            return !cancelled && failed.isEmpty() && mismatched.isEmpty() && missing == 0;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.darksoldier1404.dppc.data;
+
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.configuration.serialization.ConfigurationSerializable;
+import org.bukkit.configuration.serialization.ConfigurationSerialization;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deep copies of YamlConfiguration values, so a live document can be dumped off the main thread.
+ * <p>
+ * Sections, lists and maps are copied. ConfigurationSerializable values are replaced by their
+ * serialized map with the {@code ==} type key, which SnakeYAML dumps exactly like the object.
+ * Other values (strings, numbers, booleans) are immutable and shared.
+ */
+final class YamlCopy {
+
+    private YamlCopy() {
+    }
+
+    static YamlConfiguration of(YamlConfiguration source) {
+        YamlConfiguration copy = new YamlConfiguration();
+        copy.options().setHeader(source.options().getHeader());
+        copySection(source, copy);
+        return copy;
+    }
+
+    private static void copySection(ConfigurationSection from, ConfigurationSection to) {
+        for (Map.Entry<String, Object> entry : from.getValues(false).entrySet()) {
+            String key = entry.getKey();
+            Object value = entry.getValue();
+            if (value instanceof ConfigurationSection) {
+                copySection((ConfigurationSection) value, to.createSection(key));
+            } else {
+                to.set(key, copyValue(value));
+            }
+            to.setComments(key, from.getComments(key));
+            to.setInlineComments(key, from.getInlineComments(key));
+        }
+    }
+
+    private static Object copyValue(Object value) {
+        if (value instanceof List) {
+            List<Object> list = new ArrayList<>(((List<?>) value).size());
+            for (Object element : (List<?>) value) {
+                list.add(copyValue(element));
+            }
+            return list;
+        }
+        if (value instanceof Map) {
+            return copyMap((Map<?, ?>) value);
+        }
+        if (value instanceof ConfigurationSection) {
+            return copyMap(((ConfigurationSection) value).getValues(false));
+        }
+        if (value instanceof ConfigurationSerializable) {
+            Map<Object, Object> map = new LinkedHashMap<>();
+            map.put(ConfigurationSerialization.SERIALIZED_TYPE_KEY, ConfigurationSerialization.getAlias(((ConfigurationSerializable) value).getClass()));
+            map.putAll(copyMap(((ConfigurationSerializable) value).serialize()));
+            return map;
+        }
+        return value;
+    }
+
+    private static Map<Object, Object> copyMap(Map<?, ?> map) {
+        Map<Object, Object> copy = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            copy.put(entry.getKey(), copyValue(entry.getValue()));
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,589 @@
+package com.darksoldier1404.dppc.data.storage;
+
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
+import com.darksoldier1404.dppc.api.logger.DLogManager;
+import com.darksoldier1404.dppc.data.DPlugin;
+import com.darksoldier1404.dppc.data.DataIO;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Per-plugin append-only write-ahead journal in {@code <dataFolder>/.journal/}.
+ * <p>
+ * Writes through a {@link JournalStorageBackend} are appended as checksummed records to the
+ * current segment file instead of rewriting the entry file. A background thread forces the
+ * segment to disk once per commit window ({@link #setCommitIntervalMillis}, default 10 ms) or
+ * once {@link #setCommitRecords} records are waiting, whichever comes first; a write returns
+ * when its record is durable, so a burst of saves costs a few sequential appends and fsyncs.
+ * Journaled values are served from memory until they are compacted into the wrapped backends on
+ * the {@link DataIO} pool once the segment grows past {@link #setCompactBytes} or the journal
+ * has been idle for {@link #setCompactIntervalMillis}.
+ * <p>
+ * {@link #open()} replays the segments left by a crash or an unclean stop (a torn last record is
+ * ignored) and compacts them. Records of a backend that is not registered yet are carried over
+ * into the next segment until one is.
+ */
+@DPPCoreVersion(since = "5.4.3")
+public final class DataJournal {
+    public static final String FOLDER = ".journal";
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final int MAX_RECORD = 64 * 1024 * 1024;
+    static final byte[] TOMBSTONE = new byte[0];
+    private static final Map<String, DataJournal> journals = new ConcurrentHashMap<>();
+
+    private final DPlugin plugin;
+    private final File folder;
+    private final Object lock = new Object();
+    private final ReentrantLock compactLock = new ReentrantLock();
+    private final Map<String, StorageBackend> targets = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, byte[]>> overlay = new ConcurrentHashMap<>();
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private volatile long commitIntervalMillis = 10L;
+    private volatile int commitRecords = 256;
+    private volatile long compactBytes = 4L * 1024 * 1024;
+    private volatile long compactIntervalMillis = 30_000L;
+    private FileChannel channel;
+    private long segmentId;
+    private long segmentBytes;
+    private long appended;
+    // Appends up to this sequence are settled: forced to disk, or failed with their force.
+    private long durable;
+    private long lastAppend;
+    private final ArrayDeque<Commit> waiting = new ArrayDeque<>();
+    private Thread committer;
+    private boolean open;
+
+    DataJournal(DPlugin plugin, File folder) {
+        this.plugin = plugin;
+        this.folder = folder;
+    }
+
+    /**
+     * @return the journal of the plugin's data folder, created on first use.
+     */
+    public static DataJournal of(@NotNull DPlugin plugin) {
+        File folder = new File(plugin.getDataFolder(), FOLDER);
+        return journals.computeIfAbsent(folder.getAbsolutePath(), ignored -> new DataJournal(plugin, folder));
+    }
+
+    /**
+     * Closes every journal, compacting what they hold. Called by DPP-Core on disable.
+     */
+    public static void closeAll() {
+        for (DataJournal journal : journals.values()) {
+            journal.close();
+        }
+        journals.clear();
+    }
+
+    public File getFolder() {
+        return folder;
+    }
+
+    public void setCommitIntervalMillis(long commitIntervalMillis) {
+        this.commitIntervalMillis = Math.max(0L, commitIntervalMillis);
+    }
+
+    public void setCommitRecords(int commitRecords) {
+        this.commitRecords = Math.max(1, commitRecords);
+    }
+
+    public void setCompactBytes(long compactBytes) {
+        this.compactBytes = Math.max(1L, compactBytes);
+    }
+
+    public void setCompactIntervalMillis(long compactIntervalMillis) {
+        this.compactIntervalMillis = Math.max(1L, compactIntervalMillis);
+    }
+
+    /**
+     * @return a backend that journals the writes for the delegate. Views of delegates with the
+     * same {@link #targetId} share their records.
+     */
+    public JournalStorageBackend backend(@NotNull StorageBackend delegate) {
+        if (delegate instanceof JournalStorageBackend) {
+            return (JournalStorageBackend) delegate;
+        }
+        String target = targetId(delegate);
+        targets.put(target, durable(delegate));
+        return new JournalStorageBackend(this, target, delegate);
+    }
+
+    /**
+     * @return the backend compactions write to; a file backend is forced to disk, since the
+     * segments holding the values are deleted right after.
+     */
+    private static StorageBackend durable(StorageBackend delegate) {
+        if (delegate instanceof FileStorageBackend && !((FileStorageBackend) delegate).isFsync()) {
+            FileStorageBackend files = ((FileStorageBackend) delegate).withShardDepth(((FileStorageBackend) delegate).getShardDepth());
+            files.setFsync(true);
+            return files;
+        }
+        return delegate;
+    }
+
+    /**
+     * @return the name under which the records of the backend are journaled: the storage the
+     * backend writes to, so two backends share records only if they write the same files.
+     */
+    static String targetId(StorageBackend backend) {
+        if (backend instanceof FileStorageBackend) {
+            FileStorageBackend files = (FileStorageBackend) backend;
+            return backend.getName() + ':' + files.getFolder("").getAbsolutePath() + ':' + files.getShardDepth() + files.getExtension();
+        }
+        if (backend instanceof SqliteStorageBackend) {
+            return backend.getName() + ':' + ((SqliteStorageBackend) backend).getFile().getAbsolutePath();
+        }
+        return backend.getName();
+    }
+
+    /**
+     * @return the number of journaled values not yet compacted.
+     */
+    public int getPendingCount() {
+        int count = 0;
+        for (Map<String, byte[]> entries : overlay.values()) {
+            count += entries.size();
+        }
+        return count;
+    }
+
+    /**
+     * Replays the segments on disk and starts the commit thread. Called by the first write or
+     * read; call it on enable to recover right away.
+     */
+    public void open() throws IOException {
+        List<File> replayed;
+        synchronized (lock) {
+            if (open) {
+                return;
+            }
+            if (!folder.exists()) {
+                folder.mkdirs();
+            }
+            replayed = segments();
+            for (File segment : replayed) {
+                replay(segment);
+                segmentId = Math.max(segmentId, segmentIdOf(segment));
+            }
+            segmentId++;
+            channel = openSegment(segmentId);
+            segmentBytes = 0;
+            open = true;
+            committer = new Thread(this::commitLoop, "DPP-Core-Journal-" + plugin.getName());
+            committer.setDaemon(true);
+            committer.start();
+        }
+        if (!replayed.isEmpty()) {
+            plugin.getLog().info("Replayed " + replayed.size() + " journal segment(s) of " + plugin.getName(), DLogManager.printDataContainerLogs);
+            compact();
+        }
+    }
+
+    @Nullable
+    byte[] read(String target, String path, String key) throws IOException {
+        open();
+        Map<String, byte[]> entries = overlay.get(overlayKey(target, path));
+        return entries == null ? null : entries.get(key);
+    }
+
+    Collection<Map.Entry<String, byte[]>> pending(String target, String path) {
+        Map<String, byte[]> entries = overlay.get(overlayKey(target, path));
+        return entries == null ? new ArrayList<>() : new ArrayList<>(entries.entrySet());
+    }
+
+    /**
+     * Appends the records and waits until they are durable.
+     *
+     * @param entries The values by key; a null value deletes the key.
+     * @throws IOException If forcing these records to disk failed. Later appends are not affected.
+     */
+    void append(String target, String path, Map<String, byte[]> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        open();
+        synchronized (lock) {
+            Map<String, byte[]> view = overlay.computeIfAbsent(overlayKey(target, path), ignored -> new ConcurrentHashMap<>());
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                write(encode(target, path, entry.getKey(), entry.getValue()));
+                view.put(entry.getKey(), entry.getValue() == null ? TOMBSTONE : entry.getValue());
+            }
+            Commit commit = new Commit(++appended);
+            waiting.add(commit);
+            lastAppend = System.currentTimeMillis();
+            lock.notifyAll();
+            try {
+                while (!commit.done) {
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the journal commit");
+            }
+            if (commit.failure != null) {
+                throw new IOException("Journal commit failed", commit.failure);
+            }
+        }
+    }
+
+    /**
+     * Writes every journaled value into its backend and drops the segments that held them.
+     * Values written meanwhile stay journaled for the next compaction. Compactions run one at
+     * a time; a call waits for the one in flight.
+     */
+    public void compact() throws IOException {
+        compactLock.lock();
+        try {
+            compactLocked();
+        } finally {
+            compactLock.unlock();
+        }
+    }
+
+    private void compactLocked() throws IOException {
+        List<File> obsolete;
+        Map<String, Map<String, byte[]>> snapshot = new HashMap<>();
+        synchronized (lock) {
+            if (!open) {
+                return;
+            }
+            force(channel);
+            settle(appended, null);
+            channel.close();
+            obsolete = segments();
+            segmentId++;
+            channel = openSegment(segmentId);
+            segmentBytes = 0;
+            for (Map.Entry<String, Map<String, byte[]>> entry : overlay.entrySet()) {
+                if (!entry.getValue().isEmpty()) {
+                    snapshot.put(entry.getKey(), new HashMap<>(entry.getValue()));
+                }
+            }
+            for (Map.Entry<String, Map<String, byte[]>> entry : snapshot.entrySet()) {
+                String target = targetOf(entry.getKey());
+                if (!targets.containsKey(target)) {
+                    String path = pathOf(entry.getKey());
+                    for (Map.Entry<String, byte[]> value : entry.getValue().entrySet()) {
+                        write(encode(target, path, value.getKey(), value.getValue() == TOMBSTONE ? null : value.getValue()));
+                    }
+                }
+            }
+            force(channel);
+        }
+        IOException error = null;
+        for (Map.Entry<String, Map<String, byte[]>> entry : snapshot.entrySet()) {
+            StorageBackend delegate = targets.get(targetOf(entry.getKey()));
+            if (delegate == null) {
+                continue;
+            }
+            try {
+                apply(delegate, pathOf(entry.getKey()), entry.getValue());
+            } catch (IOException e) {
+                error = e;
+                continue;
+            }
+            Map<String, byte[]> view = overlay.get(entry.getKey());
+            for (Map.Entry<String, byte[]> value : entry.getValue().entrySet()) {
+                view.remove(value.getKey(), value.getValue());
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+        for (File segment : obsolete) {
+            segment.delete();
+        }
+    }
+
+    /**
+     * Stops the commit thread and compacts every journaled value, after a compaction in flight
+     * has finished. The journal reopens on next use.
+     */
+    public void close() {
+        Thread thread;
+        synchronized (lock) {
+            if (!open) {
+                return;
+            }
+            thread = committer;
+            committer = null;
+            lock.notifyAll();
+        }
+        try {
+            thread.join(1000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        compactLock.lock();
+        try {
+            try {
+                compactLocked();
+            } catch (IOException e) {
+                plugin.getLog().warning("Failed to compact the journal of " + plugin.getName() + ": " + e.getMessage(), DLogManager.printDataContainerLogs);
+            }
+            synchronized (lock) {
+                try {
+                    force(channel);
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+                // Writes that raced the close are in the segment and replayed on the next open.
+                settle(appended, null);
+                open = false;
+            }
+        } finally {
+            compactLock.unlock();
+        }
+    }
+
+    private static void apply(StorageBackend delegate, String path, Map<String, byte[]> values) throws IOException {
+        Map<String, byte[]> puts = new LinkedHashMap<>();
+        for (Map.Entry<String, byte[]> value : values.entrySet()) {
+            if (value.getValue() == TOMBSTONE) {
+                delegate.delete(path, value.getKey());
+            } else {
+                puts.put(value.getKey(), value.getValue());
+            }
+        }
+        if (!puts.isEmpty()) {
+            delegate.batch(path, puts);
+        }
+    }
+
+    private void commitLoop() {
+        while (true) {
+            FileChannel current;
+            long upTo;
+            synchronized (lock) {
+                try {
+                    while (committer == Thread.currentThread() && appended == durable) {
+                        long idle = System.currentTimeMillis() - lastAppend;
+                        if (idle >= compactIntervalMillis && getPendingCount() > 0) {
+                            lastAppend = System.currentTimeMillis();
+                            scheduleCompaction();
+                        }
+                        lock.wait(compactIntervalMillis);
+                    }
+                    long deadline = System.currentTimeMillis() + commitIntervalMillis;
+                    long left;
+                    while (committer == Thread.currentThread() && appended - durable < commitRecords && (left = deadline - System.currentTimeMillis()) > 0) {
+                        lock.wait(left);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (appended == durable) {
+                    return;
+                }
+                current = channel;
+                upTo = appended;
+            }
+            try {
+                force(current);
+            } catch (IOException e) {
+                // Only the records of this range failed; later ones are forced again.
+                synchronized (lock) {
+                    settle(upTo, e);
+                }
+                continue;
+            }
+            boolean full;
+            synchronized (lock) {
+                settle(upTo, null);
+                full = segmentBytes >= compactBytes;
+            }
+            if (full) {
+                scheduleCompaction();
+            }
+        }
+    }
+
+    private void scheduleCompaction() {
+        if (!compacting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            DataIO.getExecutor().execute(() -> {
+                try {
+                    compact();
+                } catch (IOException e) {
+                    plugin.getLog().warning("Failed to compact the journal of " + plugin.getName() + ": " + e.getMessage(), DLogManager.printDataContainerLogs);
+                } finally {
+                    compacting.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            compacting.set(false);
+        }
+    }
+
+    private static void force(FileChannel channel) throws IOException {
+        try {
+            channel.force(false);
+        } catch (ClosedChannelException ignored) {
+            // Rotated by a compaction, which forced it before closing.
+        }
+    }
+
+    /**
+     * Completes the appends up to {@code upTo}, failing them if the force that covered them
+     * failed. Must be called with the lock held.
+     */
+    private void settle(long upTo, @Nullable IOException failure) {
+        durable = Math.max(durable, upTo);
+        while (!waiting.isEmpty() && waiting.peek().seq <= upTo) {
+            Commit commit = waiting.poll();
+            commit.failure = failure;
+            commit.done = true;
+        }
+        lock.notifyAll();
+    }
+
+    private void write(ByteBuffer record) throws IOException {
+        segmentBytes += record.remaining();
+        while (record.hasRemaining()) {
+            channel.write(record);
+        }
+    }
+
+    private static ByteBuffer encode(String target, String path, String key, @Nullable byte[] data) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(64 + (data == null ? 0 : data.length));
+        DataOutputStream out = new DataOutputStream(body);
+        out.writeByte(data == null ? DELETE : PUT);
+        out.writeUTF(target);
+        out.writeUTF(path);
+        out.writeUTF(key);
+        if (data != null) {
+            out.writeInt(data.length);
+            out.write(data);
+        }
+        byte[] bytes = body.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        ByteBuffer record = ByteBuffer.allocate(8 + bytes.length);
+        record.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes);
+        record.flip();
+        return record;
+    }
+
+    private void replay(File segment) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(segment)))) {
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                if (length <= 0 || length > MAX_RECORD) {
+                    return;
+                }
+                int checksum = in.readInt();
+                byte[] bytes = new byte[length];
+                in.readFully(bytes);
+                CRC32 crc = new CRC32();
+                crc.update(bytes);
+                if ((int) crc.getValue() != checksum) {
+                    return;
+                }
+                DataInputStream body = new DataInputStream(new ByteArrayInputStream(bytes));
+                byte op = body.readByte();
+                String target = body.readUTF();
+                String path = body.readUTF();
+                String key = body.readUTF();
+                byte[] data = TOMBSTONE;
+                if (op == PUT) {
+                    data = new byte[body.readInt()];
+                    body.readFully(data);
+                }
+                overlay.computeIfAbsent(overlayKey(target, path), ignored -> new ConcurrentHashMap<>()).put(key, data);
+            }
+        } catch (EOFException e) {
+            // Torn last record of a crash; everything before it was replayed.
+        }
+    }
+
+    private List<File> segments() {
+        List<File> segments = new ArrayList<>();
+        File[] files = folder.listFiles((dir, name) -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                if (segmentIdOf(file) >= 0) {
+                    segments.add(file);
+                }
+            }
+        }
+        segments.sort((a, b) -> Long.compare(segmentIdOf(a), segmentIdOf(b)));
+        return segments;
+    }
+
+    private static long segmentIdOf(File segment) {
+        String name = segment.getName();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    private FileChannel openSegment(long id) throws IOException {
+        File file = new File(folder, SEGMENT_PREFIX + id + SEGMENT_SUFFIX);
+        return FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * An append waiting for its records to be forced to disk.
+     */
+    private static final class Commit {
+        private final long seq;
+        private boolean done;
+        private IOException failure;
+
+        private Commit(long seq) {
+            this.seq = seq;
+        }
+    }
+
+    private static String overlayKey(String target, String path) {
+        return target + '\u0000' + path;
+    }
+
+    private static String targetOf(String overlayKey) {
+        return overlayKey.substring(0, overlayKey.indexOf('\u0000'));
+    }
+
+    private static String pathOf(String overlayKey) {
+        return overlayKey.substring(overlayKey.indexOf('\u0000') + 1);
+    }
+}
@@ -0,0 +1,417 @@
+package com.darksoldier1404.dppc.data.storage;
+
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * The classic DataContainer layout: one file per key, {@code <dataFolder>/<path>/<key>.yml}.
+ * This is the default backend of every container.
+ * <p>
+ * Files are written to a temporary sibling and renamed over the old file, so a crash during a
+ * write never leaves a truncated entry. With {@link #setFsync(boolean)} the data is also forced
+ * to disk before the rename.
+ * <p>
+ * With a shard depth above zero (see {@link #withShardDepth(int)}) each file goes into nested
+ * two-character folders derived from a hash of its key, e.g. {@code udata/3f/a0/<uuid>.yml},
+ * so no single directory holds more than a few hundred files. A sharded backend also reads,
+ * deletes and lists files left in the flat folder. After {@link #markReshardPending(String)},
+ * {@link #get}, {@link #exists} and {@link #delete} look in every layout until
+ * {@link #reshard(String)} has moved the files, so a container can switch layout before that;
+ * {@link #scan} and {@link #streamKeys} still list the backend's own layout and the flat folder
+ * only. A flat backend without a pending reshard reads one file per lookup.
+ */
+@DPPCoreVersion(since = "5.4.3")
+public class FileStorageBackend implements StorageBackend {
+    public static final String YAML_EXTENSION = ".yml";
+    public static final int MAX_SHARD_DEPTH = 3;
+    private static final String RESHARD_MARKER = ".reshard-";
+    private static final int[] NO_DEPTHS = new int[0];
+    private static final int[] FLAT_DEPTH = {0};
+    private static final Map<String, Boolean> reshardPending = new ConcurrentHashMap<>();
+    private final JavaPlugin plugin;
+    private final String extension;
+    private final int shardDepth;
+    private volatile boolean fsync;
+
+    public FileStorageBackend(@NotNull JavaPlugin plugin) {
+        this(plugin, YAML_EXTENSION);
+    }
+
+    /**
+     * @param extension The file extension including the dot, e.g. {@code ".yml"}.
+     */
+    public FileStorageBackend(@NotNull JavaPlugin plugin, @NotNull String extension) {
+        this(plugin, extension, 0);
+    }
+
+    /**
+     * @param extension  The file extension including the dot, e.g. {@code ".yml"}.
+     * @param shardDepth The number of nested shard folders, 0 for the flat layout.
+     */
+    public FileStorageBackend(@NotNull JavaPlugin plugin, @NotNull String extension, int shardDepth) {
+        if (shardDepth < 0 || shardDepth > MAX_SHARD_DEPTH) {
+            throw new IllegalArgumentException("Shard depth must be between 0 and " + MAX_SHARD_DEPTH + ": " + shardDepth);
+        }
+        this.plugin = plugin;
+        this.extension = extension;
+        this.shardDepth = shardDepth;
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public int getShardDepth() {
+        return shardDepth;
+    }
+
+    public boolean isFsync() {
+        return fsync;
+    }
+
+    public void setFsync(boolean fsync) {
+        this.fsync = fsync;
+    }
+
+    /**
+     * @return a backend over the same folders that uses another file extension.
+     */
+    public FileStorageBackend withExtension(@NotNull String extension) {
+        FileStorageBackend backend = new FileStorageBackend(plugin, extension, shardDepth);
+        backend.fsync = fsync;
+        return backend;
+    }
+
+    /**
+     * @return a backend over the same folders that uses another shard depth.
+     */
+    public FileStorageBackend withShardDepth(int shardDepth) {
+        FileStorageBackend backend = new FileStorageBackend(plugin, extension, shardDepth);
+        backend.fsync = fsync;
+        return backend;
+    }
+
+    public File getFolder(@NotNull String path) {
+        return path.isEmpty() ? plugin.getDataFolder() : new File(plugin.getDataFolder(), path);
+    }
+
+    /**
+     * @return the file of the key in this backend's layout.
+     */
+    public File getFile(@NotNull String path, @NotNull String key) {
+        return getFile(path, key, shardDepth);
+    }
+
+    private File getFile(String path, String key, int depth) {
+        File folder = getFolder(path);
+        if (depth > 0) {
+            String hash = shardHash(key);
+            for (int level = 0; level < depth; level++) {
+                folder = new File(folder, hash.substring(level * 2, level * 2 + 2));
+            }
+        }
+        return new File(folder, key + extension);
+    }
+
+    /**
+     * @return eight hex characters of a mixed String hash of the key; stable across restarts.
+     */
+    static String shardHash(String key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        String hex = Integer.toHexString(h);
+        return "00000000".substring(hex.length()) + hex;
+    }
+
+    private File getFlatFile(String path, String key) {
+        return getFile(path, key, 0);
+    }
+
+    /**
+     * Records that files of the folder may be in another layout until {@link #reshard(String)}
+     * has run for this extension. The marker file survives a restart.
+     */
+    public void markReshardPending(@NotNull String path) throws IOException {
+        File marker = getReshardMarker(path);
+        File dir = marker.getParentFile();
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        Files.write(marker.toPath(), new byte[0]);
+        reshardPending.put(marker.getAbsolutePath(), Boolean.TRUE);
+    }
+
+    public boolean isReshardPending(@NotNull String path) {
+        File marker = getReshardMarker(path);
+        return reshardPending.computeIfAbsent(marker.getAbsolutePath(), ignored -> marker.isFile());
+    }
+
+    /**
+     * The marker does not end with the extension, so it is never listed as a key.
+     */
+    private File getReshardMarker(String path) {
+        return new File(getFolder(path), RESHARD_MARKER + extension.substring(1));
+    }
+
+    /**
+     * @return the other layouts a file of the key may still be in.
+     */
+    private int[] fallbackDepths(String path) {
+        if (isReshardPending(path)) {
+            int[] depths = new int[MAX_SHARD_DEPTH];
+            int i = 0;
+            for (int depth = 0; depth <= MAX_SHARD_DEPTH; depth++) {
+                if (depth != shardDepth) {
+                    depths[i++] = depth;
+                }
+            }
+            return depths;
+        }
+        return shardDepth > 0 ? FLAT_DEPTH : NO_DEPTHS;
+    }
+
+    /**
+     * Reads the file of the key, falling back to the other layouts for a file that has not
+     * been resharded yet.
+     */
+    @Nullable
+    @Override
+    public byte[] get(@NotNull String path, @NotNull String key) throws IOException {
+        byte[] data = read(getFile(path, key));
+        if (data != null) {
+            return data;
+        }
+        int[] fallback = fallbackDepths(path);
+        for (int depth : fallback) {
+            data = read(getFile(path, key, depth));
+            if (data != null) {
+                return data;
+            }
+        }
+        // A concurrent reshard may have moved the file into this layout between the reads.
+        return fallback.length == 0 ? null : read(getFile(path, key));
+    }
+
+    @Nullable
+    private static byte[] read(File file) throws IOException {
+        try {
+            return Files.readAllBytes(file.toPath());
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void put(@NotNull String path, @NotNull String key, byte[] data) throws IOException {
+        File file = getFile(path, key);
+        File dir = file.getParentFile();
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        Path temp = new File(dir, file.getName() + ".tmp").toPath();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(true);
+            }
+        }
+        try {
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        if (shardDepth > 0) {
+            Files.deleteIfExists(getFlatFile(path, key).toPath());
+        }
+    }
+
+    @Override
+    public boolean delete(@NotNull String path, @NotNull String key) throws IOException {
+        boolean deleted = Files.deleteIfExists(getFile(path, key).toPath());
+        for (int depth : fallbackDepths(path)) {
+            deleted |= Files.deleteIfExists(getFile(path, key, depth).toPath());
+        }
+        return deleted;
+    }
+
+    @Override
+    public boolean exists(@NotNull String path, @NotNull String key) {
+        if (getFile(path, key).isFile()) {
+            return true;
+        }
+        for (int depth : fallbackDepths(path)) {
+            if (getFile(path, key, depth).isFile()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lists the keys of the folder. A sharded backend lists its shard folders and the flat folder.
+     */
+    @NotNull
+    @Override
+    public List<String> scan(@NotNull String path) {
+        if (shardDepth == 0) {
+            List<String> keys = new ArrayList<>();
+            for (File file : listEntries(getFolder(path), 0)) {
+                keys.add(keyOf(file));
+            }
+            return keys;
+        }
+        Set<String> keys = new LinkedHashSet<>();
+        for (File file : listEntries(getFolder(path), shardDepth)) {
+            keys.add(keyOf(file));
+        }
+        return new ArrayList<>(keys);
+    }
+
+    /**
+     * Lists the keys through a directory stream instead of an array of every file, so a folder
+     * of any size is walked in constant memory. A sharded backend also walks its shard folders.
+     */
+    @NotNull
+    @Override
+    public Stream<String> streamKeys(@NotNull String path) throws IOException {
+        Path root = getFolder(path).toPath();
+        Stream<Path> files;
+        try {
+            files = shardDepth == 0 ? Files.list(root) : Files.walk(root, shardDepth + 1);
+        } catch (NoSuchFileException e) {
+            return Stream.empty();
+        }
+        return files.filter(file -> isEntry(root, file)).map(file -> keyOf(file.toFile()));
+    }
+
+    private boolean isEntry(Path root, Path file) {
+        if (!file.getFileName().toString().endsWith(extension) || !Files.isRegularFile(file)) {
+            return false;
+        }
+        for (Path dir = file.getParent(); !dir.equals(root); dir = dir.getParent()) {
+            if (!isShardFolder(dir.toFile())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Moves every file of the folder into this backend's layout: flat files into their shard
+     * folders, or for a flat backend, sharded files back into the folder. Files are moved one
+     * by one, so the container may keep reading and saving while this runs; a file that was
+     * already saved in the new layout is kept and the old copy is deleted.
+     * Empty shard folders are removed and the {@linkplain #markReshardPending pending mark} of
+     * this extension is cleared.
+     *
+     * @return the number of files moved.
+     */
+    public int reshard(@NotNull String path) throws IOException {
+        File root = getFolder(path);
+        int moved = 0;
+        for (File file : listEntries(root, MAX_SHARD_DEPTH)) {
+            File target = getFile(path, keyOf(file));
+            if (target.equals(file)) {
+                continue;
+            }
+            File dir = target.getParentFile();
+            if (!dir.exists()) {
+                dir.mkdirs();
+            }
+            try {
+                Files.move(file.toPath(), target.toPath());
+                moved++;
+            } catch (FileAlreadyExistsException e) {
+                Files.deleteIfExists(file.toPath());
+            } catch (NoSuchFileException ignored) {
+                // Saved or deleted by the container meanwhile.
+            }
+        }
+        removeEmptyShards(root, MAX_SHARD_DEPTH);
+        File marker = getReshardMarker(path);
+        Files.deleteIfExists(marker.toPath());
+        reshardPending.put(marker.getAbsolutePath(), Boolean.FALSE);
+        return moved;
+    }
+
+    private String keyOf(File file) {
+        String name = file.getName();
+        return name.substring(0, name.length() - extension.length());
+    }
+
+    /**
+     * @param depth How many levels of shard folders below {@code folder} are listed as well.
+     * @return the files of the folder with this backend's extension.
+     */
+    private List<File> listEntries(File folder, int depth) {
+        List<File> entries = new ArrayList<>();
+        File[] files = folder.listFiles();
+        if (files == null) {
+            return entries;
+        }
+        for (File file : files) {
+            if (file.isFile()) {
+                if (file.getName().endsWith(extension)) {
+                    entries.add(file);
+                }
+            } else if (depth > 0 && isShardFolder(file)) {
+                entries.addAll(listEntries(file, depth - 1));
+            }
+        }
+        return entries;
+    }
+
+    private void removeEmptyShards(File folder, int depth) {
+        File[] files = folder.listFiles();
+        if (files == null || depth == 0) {
+            return;
+        }
+        for (File file : files) {
+            if (file.isDirectory() && isShardFolder(file)) {
+                removeEmptyShards(file, depth - 1);
+                String[] left = file.list();
+                if (left != null && left.length == 0) {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    private static boolean isShardFolder(File dir) {
+        String name = dir.getName();
+        return name.length() == 2 && Character.digit(name.charAt(0), 16) >= 0 && Character.digit(name.charAt(1), 16) >= 0;
+    }
+}
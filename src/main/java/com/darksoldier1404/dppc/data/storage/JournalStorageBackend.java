@@ -0,0 +1,107 @@
+package com.darksoldier1404.dppc.data.storage;
+
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A view of a {@link DataJournal} over another backend: writes are appended to the journal and
+ * compacted into the delegate later, reads see journaled values first. Obtained from
+ * {@link DataJournal#backend(StorageBackend)}.
+ */
+@DPPCoreVersion(since = "5.4.3")
+public class JournalStorageBackend implements StorageBackend {
+    private final DataJournal journal;
+    private final String target;
+    private final StorageBackend delegate;
+
+    JournalStorageBackend(DataJournal journal, String target, StorageBackend delegate) {
+        this.journal = journal;
+        this.target = target;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String getName() {
+        return "journal(" + delegate.getName() + ")";
+    }
+
+    public DataJournal getJournal() {
+        return journal;
+    }
+
+    public StorageBackend getDelegate() {
+        return delegate;
+    }
+
+    @Nullable
+    @Override
+    public byte[] get(@NotNull String path, @NotNull String key) throws IOException {
+        byte[] data = journal.read(target, path, key);
+        if (data == DataJournal.TOMBSTONE) {
+            return null;
+        }
+        return data != null ? data : delegate.get(path, key);
+    }
+
+    @Override
+    public void put(@NotNull String path, @NotNull String key, byte[] data) throws IOException {
+        journal.append(target, path, Collections.singletonMap(key, data));
+    }
+
+    @Override
+    public boolean delete(@NotNull String path, @NotNull String key) throws IOException {
+        boolean existed = exists(path, key);
+        journal.append(target, path, Collections.singletonMap(key, null));
+        return existed;
+    }
+
+    @Override
+    public boolean exists(@NotNull String path, @NotNull String key) throws IOException {
+        byte[] data = journal.read(target, path, key);
+        if (data != null) {
+            return data != DataJournal.TOMBSTONE;
+        }
+        return delegate.exists(path, key);
+    }
+
+    @NotNull
+    @Override
+    public List<String> scan(@NotNull String path) throws IOException {
+        journal.open();
+        Set<String> keys = new LinkedHashSet<>(delegate.scan(path));
+        for (Map.Entry<String, byte[]> entry : journal.pending(target, path)) {
+            if (entry.getValue() == DataJournal.TOMBSTONE) {
+                keys.remove(entry.getKey());
+            } else {
+                keys.add(entry.getKey());
+            }
+        }
+        return new ArrayList<>(keys);
+    }
+
+    /**
+     * Appends every entry and waits for a single commit.
+     */
+    @Override
+    public void batch(@NotNull String path, @NotNull Map<String, byte[]> entries) throws IOException {
+        journal.append(target, path, new LinkedHashMap<>(entries));
+    }
+
+    /**
+     * Closes the shared journal, compacting it into every registered backend.
+     */
+    @Override
+    public void close() {
+        journal.close();
+    }
+}
@@ -0,0 +1,169 @@
+package com.darksoldier1404.dppc.data.storage;
+
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Embedded SQLite backend: every entry of every path is a row of one table in
+ * {@code <dataFolder>/data.db}, so tens of thousands of entries do not mean tens of
+ * thousands of files and {@link #batch} writes a whole save in a single transaction.
+ * <p>
+ * Uses the SQLite JDBC driver bundled with Spigot/Paper; no extra dependency is shaded.
+ * One connection is kept open and every call is synchronized on the backend.
+ */
+@DPPCoreVersion(since = "5.4.3")
+public class SqliteStorageBackend implements StorageBackend {
+    public static final String DEFAULT_FILE = "data.db";
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS dpp_data ("
+            + "path TEXT NOT NULL, data_key TEXT NOT NULL, data BLOB NOT NULL, PRIMARY KEY (path, data_key))";
+    private static final String SELECT = "SELECT data FROM dpp_data WHERE path = ? AND data_key = ?";
+    private static final String UPSERT = "INSERT OR REPLACE INTO dpp_data (path, data_key, data) VALUES (?, ?, ?)";
+    private static final String DELETE = "DELETE FROM dpp_data WHERE path = ? AND data_key = ?";
+    private static final String SCAN = "SELECT data_key FROM dpp_data WHERE path = ?";
+    private final File file;
+    private Connection connection;
+
+    public SqliteStorageBackend(@NotNull JavaPlugin plugin) {
+        this(plugin, DEFAULT_FILE);
+    }
+
+    public SqliteStorageBackend(@NotNull JavaPlugin plugin, @NotNull String fileName) {
+        this.file = new File(plugin.getDataFolder(), fileName);
+    }
+
+    @Override
+    public String getName() {
+        return "sqlite";
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    private Connection connection() throws SQLException {
+        if (connection == null || connection.isClosed()) {
+            File dir = file.getParentFile();
+            if (!dir.exists()) {
+                dir.mkdirs();
+            }
+            connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("PRAGMA journal_mode=WAL");
+                statement.execute("PRAGMA synchronous=NORMAL");
+                statement.execute(CREATE_TABLE);
+            }
+        }
+        return connection;
+    }
+
+    @Nullable
+    @Override
+    public synchronized byte[] get(@NotNull String path, @NotNull String key) throws IOException {
+        try (PreparedStatement statement = connection().prepareStatement(SELECT)) {
+            statement.setString(1, path);
+            statement.setString(2, key);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getBytes(1) : null;
+            }
+        } catch (SQLException e) {
+            throw new IOException("SQLite read failed for " + path + "/" + key, e);
+        }
+    }
+
+    @Override
+    public synchronized void put(@NotNull String path, @NotNull String key, byte[] data) throws IOException {
+        try (PreparedStatement statement = connection().prepareStatement(UPSERT)) {
+            statement.setString(1, path);
+            statement.setString(2, key);
+            statement.setBytes(3, data);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            throw new IOException("SQLite write failed for " + path + "/" + key, e);
+        }
+    }
+
+    @Override
+    public synchronized boolean delete(@NotNull String path, @NotNull String key) throws IOException {
+        try (PreparedStatement statement = connection().prepareStatement(DELETE)) {
+            statement.setString(1, path);
+            statement.setString(2, key);
+            return statement.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new IOException("SQLite delete failed for " + path + "/" + key, e);
+        }
+    }
+
+    @NotNull
+    @Override
+    public synchronized List<String> scan(@NotNull String path) throws IOException {
+        List<String> keys = new ArrayList<>();
+        try (PreparedStatement statement = connection().prepareStatement(SCAN)) {
+            statement.setString(1, path);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    keys.add(rs.getString(1));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IOException("SQLite scan failed for " + path, e);
+        }
+        return keys;
+    }
+
+    /**
+     * Writes every entry in one transaction; either all of them are stored or none.
+     */
+    @Override
+    public synchronized void batch(@NotNull String path, @NotNull Map<String, byte[]> entries) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        try {
+            Connection c = connection();
+            c.setAutoCommit(false);
+            try (PreparedStatement statement = c.prepareStatement(UPSERT)) {
+                for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                    statement.setString(1, path);
+                    statement.setString(2, entry.getKey());
+                    statement.setBytes(3, entry.getValue());
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                c.commit();
+            } catch (SQLException e) {
+                c.rollback();
+                throw e;
+            } finally {
+                c.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IOException("SQLite batch write failed for " + path + " (" + entries.size() + " entries)", e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+        connection = null;
+    }
+}
@@ -0,0 +1,75 @@
+package com.darksoldier1404.dppc.data.storage;
+
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Storage abstraction used by {@link com.darksoldier1404.dppc.data.DataContainer} and
+ * {@link com.darksoldier1404.dppc.data.SingleDataContainer}.
+ * <p>
+ * A backend stores opaque payloads (the serialized entry) under a {@code path} namespace and a
+ * {@code key}. The path is the container path ({@code "data"}, {@code "udata"}, ...) and the key
+ * is the entry key as a string. Containers decide how values are turned into bytes; backends only
+ * decide where the bytes go. Implementations must be safe to call from async threads.
+ */
+@DPPCoreVersion(since = "5.4.3")
+public interface StorageBackend {
+
+    /**
+     * @return human readable backend name (e.g. {@code "file"}, {@code "sqlite"}).
+     */
+    String getName();
+
+    /**
+     * @return the stored payload, or {@code null} if nothing is stored for the key.
+     */
+    @Nullable
+    byte[] get(@NotNull String path, @NotNull String key) throws IOException;
+
+    void put(@NotNull String path, @NotNull String key, byte[] data) throws IOException;
+
+    /**
+     * @return {@code true} if something was deleted.
+     */
+    boolean delete(@NotNull String path, @NotNull String key) throws IOException;
+
+    default boolean exists(@NotNull String path, @NotNull String key) throws IOException {
+        return get(path, key) != null;
+    }
+
+    /**
+     * @return every key stored under the path.
+     */
+    @NotNull
+    List<String> scan(@NotNull String path) throws IOException;
+
+    /**
+     * Lists the keys under the path lazily. The stream must be closed; backends that hold a
+     * directory handle or cursor release it then. The default streams {@link #scan(String)}.
+     */
+    @NotNull
+    default Stream<String> streamKeys(@NotNull String path) throws IOException {
+        return scan(path).stream();
+    }
+
+    /**
+     * Writes several entries at once. Backends that support transactions write them atomically.
+     */
+    default void batch(@NotNull String path, @NotNull Map<String, byte[]> entries) throws IOException {
+        for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            put(path, entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Releases held resources (connections, handles). The backend may reopen them on next use.
+     */
+    default void close() {
+    }
+}
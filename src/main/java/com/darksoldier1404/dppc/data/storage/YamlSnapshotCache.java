@@ -0,0 +1,361 @@
+package com.darksoldier1404.dppc.data.storage;
+
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.configuration.serialization.ConfigurationSerializable;
+import org.bukkit.configuration.serialization.ConfigurationSerialization;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pre-parsed snapshot of the YAML files of one data folder, stored in
+ * {@code <folder>/.snapshot.dat}.
+ * <p>
+ * Every entry is the value tree of one file together with the size and modification time the
+ * file had when the snapshot was taken. {@link #restore(String)} only returns the tree while
+ * both still match, so a file that was edited by hand (or written by a later partial save) is
+ * parsed from YAML again. Values SnakeYAML would not round-trip the same way (dates, binary,
+ * unknown types) make the entry uncacheable; such files are always parsed. Comments are not
+ * kept.
+ * <p>
+ * After {@link #read} the cache is only read, so {@link #restore} may be called from several
+ * threads at once.
+ */
+@DPPCoreVersion(since = "5.4.3")
+public class YamlSnapshotCache {
+    public static final String FILE_NAME = ".snapshot.dat";
+    private static final int MAGIC = 0x44505053;
+    private static final int VERSION = 1;
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte BOOLEAN = 5;
+    private static final byte LIST = 6;
+    private static final byte MAP = 7;
+    private static final byte SECTION = 8;
+    private static final byte SERIALIZABLE = 9;
+    private final File folder;
+    private final String extension;
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Creates an empty cache for the folder.
+     *
+     * @param folder    The data folder the files live in.
+     * @param extension The extension of the data files, including the dot.
+     */
+    public YamlSnapshotCache(@NotNull File folder, @NotNull String extension) {
+        this.folder = folder;
+        this.extension = extension;
+    }
+
+    /**
+     * Reads the snapshot of the folder. A missing, outdated or corrupt snapshot yields an empty cache.
+     */
+    @NotNull
+    public static YamlSnapshotCache read(@NotNull File folder, @NotNull String extension) {
+        YamlSnapshotCache cache = new YamlSnapshotCache(folder, extension);
+        File file = new File(folder, FILE_NAME);
+        if (!file.isFile()) {
+            return cache;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return cache;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = readString(in);
+                long size = in.readLong();
+                long modified = in.readLong();
+                byte[] tree = new byte[in.readInt()];
+                in.readFully(tree);
+                cache.entries.put(key, new Entry(size, modified, tree));
+            }
+        } catch (IOException e) {
+            cache.entries.clear();
+        }
+        return cache;
+    }
+
+    public File getFolder() {
+        return folder;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the parsed file if the snapshot of it is still current, otherwise null.
+     */
+    @Nullable
+    public YamlConfiguration restore(@NotNull String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        File file = new File(folder, key + extension);
+        if (file.length() != entry.size || file.lastModified() != entry.modified) {
+            return null;
+        }
+        try {
+            YamlConfiguration data = new YamlConfiguration();
+            readSection(new DataInputStream(new ByteArrayInputStream(entry.tree)), data);
+            return data;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Records the data that was just written to the file of the key.
+     *
+     * @return false if the file is missing or the data holds values that cannot be cached.
+     */
+    public boolean put(@NotNull String key, @NotNull ConfigurationSection data) {
+        File file = new File(folder, key + extension);
+        if (!file.isFile()) {
+            entries.remove(key);
+            return false;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            writeSection(out, data);
+            out.flush();
+            entries.put(key, new Entry(file.length(), file.lastModified(), bytes.toByteArray()));
+            return true;
+        } catch (IOException e) {
+            entries.remove(key);
+            return false;
+        }
+    }
+
+    /**
+     * Writes the snapshot next to the data files, replacing the previous one.
+     */
+    public void write() throws IOException {
+        if (!folder.exists()) {
+            folder.mkdirs();
+        }
+        File target = new File(folder, FILE_NAME);
+        File temp = new File(folder, FILE_NAME + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp.toPath())))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+                writeString(out, entry.getKey());
+                out.writeLong(entry.getValue().size);
+                out.writeLong(entry.getValue().modified);
+                out.writeInt(entry.getValue().tree.length);
+                out.write(entry.getValue().tree);
+            }
+        }
+        try {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void writeSection(DataOutputStream out, ConfigurationSection section) throws IOException {
+        Map<String, Object> values = section.getValues(false);
+        out.writeInt(values.size());
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            writeString(out, entry.getKey());
+            writeValue(out, entry.getValue(), true);
+        }
+    }
+
+    /**
+     * Writes a value the way SnakeYAML would read it back: maps directly under a section become
+     * sections, numbers are widened like YAML does, anything else is rejected.
+     */
+    private static void writeValue(DataOutputStream out, Object value, boolean inSection) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof ConfigurationSection) {
+            if (inSection) {
+                out.writeByte(SECTION);
+                writeSection(out, (ConfigurationSection) value);
+            } else {
+                writeMap(out, ((ConfigurationSection) value).getValues(false));
+            }
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            out.writeByte(INT);
+            out.writeInt(((Number) value).intValue());
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.writeByte(LIST);
+            out.writeInt(list.size());
+            for (Object element : list) {
+                writeValue(out, element, false);
+            }
+        } else if (value instanceof Map) {
+            if (inSection && !((Map<?, ?>) value).containsKey(ConfigurationSerialization.SERIALIZED_TYPE_KEY)) {
+                out.writeByte(SECTION);
+                writeMapEntries(out, (Map<?, ?>) value, true);
+            } else {
+                writeMap(out, (Map<?, ?>) value);
+            }
+        } else if (value instanceof ConfigurationSerializable) {
+            out.writeByte(SERIALIZABLE);
+            writeString(out, ConfigurationSerialization.getAlias(((ConfigurationSerializable) value).getClass()));
+            writeMapEntries(out, ((ConfigurationSerializable) value).serialize(), false);
+        } else {
+            throw new IOException("Unsupported value type " + value.getClass().getName());
+        }
+    }
+
+    private static void writeMap(DataOutputStream out, Map<?, ?> map) throws IOException {
+        out.writeByte(MAP);
+        writeMapEntries(out, map, false);
+    }
+
+    private static void writeMapEntries(DataOutputStream out, Map<?, ?> map, boolean inSection) throws IOException {
+        out.writeInt(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!(entry.getKey() instanceof String)) {
+                throw new IOException("Unsupported map key " + entry.getKey());
+            }
+            writeString(out, (String) entry.getKey());
+            writeValue(out, entry.getValue(), inSection);
+        }
+    }
+
+    private static void readSection(DataInputStream in, ConfigurationSection section) throws IOException {
+        int size = in.readInt();
+        for (int i = 0; i < size; i++) {
+            String key = readString(in);
+            byte type = in.readByte();
+            if (type == SECTION) {
+                readSection(in, section.createSection(key));
+            } else {
+                section.set(key, readValue(in, type));
+            }
+        }
+    }
+
+    private static Object readValue(DataInputStream in, byte type) throws IOException {
+        switch (type) {
+            case NULL:
+                return null;
+            case STRING:
+                return readString(in);
+            case INT:
+                return in.readInt();
+            case LONG:
+                return in.readLong();
+            case DOUBLE:
+                return in.readDouble();
+            case BOOLEAN:
+                return in.readBoolean();
+            case LIST: {
+                int size = in.readInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in, in.readByte()));
+                }
+                return list;
+            }
+            case MAP:
+                return deserializeIfTagged(readMapEntries(in));
+            case SERIALIZABLE: {
+                String alias = readString(in);
+                Map<String, Object> map = new LinkedHashMap<>();
+                map.put(ConfigurationSerialization.SERIALIZED_TYPE_KEY, alias);
+                map.putAll(readMapEntries(in));
+                Object value = ConfigurationSerialization.deserializeObject(map);
+                if (value == null) {
+                    throw new IOException("Could not deserialize " + alias);
+                }
+                return value;
+            }
+            default:
+                throw new IOException("Unknown value type " + type);
+        }
+    }
+
+    private static Map<String, Object> readMapEntries(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            String key = readString(in);
+            map.put(key, readValue(in, in.readByte()));
+        }
+        return map;
+    }
+
+    /**
+     * Plain maps carrying the {@code ==} type key are turned into objects, as SnakeYAML does.
+     */
+    private static Object deserializeIfTagged(Map<String, Object> map) throws IOException {
+        if (!map.containsKey(ConfigurationSerialization.SERIALIZED_TYPE_KEY)) {
+            return map;
+        }
+        Object value = ConfigurationSerialization.deserializeObject(map);
+        if (value == null) {
+            throw new IOException("Could not deserialize " + map.get(ConfigurationSerialization.SERIALIZED_TYPE_KEY));
+        }
+        return value;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Entry {
+        private final long size;
+        private final long modified;
+        private final byte[] tree;
+
+        private Entry(long size, long modified, byte[] tree) {
+            this.size = size;
+            this.modified = modified;
+            this.tree = tree;
+        }
+    }
+}
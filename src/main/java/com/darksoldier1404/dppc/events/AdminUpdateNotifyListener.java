@@ -1,5 +1,6 @@
 package com.darksoldier1404.dppc.events;
 
+import com.darksoldier1404.dppc.CoreSettings;
 import com.darksoldier1404.dppc.DPPCore;
 import com.darksoldier1404.dppc.plugin.functions.UpdateStatus;
 import com.darksoldier1404.dppc.utils.PluginUtil;
@@ -23,13 +24,12 @@ import java.util.List;
  */
 public class AdminUpdateNotifyListener implements Listener {
 
-    private static final String CONFIG_KEY = "Settings.notify_admins_on_join";
     private static final long DELAY_TICKS = 100L; // 5 seconds
 
     @EventHandler
     public void onJoin(PlayerJoinEvent e) {
         Player p = e.getPlayer();
-        if (!DPPCore.getInstance().getConfig().getBoolean(CONFIG_KEY, true)) return;
+        if (!CoreSettings.get().notifyAdminsOnJoin) return;
         if (!p.hasPermission("dppc.admin")) return;
 
         Bukkit.getScheduler().runTaskLater(DPPCore.getInstance(), () -> {
@@ -54,6 +54,7 @@ public class PageToolEditorListener implements Listener {
             case PageToolEditor.SAVE_SLOT:
                 DefaultPageTools.save(DPPCore.getInstance().getConfig(), editor.toLayout());
                 DPPCore.getInstance().saveConfig();
+                DPPCore.getInstance().rebindSettings();
                 player.closeInventory();
                 player.sendMessage("§aDefault page tool layout has been saved and applied.");
                 break;
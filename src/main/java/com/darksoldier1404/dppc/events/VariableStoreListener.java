@@ -3,24 +3,18 @@ package com.darksoldier1404.dppc.events;
 import com.darksoldier1404.dppc.DPPCore;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
-import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
 /**
- * Loads a player's persisted variables on join and saves/unloads them on quit.
+ * Saves and unloads a player's persisted variables on quit. The save runs off the main thread
+ * and the variables are unloaded once it has finished. They are loaded through
+ * {@link com.darksoldier1404.dppc.data.DataPreloader} while the player logs in.
  */
 public class VariableStoreListener implements Listener {
 
-    @EventHandler
-    public void onJoin(PlayerJoinEvent e) {
-        if (DPPCore.variables == null) return;
-        DPPCore.variables.loadPlayer(e.getPlayer().getUniqueId());
-    }
-
     @EventHandler
     public void onQuit(PlayerQuitEvent e) {
         if (DPPCore.variables == null) return;
-        DPPCore.variables.savePlayer(e.getPlayer().getUniqueId());
-        DPPCore.variables.unloadPlayer(e.getPlayer().getUniqueId());
+        DPPCore.variables.quitPlayer(e.getPlayer().getUniqueId());
     }
 }
@@ -1,20 +1,28 @@
 package com.darksoldier1404.dppc.plugin.commands;
 
 import com.darksoldier1404.dppc.DPPCore;
+import com.darksoldier1404.dppc.data.DataMetrics;
+import com.darksoldier1404.dppc.data.StorageMigration;
+import com.darksoldier1404.dppc.data.storage.StorageBackend;
 import com.darksoldier1404.dppc.lang.DLang;
 import com.darksoldier1404.dppc.utils.PluginUtil;
+import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
+import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.File;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 public class DPPCCommand implements CommandExecutor, TabCompleter {
@@ -30,6 +38,8 @@ public class DPPCCommand implements CommandExecutor, TabCompleter {
             sender.sendMessage("/dppcp - installed DP-Plugins list GUI");
             sender.sendMessage("/dppc updatecheck (PluginName) - Check for updates");
             sender.sendMessage("/dppc lang <lang> - Change the language");
+            sender.sendMessage("/dppc stats data [reset] - Show data load/save statistics");
+            sender.sendMessage("/dppc migrate <plugin> <path> <file/sharded/sqlite> [source] - Copy stored data to another storage");
             return false;
         }
         if (args[0].equalsIgnoreCase("updatecheck")) {
@@ -43,6 +53,22 @@ public class DPPCCommand implements CommandExecutor, TabCompleter {
             }
             return false;
         }
+        if (args[0].equalsIgnoreCase("stats")) {
+            if (args.length >= 2 && args[1].equalsIgnoreCase("data")) {
+                if (args.length == 3 && args[2].equalsIgnoreCase("reset")) {
+                    DataMetrics.resetAll();
+                    sender.sendMessage("§aData statistics reset.");
+                    return true;
+                }
+                sendDataStats(sender);
+                return true;
+            }
+            sender.sendMessage("§cUsage: /dppc stats data [reset]");
+            return false;
+        }
+        if (args[0].equalsIgnoreCase("migrate")) {
+            return migrate(sender, args);
+        }
         if (args[0].equalsIgnoreCase("lang")) {
             if (args.length == 2) {
                 DPPCore.getInstance().getLang().setCurrentLang(Locale.forLanguageTag(args[1]));
@@ -56,11 +82,120 @@ public class DPPCCommand implements CommandExecutor, TabCompleter {
         return false;
     }
 
+    private static boolean migrate(CommandSender sender, String[] args) {
+        if (args.length < 4 || args.length > 5) {
+            sender.sendMessage("§cUsage: /dppc migrate <plugin> <path> <file/sharded/sqlite> [source, default file or sqlite]");
+            return false;
+        }
+        Plugin plugin = Bukkit.getPluginManager().getPlugin(args[1]);
+        if (!(plugin instanceof JavaPlugin)) {
+            sender.sendMessage("§cPlugin not found: " + args[1]);
+            return false;
+        }
+        StorageMigration.Format targetFormat = StorageMigration.Format.of(args[3]);
+        StorageMigration.Format sourceFormat = args.length == 5 ? StorageMigration.Format.of(args[4])
+                : targetFormat == StorageMigration.Format.FILE ? StorageMigration.Format.SQLITE : StorageMigration.Format.FILE;
+        if (targetFormat == null || sourceFormat == null) {
+            sender.sendMessage("§cUnknown storage format. Use file, sharded or sqlite.");
+            return false;
+        }
+        StorageBackend source = sourceFormat.open((JavaPlugin) plugin);
+        StorageBackend target = targetFormat.open((JavaPlugin) plugin);
+        String path = args[2];
+        StorageMigration migration;
+        CompletableFuture<StorageMigration.Result> future;
+        try {
+            migration = new StorageMigration((JavaPlugin) plugin, path, source, target).onProgress(progress ->
+                    Bukkit.getScheduler().runTask(DPPCore.getInstance(), () -> sender.sendMessage(String.format(Locale.ROOT,
+                            "§7[migrate] %s: %d/%d entries, %.0f/s, ETA %ds",
+                            path, progress.getResumed() + progress.getMigrated(), progress.getTotal(),
+                            progress.getEntriesPerSecond(), progress.getEtaMillis() / 1000))));
+            future = migration.start();
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            source.close();
+            target.close();
+            sender.sendMessage("§c" + e.getMessage());
+            return false;
+        }
+        File checkpoint = migration.getCheckpoint();
+        future.whenComplete((result, error) -> {
+            source.close();
+            target.close();
+            Bukkit.getScheduler().runTask(DPPCore.getInstance(), () -> sendMigrationResult(sender, path, checkpoint, result, error));
+        });
+        sender.sendMessage("§aMigrating " + plugin.getName() + "/" + path + " from " + sourceFormat.name().toLowerCase(Locale.ROOT)
+                + " to " + targetFormat.name().toLowerCase(Locale.ROOT) + "...");
+        return true;
+    }
+
+    private static void sendMigrationResult(CommandSender sender, String path, File checkpoint, StorageMigration.Result result, Throwable error) {
+        if (error != null) {
+            sender.sendMessage("§c[migrate] " + path + " failed: " + error.getMessage() + ". Run the command again to resume.");
+            return;
+        }
+        StorageMigration.Progress progress = result.getProgress();
+        sender.sendMessage(String.format(Locale.ROOT, "§7[migrate] %s: %d entries copied, %d resumed from the checkpoint in %.1fs",
+                path, progress.getMigrated(), progress.getResumed(), progress.getElapsedMillis() / 1000.0));
+        if (result.isVerified()) {
+            sender.sendMessage("§a[migrate] " + path + " verified: every entry is in the target with the same checksum.");
+            return;
+        }
+        for (Map.Entry<String, String> entry : result.getFailed().entrySet()) {
+            sender.sendMessage("§c[migrate] Not copied " + entry.getKey() + ": " + entry.getValue());
+        }
+        if (!result.getMismatched().isEmpty()) {
+            sender.sendMessage("§c[migrate] Checksum mismatch: " + String.join(", ", result.getMismatched()));
+        }
+        if (result.getMissing() > 0) {
+            sender.sendMessage("§c[migrate] The source has " + result.getMissing() + " entries more than were copied.");
+        }
+        sender.sendMessage("§e[migrate] Checkpoint kept at " + checkpoint.getPath() + "; run the command again to resume.");
+    }
+
+    private static void sendDataStats(CommandSender sender) {
+        List<DataMetrics> all = DataMetrics.getAll();
+        if (all.isEmpty()) {
+            sender.sendMessage("§eNo data operations recorded yet.");
+            return;
+        }
+        sender.sendMessage("§b[Data statistics] §7slow threshold: " + DataMetrics.getSlowThresholdMillis() + " ms");
+        for (DataMetrics metrics : all) {
+            sender.sendMessage("§f" + metrics.getPluginName() + "/" + metrics.getPath());
+            for (DataMetrics.Operation operation : DataMetrics.Operation.values()) {
+                DataMetrics.OperationStats stats = metrics.get(operation);
+                if (stats.getCount() == 0) {
+                    continue;
+                }
+                sender.sendMessage(String.format(Locale.ROOT, "  §7%s §f%d ops, %d entries, %.1f KB §7| avg %.2f ms, p99 %.2f ms, max %.2f ms",
+                        operation.name().toLowerCase(Locale.ROOT), stats.getCount(), stats.getEntries(), stats.getBytes() / 1024.0,
+                        stats.getAverageMillis(), stats.getPercentileMillis(0.99), stats.getMaxNanos() / 1_000_000.0));
+            }
+        }
+    }
+
     @Nullable
     @Override
     public List<String> onTabComplete(@NotNull CommandSender sender, @NotNull Command command, @NotNull String label, @NotNull String[] args) {
         if (args.length == 1) {
-            return Collections.singletonList("updatecheck");
+            return Arrays.asList("updatecheck", "lang", "stats", "migrate");
+        }
+        if (args.length == 2 && args[0].equalsIgnoreCase("stats")) {
+            return Collections.singletonList("data");
+        }
+        if (args.length == 3 && args[0].equalsIgnoreCase("stats")) {
+            return Collections.singletonList("reset");
+        }
+        if (args[0].equalsIgnoreCase("migrate")) {
+            if (args.length == 2) {
+                return Arrays.stream(Bukkit.getPluginManager().getPlugins()).map(Plugin::getName).collect(Collectors.toList());
+            }
+            if (args.length == 3) {
+                return Arrays.asList("data", "udata", "variables");
+            }
+            if (args.length == 4 || args.length == 5) {
+                return Arrays.stream(StorageMigration.Format.values()).map(format -> format.name().toLowerCase(Locale.ROOT)).collect(Collectors.toList());
+            }
+            return Collections.emptyList();
         }
         if (args.length == 2 && args[0].equalsIgnoreCase("updatecheck")) {
             return PluginUtil.getLoadedPlugins().keySet().stream()
@@ -19,6 +19,7 @@ public class DPPCDICommand {
                     String type = args.getString(ArgumentIndex.ARG_0);
                     plugin.getConfig().set("Settings.DInventory.defaultPageToolItem." + type, sender.getInventory().getItemInMainHand());
                     plugin.saveConfig();
+                    plugin.rebindSettings();
                     sender.sendMessage("§aDefault page tool item has been successfully set to " + type + "!");
                     return true;
                 }));
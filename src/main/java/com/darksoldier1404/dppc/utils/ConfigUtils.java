@@ -4,6 +4,7 @@ import com.darksoldier1404.dppc.DPPCore;
 import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
 import com.darksoldier1404.dppc.api.logger.DLogManager;
 import com.darksoldier1404.dppc.api.logger.DLogNode;
+import com.darksoldier1404.dppc.data.DataMetrics;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.jetbrains.annotations.NotNull;
@@ -53,6 +54,10 @@ public class ConfigUtils {
         return null;
     }
 
+    private static DataMetrics metrics(JavaPlugin plugin, String path) {
+        return DataMetrics.of(plugin, path == null ? "" : path, log);
+    }
+
     private static File getCustomFile(JavaPlugin plugin, String fileName, String path) {
         File dir = (path == null || path.isEmpty()) ? plugin.getDataFolder() : new File(plugin.getDataFolder(), path);
         if (!dir.exists()) dir.mkdirs();
@@ -62,7 +67,9 @@ public class ConfigUtils {
     public static void saveCustomData(@NotNull JavaPlugin plugin, @NotNull YamlConfiguration config, @NotNull String fileName, String path) {
         File file = getCustomFile(plugin, fileName, path);
         try {
+            long start = System.nanoTime();
             config.save(file);
+            metrics(plugin, path).record(DataMetrics.Operation.SAVE, start, 1, file.length(), fileName);
             log.info(plugin.getName() + " " + fileName + " file saved. Path: " + file.getPath(), DLogManager.printConfigUtilsLogs);
         } catch (IOException e) {
             log.warning(plugin.getName() + " " + fileName + " file save failed. " + e.getMessage(), DLogManager.printConfigUtilsLogs);
@@ -81,7 +88,9 @@ public class ConfigUtils {
             return null;
         }
         try {
+            long start = System.nanoTime();
             YamlConfiguration data = YamlConfiguration.loadConfiguration(file);
+            metrics(plugin, path).record(DataMetrics.Operation.LOAD, start, 1, file.length(), fileName);
             log.info(plugin.getName() + " " + fileName + " file loaded. Path: " + file.getPath(), DLogManager.printConfigUtilsLogs);
             return data;
         } catch (Exception e) {
@@ -1,10 +1,13 @@
 package com.darksoldier1404.dppc.utils;
 
+import com.darksoldier1404.dppc.CoreSettings;
 import com.darksoldier1404.dppc.DPPCore;
 import com.darksoldier1404.dppc.api.essentials.MoneyAPI;
 import com.darksoldier1404.dppc.api.logger.DLogManager;
 import com.darksoldier1404.dppc.api.placeholder.PlaceholderBuilder;
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
 import com.darksoldier1404.dppc.builder.action.ActionBuilder;
+import com.darksoldier1404.dppc.data.FolderWatcher;
 import com.darksoldier1404.dppc.utils.enums.DependPlugin;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
@@ -22,6 +25,8 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.HttpURLConnection;
 import java.net.URL;
@@ -42,6 +47,11 @@ public class PluginUtil {
     private static final Map<String, String> latestVersionCache = new java.util.concurrent.ConcurrentHashMap<>();
     // Base of each plugin's GitHub page; the plugin name is appended to form the full URL.
     private static final String GITHUB_BASE = "https://github.com/DP-Plugins/";
+    // Action name loaded from each file under actions/, so a hot-reloaded or deleted file
+    // replaces or removes the right action.
+    private static final Map<String, String> actionFiles = new HashMap<>();
+    private static final YamlConfiguration DELETED_ACTION = new YamlConfiguration();
+    private static FolderWatcher actionWatcher;
 
     public static void addPlugin(JavaPlugin plugin, int id) {
         loadedPlugins.put(plugin, id);
@@ -77,19 +87,94 @@ public class PluginUtil {
     }
 
     public static void loadAllAction() {
-        for (YamlConfiguration raw : ConfigUtils.loadCustomDataList(plugin, "actions")) {
-            String actionName = raw.getString("ACTION_NAME");
-            if (actionName == null) {
-                plugin.getLog().warning("Action name is null. Skipping...", DLogManager.printPluginUtilsLogs);
-                continue;
+        for (Map.Entry<String, YamlConfiguration> entry : ConfigUtils.loadCustomDataMap(plugin, "actions").entrySet()) {
+            loadAction(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * @return false if the file has no {@code ACTION_NAME} and was skipped. Any action the
+     * file defined before is dropped in that case.
+     */
+    private static boolean loadAction(String fileName, YamlConfiguration raw) {
+        String actionName = raw.getString("ACTION_NAME");
+        if (actionName == null) {
+            plugin.getLog().warning("Action name is null. Skipping...", DLogManager.printPluginUtilsLogs);
+            String stale = actionFiles.remove(fileName);
+            if (stale != null) {
+                plugin.actions.remove(stale);
             }
-            plugin.actions.put(actionName, new ActionBuilder(plugin, actionName).importFromYaml(raw));
+            return false;
+        }
+        String previous = actionFiles.put(fileName, actionName);
+        if (previous != null && !previous.equals(actionName)) {
+            plugin.actions.remove(previous);
+        }
+        plugin.actions.put(actionName, new ActionBuilder(plugin, actionName).importFromYaml(raw));
+        return true;
+    }
+
+    /**
+     * Starts or stops reloading single action files as soon as they are created, edited or
+     * deleted ({@code Settings.hot_reload_actions}). Only the changed file is parsed, and its
+     * action is swapped in {@code DPPCore.actions} on the main thread.
+     */
+    @DPPCoreVersion(since = "5.4.3")
+    public static void setWatchActions(boolean watch) {
+        if (actionWatcher != null) {
+            actionWatcher.close();
+            actionWatcher = null;
+        }
+        if (!watch) {
+            return;
+        }
+        try {
+            actionWatcher = FolderWatcher.watch(plugin, new File(plugin.getDataFolder(), "actions"), new FolderWatcher.Handler<YamlConfiguration>() {
+                @Override
+                public boolean accepts(@NotNull File file) {
+                    return file.getName().endsWith(".yml");
+                }
+
+                @Override
+                public YamlConfiguration read(@NotNull File file) throws Exception {
+                    if (!file.isFile()) {
+                        return DELETED_ACTION;
+                    }
+                    YamlConfiguration raw = new YamlConfiguration();
+                    raw.load(file);
+                    return raw;
+                }
+
+                @Override
+                public void apply(@NotNull File file, @NotNull YamlConfiguration raw) {
+                    String fileName = file.getName().substring(0, file.getName().length() - 4);
+                    if (raw == DELETED_ACTION) {
+                        String actionName = actionFiles.remove(fileName);
+                        if (actionName != null) {
+                            plugin.actions.remove(actionName);
+                            plugin.getLog().info("Action removed: " + actionName, DLogManager.printPluginUtilsLogs);
+                        }
+                        return;
+                    }
+                    if (loadAction(fileName, raw)) {
+                        plugin.getLog().info("Action reloaded: " + fileName, DLogManager.printPluginUtilsLogs);
+                    } else {
+                        plugin.getLog().warning("Action skipped: " + fileName, DLogManager.printPluginUtilsLogs);
+                    }
+                }
+            });
+        } catch (IOException e) {
+            plugin.getLog().warning("Failed to watch the actions folder: " + e.getMessage(), DLogManager.printPluginUtilsLogs);
         }
     }
 
+    public static boolean isWatchActions() {
+        return actionWatcher != null;
+    }
+
     @Nullable
     public static boolean isMetricsEnabled(String name) {
-        return DPPCore.getInstance().config.getStringList("Settings.metrics-excluded") == null ? true : !DPPCore.getInstance().config.getStringList("Settings.metrics-excluded").contains(name);
+        return !CoreSettings.get().metricsExcluded.contains(name);
     }
 
     public static void initPlaceholders() {
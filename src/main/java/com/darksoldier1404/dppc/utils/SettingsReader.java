@@ -0,0 +1,137 @@
+package com.darksoldier1404.dppc.utils;
+
+import com.darksoldier1404.dppc.annotation.DPPCoreVersion;
+import com.darksoldier1404.dppc.api.logger.DLogManager;
+import com.darksoldier1404.dppc.api.logger.DLogNode;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Reads typed values out of a plugin config while a settings object is being bound.
+ * <p>
+ * Every getter takes the default used when the key is missing or invalid (wrong type, out of
+ * range, unknown enum constant); an invalid value is logged as a warning with its path, so a
+ * typo in config.yml never stops the plugin from loading. See {@code DPlugin#bindSettings}.
+ */
+@DPPCoreVersion(since = "5.4.3")
+public class SettingsReader {
+    private final YamlConfiguration config;
+    private final DLogNode log;
+
+    public SettingsReader(@NotNull YamlConfiguration config, @NotNull DLogNode log) {
+        this.config = config;
+        this.log = log;
+    }
+
+    /**
+     * @return the raw config, for values that need more than the typed getters.
+     */
+    @NotNull
+    public YamlConfiguration getConfig() {
+        return config;
+    }
+
+    public boolean getBoolean(@NotNull String path, boolean def) {
+        if (!config.contains(path)) {
+            return def;
+        }
+        if (!config.isBoolean(path)) {
+            return invalid(path, def);
+        }
+        return config.getBoolean(path);
+    }
+
+    public int getInt(@NotNull String path, int def) {
+        return getInt(path, def, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return the value, or {@code def} if it is missing, not a number or outside {@code [min, max]}.
+     */
+    public int getInt(@NotNull String path, int def, int min, int max) {
+        if (!config.contains(path)) {
+            return def;
+        }
+        if (!config.isInt(path)) {
+            return invalid(path, def);
+        }
+        int value = config.getInt(path);
+        return value < min || value > max ? invalid(path, def) : value;
+    }
+
+    public long getLong(@NotNull String path, long def) {
+        return getLong(path, def, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * @return the value, or {@code def} if it is missing, not a number or outside {@code [min, max]}.
+     */
+    public long getLong(@NotNull String path, long def, long min, long max) {
+        if (!config.contains(path)) {
+            return def;
+        }
+        if (!config.isInt(path) && !config.isLong(path)) {
+            return invalid(path, def);
+        }
+        long value = config.getLong(path);
+        return value < min || value > max ? invalid(path, def) : value;
+    }
+
+    @Nullable
+    public String getString(@NotNull String path, @Nullable String def) {
+        if (!config.contains(path)) {
+            return def;
+        }
+        if (!config.isString(path)) {
+            return invalid(path, def);
+        }
+        return config.getString(path);
+    }
+
+    /**
+     * Matches the constant name case-insensitively, ignoring {@code -} and {@code _}.
+     */
+    @NotNull
+    public <E extends Enum<E>> E getEnum(@NotNull String path, @NotNull Class<E> type, @NotNull E def) {
+        String value = getString(path, null);
+        if (value == null) {
+            return def;
+        }
+        String wanted = normalize(value);
+        for (E constant : type.getEnumConstants()) {
+            if (normalize(constant.name()).equals(wanted)) {
+                return constant;
+            }
+        }
+        return invalid(path, def);
+    }
+
+    /**
+     * @return an unmodifiable copy of the list, or an empty list if it is missing.
+     */
+    @NotNull
+    public List<String> getStringList(@NotNull String path) {
+        if (!config.contains(path)) {
+            return Collections.emptyList();
+        }
+        if (!config.isList(path)) {
+            return invalid(path, Collections.emptyList());
+        }
+        return Collections.unmodifiableList(new ArrayList<>(config.getStringList(path)));
+    }
+
+    private <T> T invalid(String path, T def) {
+        log.warning("Invalid config value '" + config.get(path) + "' at " + path + ", using " + def + ".", DLogManager.printConfigUtilsLogs);
+        return def;
+    }
+
+    private static String normalize(String name) {
+        return name.replace("-", "").replace("_", "").toLowerCase(Locale.ROOT);
+    }
+}
@@ -134,4 +134,19 @@ class ActionBuilderTest extends PluginTest {
                     imported.getActions().get(i).serialize());
         }
     }
+
+    @Test
+    void temporaryVariableNamesAreInternedPerScript() {
+        ActionBuilder b = builder().parseScript("set_temp_variable a 1\nadd_temp_variable a 2\nif_temp_variable_greater b 0\nend_if")
+                .setTempVariable("c", "x");
+        assertEquals(3, b.getVariableSlots().size());
+        assertEquals(0, b.getVariableSlots().indexOf("a"));
+        assertEquals(1, b.getVariableSlots().indexOf("b"));
+        assertEquals(2, b.getVariableSlots().indexOf("c"));
+
+        ActionBuilder imported = new ActionBuilder(plugin, "other").parseScript("set_temp_variable z 1")
+                .importFromYaml(b.exportToYaml());
+        assertEquals(-1, imported.getVariableSlots().indexOf("z"));
+        assertEquals(3, imported.getVariableSlots().size());
+    }
 }
@@ -0,0 +1,57 @@
+package com.darksoldier1404.dppc.builder.action.obj;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentVariableScopeTest {
+
+    @Test
+    void concurrentAddsAreNeverLost() {
+        ConcurrentVariableScope scope = new ConcurrentVariableScope();
+        scope.set("kills", "0");
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            workers.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    scope.addAndGet("kills", 1);
+                }
+            }));
+        }
+        CompletableFuture.allOf(workers.toArray(new CompletableFuture[0])).join();
+        assertEquals("80000", scope.get("kills"));
+    }
+
+    @Test
+    void compareAndSetAndGetAndUpdate() {
+        ConcurrentVariableScope scope = new ConcurrentVariableScope();
+        assertFalse(scope.compareAndSet("x", 0, 1));
+        scope.set("x", "5");
+        assertFalse(scope.compareAndSet("x", 4, 1));
+        assertTrue(scope.compareAndSet("x", 5, 6));
+        assertEquals(6.0, scope.getAndUpdate("x", v -> v * 2));
+        assertEquals("12", scope.get("x"));
+        assertTrue(Double.isNaN(scope.getAndUpdate("fresh", v -> Double.isNaN(v) ? 1 : v + 1)));
+        assertEquals(1.0, scope.getNumber("fresh"));
+    }
+
+    @Test
+    void textReplacesNumbersAndBack() {
+        ConcurrentVariableScope scope = new ConcurrentVariableScope();
+        assertEquals(4.0, scope.addAndGet("n", 4.0));
+        assertEquals("4.0", scope.get("n"));
+        assertEquals(5.0, scope.addAndGet("n", 1));
+        assertTrue(scope.set("n", "done"));
+        assertEquals("done", scope.get("n"));
+        assertEquals(2.0, scope.addAndGet("n", 2));
+        assertTrue(scope.remove("n"));
+        assertFalse(scope.has("n"));
+        assertEquals("", scope.get("n"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.darksoldier1404.dppc.builder.action.obj;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VariableScopeTest {
+
+    @Test
+    void canonicalNumbersPrintBackUnchanged() {
+        VariableScope scope = new VariableScope();
+        scope.set("a", "7");
+        scope.set("b", "2.5");
+        scope.set("c", "5.0");
+        scope.set("d", "007");
+        scope.set("e", "hello");
+        assertEquals("7", scope.get("a"));
+        assertEquals("2.5", scope.get("b"));
+        assertEquals("5.0", scope.get("c"));
+        assertEquals("007", scope.get("d"));
+        assertEquals("hello", scope.get("e"));
+        assertEquals(5.0, scope.getNumber("c"));
+        assertTrue(Double.isNaN(scope.getNumber("e")));
+        assertTrue(Double.isNaN(scope.getNumber("missing")));
+    }
+
+    @Test
+    void addUpdatesInPlaceAndReportsChanges() {
+        VariableScope scope = new VariableScope();
+        assertEquals(4.0, scope.add("n", 4.0));
+        assertEquals("4.0", scope.get("n"));
+        assertEquals(7.0, scope.add("n", 3));
+        assertEquals("7", scope.get("n"));
+        assertFalse(scope.set("n", "7"));
+        assertTrue(scope.set("n", "text"));
+        assertEquals(1.0, scope.add("n", 1));
+    }
+
+    @Test
+    void tableSurvivesGrowthAndRemoval() {
+        VariableScope scope = new VariableScope();
+        for (int i = 0; i < 200; i++) {
+            scope.setNumber("v" + i, i);
+        }
+        for (int i = 0; i < 200; i += 2) {
+            assertTrue(scope.remove("v" + i));
+        }
+        assertEquals(100, scope.size());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i % 2 == 0 ? "" : String.valueOf(i), scope.get("v" + i));
+        }
+        Map<String, String> copy = scope.toMap();
+        assertEquals("199", copy.get("v199"));
+    }
+
+    @Test
+    void applyFormatsOnlyUsedPlaceholders() {
+        VariableScope scope = new VariableScope();
+        scope.setNumber("kills", 12);
+        scope.set("name", "Steve");
+        assertEquals("Steve has 12", scope.apply("{pvar_name} has {pvar_kills}", "pvar_"));
+        assertEquals("no placeholders", scope.apply("no placeholders", "pvar_"));
+    }
+
+    @Test
+    void replaceScansOnceAndLeavesUnknownPlaceholders() {
+        VariableScope scope = new VariableScope();
+        scope.set("a", "{b}");
+        scope.setNumber("b", 2);
+        assertEquals("{b} 2 {c} {x2", scope.apply("{a} {b} {c} {x{b}", ""));
+        assertEquals("{pvar_b} 2", scope.apply("{pvar_b} {gvar_b}", "gvar_"));
+        assertEquals("open {b", scope.apply("open {b", ""));
+    }
+}
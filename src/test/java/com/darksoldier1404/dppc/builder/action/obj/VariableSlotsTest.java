@@ -0,0 +1,70 @@
+package com.darksoldier1404.dppc.builder.action.obj;
+
+import com.darksoldier1404.dppc.builder.action.actions.AddTempVariableAction;
+import com.darksoldier1404.dppc.builder.action.actions.IfTempVariableGreaterAction;
+import com.darksoldier1404.dppc.builder.action.actions.SetTempVariableAction;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VariableSlotsTest {
+
+    @Test
+    void internAssignsStableIdsInOrder() {
+        VariableSlots slots = new VariableSlots();
+        VariableSlots.Slot a = slots.intern("a");
+        VariableSlots.Slot b = slots.intern("b");
+        assertSame(a, slots.intern("a"));
+        assertEquals(0, a.getIndex());
+        assertEquals(1, b.getIndex());
+        assertEquals(2, slots.size());
+        assertEquals(-1, slots.indexOf("missing"));
+    }
+
+    @Test
+    void boundActionsAndNameLookupsShareTheSlot() {
+        VariableSlots slots = new VariableSlots();
+        SetTempVariableAction set = new SetTempVariableAction("n", "5");
+        AddTempVariableAction add = new AddTempVariableAction("n", 3);
+        set.bindSlots(slots);
+        add.bindSlots(slots);
+        ActionContext ctx = new ActionContext(null, slots);
+
+        set.execute(ctx);
+        add.execute(ctx);
+        assertEquals("8", ctx.getVariable("n"));
+        assertEquals(8.0, ctx.getVariableNumber("n"));
+
+        ctx.setVariable("n", "text");
+        assertEquals("text", ctx.getVariable(slots.intern("n")));
+        assertTrue(Double.isNaN(ctx.getVariableNumber("n")));
+    }
+
+    @Test
+    void unboundAndForeignSlotsFallBackToNames() {
+        VariableSlots slots = new VariableSlots();
+        slots.intern("a");
+        ActionContext ctx = new ActionContext(null, slots);
+
+        // Created outside a builder: never bound.
+        new AddTempVariableAction("a", 2).execute(ctx);
+        assertEquals("2.0", ctx.getVariable("a"));
+
+        // Bound to another script's table.
+        AddTempVariableAction foreign = new AddTempVariableAction("a", 1);
+        foreign.bindSlots(new VariableSlots());
+        foreign.execute(ctx);
+        assertEquals("3", ctx.getVariable("a"));
+
+        // Interned after the context was created.
+        IfTempVariableGreaterAction late = new IfTempVariableGreaterAction("late", 0);
+        late.bindSlots(slots);
+        ctx.setVariable("late", "1");
+        late.execute(ctx);
+        assertTrue(ctx.shouldExecute());
+        assertFalse(ctx.hasVariable("other"));
+    }
+}
@@ -3,7 +3,11 @@ package com.darksoldier1404.dppc.builder.action.obj;
 import com.darksoldier1404.dppc.support.PluginTest;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -42,6 +46,20 @@ class VariableStoreTest extends PluginTest {
         assertTrue(reader.hasPlayer(uuid, "coins"));
     }
 
+    @Test
+    void preloadOffTheMainThreadThenPublish() throws Exception {
+        UUID uuid = UUID.randomUUID();
+        VariableStore writer = new VariableStore(plugin);
+        writer.setPlayer(uuid, "coins", "100");
+        writer.savePlayer(uuid);
+
+        VariableStore reader = new VariableStore(plugin);
+        Map<String, String> staged = CompletableFuture.supplyAsync(() -> reader.preload(uuid)).get();
+        assertFalse(reader.hasPlayer(uuid, "coins"));
+        reader.publish(uuid, staged);
+        assertEquals("100", reader.getPlayer(uuid, "coins"));
+    }
+
     @Test
     void unknownReturnsEmptyString() {
         VariableStore store = new VariableStore(plugin);
@@ -60,4 +78,102 @@ class VariableStoreTest extends PluginTest {
         store.loadGlobal();
         assertEquals("1", store.getGlobal("x"));
     }
+
+    @Test
+    void saveAllAsyncWritesTheStateAtCallTime() {
+        UUID uuid = UUID.randomUUID();
+        VariableStore writer = new VariableStore(plugin);
+        writer.setGlobal("kills", "7");
+        writer.setPlayer(uuid, "coins", "100");
+        CompletableFuture<Void> saved = writer.saveAllAsync();
+        writer.setGlobal("kills", "8");
+        saved.join();
+
+        VariableStore reader = new VariableStore(plugin);
+        reader.loadGlobal();
+        reader.loadPlayer(uuid);
+        assertEquals("7", reader.getGlobal("kills"));
+        assertEquals("100", reader.getPlayer(uuid, "coins"));
+    }
+
+    @Test
+    void bulkSavesWriteOnlyChangedScopes() {
+        UUID uuid = UUID.randomUUID();
+        VariableStore store = new VariableStore(plugin);
+        store.setPlayer(uuid, "coins", "100");
+        assertTrue(store.isPlayerDirty(uuid));
+        store.saveAll();
+        assertFalse(store.isPlayerDirty(uuid));
+
+        File file = new File(plugin.getDataFolder(), "variables/players/" + uuid + ".yml");
+        assertTrue(file.delete());
+        store.setPlayer(uuid, "coins", "100");
+        assertFalse(store.isPlayerDirty(uuid), "an unchanged value must not mark the scope dirty");
+        store.saveAllAsync().join();
+        assertFalse(file.exists());
+
+        store.setPlayer(uuid, "coins", "101");
+        store.saveAllAsync().join();
+        assertTrue(file.isFile());
+    }
+
+    @Test
+    void quitSavesOffTheMainThreadAndUnloadsAfterTheWrite() {
+        UUID uuid = UUID.randomUUID();
+        VariableStore store = new VariableStore(plugin);
+        store.setPlayer(uuid, "coins", "100");
+        store.quitPlayer(uuid).join();
+        assertEquals("100", store.preload(uuid).get("coins"));
+        server.getScheduler().performOneTick();
+        assertFalse(store.hasPlayer(uuid, "coins"));
+
+        VariableStore reader = new VariableStore(plugin);
+        reader.loadPlayer(uuid);
+        assertEquals("100", reader.getPlayer(uuid, "coins"));
+    }
+
+    @Test
+    void publishKeepsUnsavedVariablesOfAResidentPlayer() {
+        UUID uuid = UUID.randomUUID();
+        VariableStore store = new VariableStore(plugin);
+        store.setPlayer(uuid, "coins", "7");
+        Map<String, String> staged = new HashMap<>();
+        staged.put("coins", "1");
+        store.publish(uuid, staged);
+        assertEquals("7", store.getPlayer(uuid, "coins"));
+        assertTrue(store.isPlayerDirty(uuid));
+    }
+
+    @Test
+    void indexServesOfflinePlayersAndLeaderboards() throws Exception {
+        UUID low = UUID.randomUUID();
+        UUID high = UUID.randomUUID();
+        VariableStore writer = new VariableStore(plugin);
+        writer.setPlayer(low, "idx_kills", "5");
+        writer.setPlayer(high, "idx_kills", "9");
+        writer.saveAll();
+
+        VariableStore reader = new VariableStore(plugin);
+        PlayerVariableIndex index = reader.index("idx_kills");
+        awaitReady(index);
+        assertEquals(9.0, reader.getIndexedPlayerNumber(high, "idx_kills"));
+        assertEquals(high, reader.top("idx_kills", 2).get(0).getUuid());
+        assertEquals(low, reader.top("idx_kills", 2).get(1).getUuid());
+        assertEquals("top=9", reader.applyTop("top={pvar_top_idx_kills_1_value}"));
+        reader.saveAllAsync().join();
+
+        VariableStore restarted = new VariableStore(plugin);
+        PlayerVariableIndex persisted = restarted.index("idx_kills");
+        awaitReady(persisted);
+        assertEquals(5.0, persisted.get(low));
+        assertTrue(new File(plugin.getDataFolder(), "variables/index/idx_kills.yml").isFile());
+    }
+
+    private static void awaitReady(PlayerVariableIndex index) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!index.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(index.isReady());
+    }
 }
@@ -0,0 +1,33 @@
+package com.darksoldier1404.dppc.data;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * {@link TestCargo} that also writes itself in binary form, used by the binary storage tests.
+ */
+public class BinaryTestCargo extends TestCargo implements BinaryDataCargo {
+
+    public int readVersion = -1;
+
+    public BinaryTestCargo() {
+    }
+
+    @Override
+    public int getBinaryVersion() {
+        return 2;
+    }
+
+    @Override
+    public void writeBinary(DataOutput out) throws IOException {
+        out.writeUTF(value);
+    }
+
+    @Override
+    public Object readBinary(DataInput in, int version) throws IOException {
+        this.value = in.readUTF();
+        this.readVersion = version;
+        return this;
+    }
+}
@@ -0,0 +1,132 @@
+package com.darksoldier1404.dppc.data;
+
+import com.darksoldier1404.dppc.support.PluginTest;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentDataContainerTest extends PluginTest {
+
+    @Test
+    void saveAndLoadRoundTrip() {
+        MemoryStorageBackend backend = new MemoryStorageBackend();
+        ConcurrentDataContainer<String, TestCargo> c = new ConcurrentDataContainer<>(plugin, DataType.CUSTOM, "cargo", backend);
+        c.create("a", TestCargo.class).value = "hello";
+        c.save("a");
+        assertTrue(c.exists("a"));
+
+        ConcurrentDataContainer<String, TestCargo> reloaded = new ConcurrentDataContainer<>(plugin, DataType.CUSTOM, "cargo", backend);
+        reloaded.loadAll(TestCargo.class);
+        assertEquals("hello", reloaded.get("a").value);
+    }
+
+    @Test
+    void saveAllWritesOneBatch() {
+        MemoryStorageBackend backend = new MemoryStorageBackend();
+        ConcurrentDataContainer<String, YamlConfiguration> c = new ConcurrentDataContainer<>(plugin, DataType.YAML, "docs", backend);
+        for (int i = 0; i < 5; i++) {
+            YamlConfiguration data = new YamlConfiguration();
+            data.set("i", i);
+            c.put("doc" + i, data);
+        }
+        c.saveAll();
+        assertEquals(1, backend.batches.get());
+        assertEquals(5, backend.scan("docs").size());
+    }
+
+    @Test
+    void olderAsyncSnapshotNeverOverwritesANewerSave() {
+        MemoryStorageBackend backend = new MemoryStorageBackend();
+        ConcurrentDataContainer<String, TestCargo> c = new ConcurrentDataContainer<>(plugin, DataType.CUSTOM, "cargo", backend);
+        c.create("a", TestCargo.class).value = "old";
+        c.create("b", TestCargo.class).value = "old";
+        List<Runnable> pending = new ArrayList<>();
+        c.saveAllAsync(pending::add);
+
+        c.get("a").value = "new";
+        c.save("a");
+        c.delete("b");
+        pending.get(0).run();
+
+        ConcurrentDataContainer<String, TestCargo> reloaded = new ConcurrentDataContainer<>(plugin, DataType.CUSTOM, "cargo", backend);
+        reloaded.loadAll(TestCargo.class);
+        assertEquals("new", reloaded.get("a").value);
+        assertFalse(reloaded.containsKey("b"), "a deleted entry must not be written back");
+    }
+
+    @Test
+    void computeIfAbsentAndLoadReadsOnceUnderContention() throws Exception {
+        CountingBackend backend = new CountingBackend();
+        YamlConfiguration stored = new YamlConfiguration();
+        stored.set("name", "shared");
+        backend.put("docs", "key", DataContainer.encode(stored));
+        ConcurrentDataContainer<String, YamlConfiguration> c = new ConcurrentDataContainer<>(plugin, DataType.YAML, "docs", backend);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Callable<YamlConfiguration>> tasks = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                tasks.add(() -> c.computeIfAbsentAndLoad("key", YamlConfiguration.class));
+            }
+            List<Future<YamlConfiguration>> results = pool.invokeAll(tasks);
+            YamlConfiguration first = results.get(0).get();
+            assertEquals("shared", first.getString("name"));
+            for (Future<YamlConfiguration> result : results) {
+                assertSame(first, result.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, backend.reads.get());
+    }
+
+    @Test
+    void computeIfAbsentAndLoadReturnsNullForMissingEntry() {
+        ConcurrentDataContainer<String, YamlConfiguration> c = new ConcurrentDataContainer<>(plugin, DataType.YAML, "docs", new MemoryStorageBackend());
+        assertNull(c.computeIfAbsentAndLoad("missing", YamlConfiguration.class));
+        assertFalse(c.containsKey("missing"));
+    }
+
+    @Test
+    void createKeepsExistingValue() {
+        ConcurrentDataContainer<String, TestCargo> c = new ConcurrentDataContainer<>(plugin, DataType.CUSTOM, "cargo", new MemoryStorageBackend());
+        TestCargo first = c.create("a", TestCargo.class);
+        assertSame(first, c.create("a", TestCargo.class));
+    }
+
+    @Test
+    void deleteRemovesStoredAndResidentEntry() {
+        MemoryStorageBackend backend = new MemoryStorageBackend();
+        ConcurrentDataContainer<String, TestCargo> c = new ConcurrentDataContainer<>(plugin, DataType.CUSTOM, "cargo", backend);
+        c.createAndSave("a", TestCargo.class);
+        assertTrue(c.delete("a"));
+        assertFalse(c.containsKey("a"));
+        assertFalse(c.exists("a"));
+    }
+
+    private static final class CountingBackend extends MemoryStorageBackend {
+        final AtomicInteger reads = new AtomicInteger();
+
+        @Nullable
+        @Override
+        public byte[] get(@NotNull String path, @NotNull String key) {
+            reads.incrementAndGet();
+            return super.get(path, key);
+        }
+    }
+}
@@ -1,10 +1,21 @@
 package com.darksoldier1404.dppc.data;
 
+import com.darksoldier1404.dppc.data.storage.YamlSnapshotCache;
 import com.darksoldier1404.dppc.support.PluginTest;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.junit.jupiter.api.Test;
 
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -72,4 +83,258 @@ class DataContainerTest extends PluginTest {
         DataContainer<UUID, YamlConfiguration> c = new DataContainer<>(plugin, DataType.USER);
         assertFalse(c.delete(UUID.randomUUID()));
     }
+
+    @Test
+    void putAndCreateMarkKeysDirty() {
+        DataContainer<String, TestCargo> c = new DataContainer<>(plugin, DataType.CUSTOM);
+        c.create("a", TestCargo.class);
+        c.put("b", new TestCargo());
+        assertTrue(c.isDirty("a"));
+        assertTrue(c.isDirty("b"));
+        assertEquals(2, c.getDirtyKeys().size());
+    }
+
+    @Test
+    void saveDirtyWritesOnlyChangedKeysAndClearsThem() {
+        DataContainer<String, TestCargo> c = new DataContainer<>(plugin, DataType.CUSTOM, "dirty_test");
+        c.create("a", TestCargo.class).value = "changed";
+        c.saveDirty();
+        assertTrue(c.getDirtyKeys().isEmpty());
+
+        DataContainer<String, TestCargo> reader = new DataContainer<>(plugin, DataType.CUSTOM, "dirty_test");
+        reader.load("a", TestCargo.class);
+        assertEquals("changed", reader.get("a").value);
+        assertFalse(reader.isDirty("a"), "entries read from disk must not be dirty");
+    }
+
+    @Test
+    void markDirtyIgnoresUnknownKeysAndRemoveClearsFlag() {
+        DataContainer<String, TestCargo> c = new DataContainer<>(plugin, DataType.CUSTOM);
+        c.markDirty("missing");
+        assertFalse(c.isDirty("missing"));
+        c.put("a", new TestCargo());
+        c.remove("a");
+        assertFalse(c.isDirty("a"));
+    }
+
+    @Test
+    void everyMapMutatorAndViewIsTracked() {
+        DataContainer<String, YamlConfiguration> c = new DataContainer<>(plugin, DataType.YAML, "mutator_test", new MemoryStorageBackend());
+        DataIndex<String, YamlConfiguration, Integer> size = c.addSortedIndex("size", data -> data.getKeys(false).size());
+        YamlConfiguration one = new YamlConfiguration();
+        one.set("x", 1);
+
+        c.putIfAbsent("a", one);
+        c.computeIfAbsent("b", key -> new YamlConfiguration());
+        c.merge("c", one, (previous, value) -> value);
+        assertEquals(3, c.getDirtyKeys().size());
+        assertEquals(1, size.getIndexed("a"));
+
+        c.saveDirty();
+        c.entrySet().iterator().next().setValue(one);
+        assertEquals(1, c.getDirtyKeys().size());
+        c.replace("b", one);
+        assertTrue(c.isDirty("b"));
+        assertEquals(1, size.getIndexed("b"));
+
+        c.keySet().remove("a");
+        c.values().removeIf(value -> value == one);
+        c.compute("z", (key, value) -> null);
+        assertTrue(c.isEmpty());
+        assertTrue(c.getDirtyKeys().isEmpty());
+        assertEquals(0, size.size());
+    }
+
+    @Test
+    void loadAllAsyncPublishesEveryEntryOnTheMainThread() {
+        DataContainer<String, TestCargo> writer = new DataContainer<>(plugin, DataType.CUSTOM, "async_test");
+        for (int i = 0; i < 20; i++) {
+            writer.create("k" + i, TestCargo.class).value = "v" + i;
+        }
+        writer.saveAll();
+
+        DataContainer<String, TestCargo> reader = new DataContainer<>(plugin, DataType.CUSTOM, "async_test");
+        CompletableFuture<DataContainer<String, TestCargo>> future = reader.loadAllAsync(TestCargo.class);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!future.isDone() && System.currentTimeMillis() < deadline) {
+            server.getScheduler().performOneTick();
+        }
+        assertTrue(future.isDone());
+        assertSame(reader, future.join());
+        assertEquals(20, reader.size());
+        assertEquals("v7", reader.get("k7").value);
+        assertTrue(reader.getDirtyKeys().isEmpty());
+    }
+
+    @Test
+    void customBackendReceivesSaveAllAsOneBatch() {
+        MemoryStorageBackend backend = new MemoryStorageBackend();
+        DataContainer<String, TestCargo> writer = new DataContainer<>(plugin, DataType.CUSTOM, "data", backend);
+        writer.create("a", TestCargo.class).value = "x";
+        writer.create("b", TestCargo.class).value = "y";
+        writer.saveAll();
+        assertEquals(1, backend.batches.get());
+        assertEquals(2, backend.entries.size());
+
+        DataContainer<String, TestCargo> reader = new DataContainer<>(plugin, DataType.CUSTOM, "data", backend);
+        reader.loadAll(TestCargo.class);
+        assertEquals("y", reader.get("b").value);
+        assertTrue(reader.exists("a"));
+        assertTrue(reader.delete("a"));
+        assertFalse(reader.exists("a"));
+    }
+
+    @Test
+    void largeEntriesAreCompressedAndReadBackTransparently() {
+        MemoryStorageBackend backend = new MemoryStorageBackend();
+        DataContainer<String, TestCargo> writer = new DataContainer<>(plugin, DataType.CUSTOM, "data", backend);
+        writer.setCompression(1024);
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            large.append("item-").append(i).append(' ');
+        }
+        writer.create("big", TestCargo.class).value = large.toString();
+        writer.create("small", TestCargo.class).value = "x";
+        writer.saveAll();
+        assertTrue(PayloadCompression.isCompressed(backend.entries.get("data/big")));
+        assertFalse(PayloadCompression.isCompressed(backend.entries.get("data/small")));
+
+        DataContainer<String, TestCargo> reader = new DataContainer<>(plugin, DataType.CUSTOM, "data", backend);
+        reader.loadAll(TestCargo.class);
+        assertEquals(large.toString(), reader.get("big").value);
+        assertEquals("x", reader.get("small").value);
+    }
+
+    @Test
+    void binaryCargoIsStoredAsBinFileWithVersionHeader() {
+        DataContainer<String, BinaryTestCargo> writer = new DataContainer<>(plugin, DataType.CUSTOM, "binary_test");
+        writer.create("a", BinaryTestCargo.class).value = "bin";
+        writer.save("a");
+        assertTrue(new File(plugin.getDataFolder(), "binary_test/a.bin").isFile());
+        assertFalse(new File(plugin.getDataFolder(), "binary_test/a.yml").exists());
+
+        DataContainer<String, BinaryTestCargo> reader = new DataContainer<>(plugin, DataType.CUSTOM, "binary_test");
+        reader.loadAll(BinaryTestCargo.class);
+        assertEquals("bin", reader.get("a").value);
+        assertEquals(2, reader.get("a").readVersion);
+    }
+
+    @Test
+    void yamlEntryIsMigratedToBinaryOnNextSave() {
+        DataContainer<String, TestCargo> legacy = new DataContainer<>(plugin, DataType.CUSTOM, "migrate_test");
+        legacy.create("a", TestCargo.class).value = "old";
+        legacy.saveAll();
+
+        DataContainer<String, BinaryTestCargo> c = new DataContainer<>(plugin, DataType.CUSTOM, "migrate_test");
+        c.load("a", BinaryTestCargo.class);
+        assertEquals("old", c.get("a").value);
+        assertTrue(c.isDirty("a"), "entries read from YAML must be rewritten as binary");
+        c.saveDirty();
+        assertTrue(new File(plugin.getDataFolder(), "migrate_test/a.bin").isFile());
+    }
+
+    @Test
+    void snapshotCacheServesUnchangedEntriesAndYieldsToEditedFiles() throws Exception {
+        DataContainer<String, TestCargo> writer = new DataContainer<>(plugin, DataType.CUSTOM, "snapshot_data");
+        writer.setSnapshotCache(true);
+        writer.create("a", TestCargo.class).value = "cached";
+        writer.create("b", TestCargo.class).value = "cached";
+        writer.saveAll();
+        assertTrue(new File(plugin.getDataFolder(), "snapshot_data/" + YamlSnapshotCache.FILE_NAME).isFile());
+
+        File edited = new File(plugin.getDataFolder(), "snapshot_data/b.yml");
+        Files.write(edited.toPath(), "value: edited by hand\n".getBytes(StandardCharsets.UTF_8));
+
+        DataContainer<String, TestCargo> reader = new DataContainer<>(plugin, DataType.CUSTOM, "snapshot_data");
+        reader.setSnapshotCache(true);
+        reader.loadAll(TestCargo.class);
+        assertEquals("cached", reader.get("a").value);
+        assertEquals("edited by hand", reader.get("b").value);
+    }
+
+    @Test
+    void saveAllAsyncWritesTheStateAtCallTime() {
+        DataContainer<String, YamlConfiguration> writer = new DataContainer<>(plugin, DataType.YAML, "async_save");
+        YamlConfiguration data = new YamlConfiguration();
+        data.set("stats.level", 1);
+        List<String> tags = new ArrayList<>(Arrays.asList("a", "b"));
+        data.set("tags", tags);
+        writer.put("p", data);
+        CompletableFuture<Void> saved = writer.saveAllAsync();
+        assertTrue(writer.getDirtyKeys().isEmpty());
+        data.set("stats.level", 2);
+        tags.add("c");
+        saved.join();
+
+        DataContainer<String, YamlConfiguration> reader = new DataContainer<>(plugin, DataType.YAML, "async_save");
+        reader.load("p", null);
+        assertEquals(1, reader.get("p").getInt("stats.level"));
+        assertEquals(Arrays.asList("a", "b"), reader.get("p").getStringList("tags"));
+    }
+
+    @Test
+    void streamReadsEveryStoredEntryWithoutKeepingIt() {
+        DataContainer<String, TestCargo> writer = new DataContainer<>(plugin, DataType.CUSTOM, "stream_test");
+        for (int i = 0; i < 20; i++) {
+            writer.create("k" + i, TestCargo.class).value = "v" + i;
+        }
+        writer.saveAll();
+
+        DataContainer<String, TestCargo> reader = new DataContainer<>(plugin, DataType.CUSTOM, "stream_test");
+        Map<String, String> seen = new ConcurrentHashMap<>();
+        reader.forEachOnDisk(TestCargo.class, (key, value) -> seen.put(key, value.value), true);
+        assertEquals(20, seen.size());
+        assertEquals("v7", seen.get("k7"));
+        assertTrue(reader.isEmpty());
+
+        try (Stream<Map.Entry<String, TestCargo>> entries = reader.stream(TestCargo.class)) {
+            assertEquals(11, entries.filter(entry -> entry.getValue().value.startsWith("v1")).count());
+        }
+    }
+
+    @Test
+    void journaledSavesReachTheFilesWhenTheJournalIsTurnedOff() {
+        DataContainer<String, TestCargo> writer = new DataContainer<>(plugin, DataType.CUSTOM, "journal_container");
+        writer.setJournal(true);
+        assertTrue(writer.isJournal());
+        writer.create("a", TestCargo.class).value = "journaled";
+        writer.save("a");
+
+        DataContainer<String, TestCargo> files = new DataContainer<>(plugin, DataType.CUSTOM, "journal_container");
+        assertFalse(files.exists("a"));
+        writer.setJournal(false);
+        files.load("a", TestCargo.class);
+        assertEquals("journaled", files.get("a").value);
+    }
+
+    @Test
+    void watchReloadsChangedFilesButNotItsOwnWrites() throws Exception {
+        DataContainer<String, TestCargo> c = new DataContainer<>(plugin, DataType.CUSTOM, "watch_test");
+        TestCargo own = c.create("a", TestCargo.class);
+        own.value = "own";
+        c.saveAll();
+        c.enableWatch(TestCargo.class);
+        try {
+            c.save("a");
+            File file = new File(plugin.getDataFolder(), "watch_test/b.yml");
+            Files.write(file.toPath(), "value: edited\n".getBytes(StandardCharsets.UTF_8));
+            long deadline = System.currentTimeMillis() + 10000;
+            while (!c.containsKey("b") && System.currentTimeMillis() < deadline) {
+                server.getScheduler().performOneTick();
+                Thread.sleep(20);
+            }
+            assertEquals("edited", c.get("b").value);
+            assertSame(own, c.get("a"));
+
+            Files.delete(file.toPath());
+            deadline = System.currentTimeMillis() + 10000;
+            while (c.containsKey("b") && System.currentTimeMillis() < deadline) {
+                server.getScheduler().performOneTick();
+                Thread.sleep(20);
+            }
+            assertFalse(c.containsKey("b"));
+        } finally {
+            c.disableWatch();
+        }
+    }
 }
@@ -0,0 +1,52 @@
+package com.darksoldier1404.dppc.data;
+
+import com.darksoldier1404.dppc.support.PluginTest;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DataFlushServiceTest extends PluginTest {
+
+    @AfterEach
+    void clear() {
+        DataFlushService.awaitAll(0L);
+    }
+
+    @Test
+    void flushWritesEveryHandlerOfThePlugin() {
+        MemoryStorageBackend backend = new MemoryStorageBackend();
+        DataContainer<String, YamlConfiguration> c = new DataContainer<>(plugin, DataType.YAML, "flush_test", backend);
+        YamlConfiguration data = new YamlConfiguration();
+        data.set("value", 1);
+        c.put("a", data);
+        plugin.set("flush_test", c);
+
+        DataFlushService.flush(plugin);
+        DataFlushService.Report report = DataFlushService.awaitAll(5000L);
+
+        assertTrue(report.isComplete());
+        assertTrue(backend.entries.containsKey("flush_test/a"));
+    }
+
+    @Test
+    void reportsUnfinishedAndFailedWrites() {
+        DataFlushService.track("Test:stuck", new CompletableFuture<>());
+        CompletableFuture<Void> failed = new CompletableFuture<>();
+        DataFlushService.track("Test:failed", failed);
+        failed.completeExceptionally(new IllegalStateException("disk full"));
+
+        DataFlushService.Report report = DataFlushService.awaitAll(50L);
+
+        assertFalse(report.isComplete());
+        assertEquals(1, report.getUnfinished().size());
+        assertEquals("Test:stuck", report.getUnfinished().get(0));
+        assertTrue(report.getFailed().get("Test:failed") instanceof IllegalStateException);
+        assertTrue(DataFlushService.getPending().isEmpty());
+    }
+}
@@ -0,0 +1,83 @@
+package com.darksoldier1404.dppc.data;
+
+import com.darksoldier1404.dppc.support.PluginTest;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DataIndexTest extends PluginTest {
+
+    private static YamlConfiguration account(String owner, int balance) {
+        YamlConfiguration data = new YamlConfiguration();
+        data.set("owner", owner);
+        data.set("balance", balance);
+        return data;
+    }
+
+    private DataContainer<String, YamlConfiguration> accounts() {
+        DataContainer<String, YamlConfiguration> c = new DataContainer<>(plugin, DataType.YAML, "index_test", new MemoryStorageBackend());
+        c.put("a", account("steve", 50));
+        c.put("b", account("alex", 300));
+        c.put("c", account("steve", 120));
+        return c;
+    }
+
+    @Test
+    void hashIndexAnswersEqualityAndFollowsRemovals() {
+        DataContainer<String, YamlConfiguration> c = accounts();
+        DataIndex<String, YamlConfiguration, String> owners = c.addHashIndex("owner", data -> data.getString("owner"));
+        assertEquals(2, owners.get("steve").size());
+        assertTrue(owners.get("steve").containsAll(Arrays.asList("a", "c")));
+
+        c.remove("a");
+        assertEquals(Collections.singleton("c"), owners.get("steve"));
+        assertThrows(UnsupportedOperationException.class, () -> owners.top(1));
+    }
+
+    @Test
+    void sortedIndexAnswersTopRangeAndRank() {
+        DataContainer<String, YamlConfiguration> c = accounts();
+        DataIndex<String, YamlConfiguration, Integer> balance = c.addSortedIndex("balance", data -> data.getInt("balance"));
+        assertEquals(Arrays.asList("b", "c"), balance.top(2));
+        assertEquals(Arrays.asList("a", "c"), balance.range(50, true, 300, false));
+        assertEquals(1, balance.rankOf("b"));
+
+        c.put("d", account("notch", 1000));
+        assertEquals("d", balance.top(1).get(0));
+        assertEquals(Arrays.asList("a"), balance.bottom(1));
+    }
+
+    @Test
+    void markDirtyReindexesValuesMutatedInPlace() {
+        DataContainer<String, YamlConfiguration> c = accounts();
+        DataIndex<String, YamlConfiguration, Integer> balance = c.addSortedIndex("balance", data -> data.getInt("balance"));
+        c.get("a").set("balance", 999);
+        c.markDirty("a");
+        assertEquals("a", balance.top(1).get(0));
+        assertEquals(999, (int) balance.getIndexed("a"));
+
+        c.clear();
+        assertEquals(0, balance.size());
+        assertNull(c.getIndex("missing"));
+    }
+
+    @Test
+    void loadedEntriesAreIndexed() {
+        MemoryStorageBackend backend = new MemoryStorageBackend();
+        DataContainer<String, YamlConfiguration> writer = new DataContainer<>(plugin, DataType.YAML, "index_load", backend);
+        writer.put("x", account("alex", 10));
+        writer.saveAll();
+
+        DataContainer<String, YamlConfiguration> reader = new DataContainer<>(plugin, DataType.YAML, "index_load", backend);
+        DataIndex<String, YamlConfiguration, String> owners = reader.addHashIndex("owner", data -> data.getString("owner"));
+        reader.loadAll(null);
+        assertEquals("x", owners.getFirst("alex"));
+    }
+}
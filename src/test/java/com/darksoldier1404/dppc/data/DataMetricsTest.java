@@ -0,0 +1,53 @@
+package com.darksoldier1404.dppc.data;
+
+import com.darksoldier1404.dppc.support.PluginTest;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DataMetricsTest extends PluginTest {
+
+    @AfterEach
+    void reset() {
+        DataMetrics.resetAll();
+    }
+
+    @Test
+    void containerOperationsAreCountedPerPath() {
+        DataContainer<String, YamlConfiguration> c = new DataContainer<>(plugin, DataType.YAML, "metrics_test", new MemoryStorageBackend());
+        YamlConfiguration data = new YamlConfiguration();
+        data.set("value", "x");
+        c.put("a", data);
+        c.put("b", data);
+        c.saveAll();
+        c.load("a", null);
+        c.delete("b");
+
+        DataMetrics metrics = c.getMetrics();
+        assertEquals("metrics_test", metrics.getPath());
+        assertEquals(1, metrics.get(DataMetrics.Operation.SAVE).getCount());
+        assertEquals(2, metrics.get(DataMetrics.Operation.SAVE).getEntries());
+        assertTrue(metrics.get(DataMetrics.Operation.SAVE).getBytes() > 0);
+        assertEquals(1, metrics.get(DataMetrics.Operation.LOAD).getCount());
+        assertEquals(1, metrics.get(DataMetrics.Operation.DELETE).getCount());
+        assertTrue(DataMetrics.getAll().contains(metrics));
+    }
+
+    @Test
+    void percentileUsesTheHistogramBuckets() {
+        DataMetrics metrics = DataMetrics.of(plugin, "metrics_histogram");
+        long now = System.nanoTime();
+        for (int i = 0; i < 99; i++) {
+            metrics.record(DataMetrics.Operation.LOAD, now, 1, 10, "fast");
+        }
+        metrics.record(DataMetrics.Operation.LOAD, now - 20_000_000L, 1, 10, "slow");
+        DataMetrics.OperationStats stats = metrics.get(DataMetrics.Operation.LOAD);
+        assertEquals(100, stats.getCount());
+        assertTrue(stats.getPercentileMillis(0.5) <= 5.0);
+        assertEquals(50.0, stats.getPercentileMillis(1.0));
+        assertTrue(stats.getMaxNanos() >= 20_000_000L);
+    }
+}
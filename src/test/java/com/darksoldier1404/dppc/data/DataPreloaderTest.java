@@ -0,0 +1,106 @@
+package com.darksoldier1404.dppc.data;
+
+import com.darksoldier1404.dppc.support.PluginTest;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DataPreloaderTest extends PluginTest {
+    private final CountingHandler handler = new CountingHandler();
+
+    @AfterEach
+    void unregister() {
+        DataPreloader.unregister(handler);
+    }
+
+    @Test
+    void stagedDataIsPublishedWithoutReadingAgain() throws Exception {
+        DataPreloader.register(plugin, handler);
+        UUID uuid = UUID.randomUUID();
+        CompletableFuture.runAsync(() -> DataPreloader.stage(uuid)).get();
+        assertTrue(DataPreloader.isStaged(uuid));
+        assertEquals(1, handler.reads.get());
+
+        DataPreloader.publish(uuid);
+        assertEquals(1, handler.reads.get());
+        assertEquals(uuid.toString(), handler.published);
+        assertFalse(DataPreloader.isStaged(uuid));
+    }
+
+    @Test
+    void discardedDataIsReadAgainAtJoin() {
+        DataPreloader.register(plugin, handler);
+        UUID uuid = UUID.randomUUID();
+        DataPreloader.stage(uuid);
+        DataPreloader.discard(uuid);
+        DataPreloader.publish(uuid);
+        assertEquals(2, handler.reads.get());
+        assertEquals(uuid.toString(), handler.published);
+    }
+
+    @Test
+    void unpublishedDataExpires() {
+        DataPreloader.register(plugin, handler);
+        UUID uuid = UUID.randomUUID();
+        DataPreloader.stage(uuid);
+        assertTrue(DataPreloader.expireStaged(0) >= 1);
+        assertFalse(DataPreloader.isStaged(uuid));
+        DataPreloader.publish(uuid);
+        assertEquals(2, handler.reads.get());
+    }
+
+    @Test
+    void containerPreloadPublishesEntryAndKeepsResidentOne() {
+        MemoryStorageBackend backend = new MemoryStorageBackend();
+        UUID stored = UUID.randomUUID();
+        YamlConfiguration data = new YamlConfiguration();
+        data.set("coins", 5);
+        backend.put("udata", stored.toString(), DataContainer.encode(data));
+        DataContainer<UUID, YamlConfiguration> c = new DataContainer<>(plugin, DataType.USER, "udata", backend);
+        c.enablePreload(null);
+        try {
+            DataPreloader.stage(stored);
+            DataPreloader.publish(stored);
+            assertEquals(5, c.get(stored).getInt("coins"));
+
+            YamlConfiguration resident = c.get(stored);
+            DataPreloader.stage(stored);
+            DataPreloader.publish(stored);
+            assertSame(resident, c.get(stored));
+
+            UUID fresh = UUID.randomUUID();
+            DataPreloader.stage(fresh);
+            DataPreloader.publish(fresh);
+            assertFalse(c.containsKey(fresh));
+        } finally {
+            c.disablePreload();
+        }
+    }
+
+    private static final class CountingHandler implements PlayerPreloadable<String> {
+        final AtomicInteger reads = new AtomicInteger();
+        volatile String published;
+
+        @Override
+        public String preload(@NotNull UUID uuid) {
+            reads.incrementAndGet();
+            return uuid.toString();
+        }
+
+        @Override
+        public void publish(@NotNull UUID uuid, @Nullable String staged) {
+            published = staged;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.darksoldier1404.dppc.data;
+
+import be.seeseemelk.mockbukkit.entity.PlayerMock;
+import com.darksoldier1404.dppc.data.storage.StorageBackend;
+import com.darksoldier1404.dppc.support.PluginTest;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LazyDataContainerTest extends PluginTest {
+
+    private void writeCargo(String path, String key, String value) {
+        DataContainer<String, TestCargo> writer = new DataContainer<>(plugin, DataType.CUSTOM, path);
+        writer.create(key, TestCargo.class).value = value;
+        writer.save(key);
+    }
+
+    @Test
+    void getLoadsOnDemand() {
+        writeCargo("lazy_get", "a", "from-disk");
+        LazyDataContainer<String, TestCargo> c = new LazyDataContainer<>(plugin, DataType.CUSTOM, "lazy_get", TestCargo.class, 10);
+        assertTrue(c.isEmpty());
+        assertEquals("from-disk", c.get("a").value);
+        assertTrue(c.containsKey("a"));
+        assertNull(c.get("missing"));
+    }
+
+    @Test
+    void loadAllDoesNotMaterializeTheFolder() {
+        writeCargo("lazy_all", "a", "x");
+        LazyDataContainer<String, TestCargo> c = new LazyDataContainer<>(plugin, DataType.CUSTOM, "lazy_all", null, 10);
+        c.loadAll(TestCargo.class);
+        assertTrue(c.isEmpty());
+        assertNotNull(c.get("a"));
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvictedAndWrittenBack() {
+        LazyDataContainer<String, TestCargo> c = new LazyDataContainer<>(plugin, DataType.CUSTOM, "lazy_evict", TestCargo.class, 2);
+        c.create("a", TestCargo.class).value = "dirty-a";
+        c.create("b", TestCargo.class);
+        c.get("a");
+        c.create("c", TestCargo.class);
+
+        assertEquals(2, c.size());
+        assertFalse(c.containsKey("b"), "b was least recently used");
+        assertTrue(c.exists("b"), "dirty entry must be written before eviction");
+        c.create("d", TestCargo.class);
+        assertFalse(c.containsKey("a"));
+        assertEquals("dirty-a", c.get("a").value);
+    }
+
+    @Test
+    void entryThatFailsToWriteIsNotEvicted() {
+        FailingBackend backend = new FailingBackend();
+        LazyDataContainer<String, TestCargo> c = new LazyDataContainer<>(plugin, DataType.CUSTOM, "lazy_fail", TestCargo.class, 1);
+        c.setBackend(backend);
+        backend.failing = true;
+        c.create("a", TestCargo.class).value = "unsaved";
+        c.create("b", TestCargo.class);
+        assertTrue(c.containsKey("a"), "a could not be written");
+        assertTrue(c.isDirty("a"));
+
+        backend.failing = false;
+        c.create("c", TestCargo.class);
+        assertEquals(1, c.size());
+        assertEquals("unsaved", c.get("a").value);
+    }
+
+    @Test
+    void entriesLoadedExplicitlyStayWithinTheBound() {
+        for (String key : new String[]{"a", "b", "c", "d", "e"}) {
+            writeCargo("lazy_bound", key, key);
+        }
+        LazyDataContainer<String, TestCargo> c = new LazyDataContainer<>(plugin, DataType.CUSTOM, "lazy_bound", null, 2);
+        c.loadAll(TestCargo.class);
+        c.load("a", TestCargo.class);
+        c.load("b", TestCargo.class);
+        c.get("a");
+        c.load("c", TestCargo.class);
+        assertEquals(2, c.size());
+        assertFalse(c.containsKey("b"), "b was least recently used");
+
+        c.load("d", TestCargo.class);
+        c.load("e", TestCargo.class);
+        assertEquals(2, c.size());
+        assertTrue(c.containsKey("d"));
+        assertTrue(c.containsKey("e"));
+    }
+
+    @Test
+    void pinnedAndOnlineKeysAreNeverEvicted() {
+        PlayerMock online = server.addPlayer();
+        LazyDataContainer<UUID, YamlConfiguration> c = new LazyDataContainer<>(plugin, DataType.USER, "lazy_pin", null, 1);
+        UUID pinned = UUID.randomUUID();
+        c.pin(pinned);
+        c.put(pinned, new YamlConfiguration());
+        c.put(online.getUniqueId(), new YamlConfiguration());
+        c.put(UUID.randomUUID(), new YamlConfiguration());
+        c.put(UUID.randomUUID(), new YamlConfiguration());
+
+        assertTrue(c.containsKey(pinned));
+        assertTrue(c.containsKey(online.getUniqueId()));
+        assertEquals(3, c.size());
+    }
+
+    @Test
+    void createReturnsTheEntryAlreadyOnDisk() {
+        writeCargo("lazy_create", "a", "kept");
+        LazyDataContainer<String, TestCargo> c = new LazyDataContainer<>(plugin, DataType.CUSTOM, "lazy_create", TestCargo.class, 10);
+        assertEquals("kept", c.create("a", TestCargo.class).value);
+    }
+
+    private static final class FailingBackend implements StorageBackend {
+        private final MemoryStorageBackend memory = new MemoryStorageBackend();
+        volatile boolean failing;
+
+        @Override
+        public String getName() {
+            return "failing";
+        }
+
+        @Nullable
+        @Override
+        public byte[] get(@NotNull String path, @NotNull String key) {
+            return memory.get(path, key);
+        }
+
+        @Override
+        public void put(@NotNull String path, @NotNull String key, byte[] data) throws IOException {
+            if (failing) {
+                throw new IOException("disk full");
+            }
+            memory.put(path, key, data);
+        }
+
+        @Override
+        public boolean delete(@NotNull String path, @NotNull String key) {
+            return memory.delete(path, key);
+        }
+
+        @NotNull
+        @Override
+        public List<String> scan(@NotNull String path) {
+            return memory.scan(path);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.darksoldier1404.dppc.data;
+
+import com.darksoldier1404.dppc.data.storage.StorageBackend;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory {@link StorageBackend} that counts batch calls, used by the container tests
+ * to check what reaches the backend without touching the file system.
+ */
+public class MemoryStorageBackend implements StorageBackend {
+
+    public final Map<String, byte[]> entries = new ConcurrentHashMap<>();
+    public final AtomicInteger batches = new AtomicInteger();
+
+    @Override
+    public String getName() {
+        return "memory";
+    }
+
+    @Nullable
+    @Override
+    public byte[] get(@NotNull String path, @NotNull String key) {
+        return entries.get(path + "/" + key);
+    }
+
+    @Override
+    public void put(@NotNull String path, @NotNull String key, byte[] data) {
+        entries.put(path + "/" + key, data);
+    }
+
+    @Override
+    public boolean delete(@NotNull String path, @NotNull String key) {
+        return entries.remove(path + "/" + key) != null;
+    }
+
+    @NotNull
+    @Override
+    public List<String> scan(@NotNull String path) {
+        List<String> keys = new ArrayList<>();
+        for (String stored : entries.keySet()) {
+            if (stored.startsWith(path + "/")) {
+                keys.add(stored.substring(path.length() + 1));
+            }
+        }
+        return keys;
+    }
+
+    @Override
+    public void batch(@NotNull String path, @NotNull Map<String, byte[]> entries) {
+        batches.incrementAndGet();
+        entries.forEach((key, data) -> put(path, key, data));
+    }
+}
@@ -5,6 +5,7 @@ import org.bukkit.configuration.file.YamlConfiguration;
 import org.junit.jupiter.api.Test;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -87,4 +88,44 @@ class SingleDataContainerTest extends PluginTest {
         c.clear();
         assertFalse(c.hasData());
     }
+
+    @Test
+    void asyncSaveWritesASnapshotAndAsyncLoadCompletesOnTheMainThread() {
+        SingleDataContainer<String, YamlConfiguration> c = new SingleDataContainer<>(plugin, DataType.YAML, "single_async");
+        YamlConfiguration value = new YamlConfiguration();
+        value.set("items", 1);
+        c.set("catalog", value);
+        CompletableFuture<Void> saved = c.saveAsync();
+        value.set("items", 2); // changed after the snapshot was taken
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!saved.isDone() && System.currentTimeMillis() < deadline) {
+            server.getScheduler().performOneTick();
+        }
+        assertTrue(saved.isDone());
+
+        SingleDataContainer<String, YamlConfiguration> reader = new SingleDataContainer<>(plugin, DataType.YAML, "single_async");
+        CompletableFuture<SingleDataContainer<String, YamlConfiguration>> loaded = reader.loadAsync("catalog", null);
+        while (!loaded.isDone() && System.currentTimeMillis() < deadline) {
+            server.getScheduler().performOneTick();
+        }
+        assertTrue(loaded.isDone());
+        assertEquals(1, reader.getValue().getInt("items"));
+        assertEquals("catalog", reader.getKey());
+    }
+
+    @Test
+    void asyncOperationsOfOneContainerRunInOrder() {
+        SingleDataContainer<String, YamlConfiguration> c = new SingleDataContainer<>(plugin, DataType.YAML, "single_order");
+        YamlConfiguration value = new YamlConfiguration();
+        value.set("n", 1);
+        c.set("state", value);
+        c.saveAsync();
+        CompletableFuture<SingleDataContainer<String, YamlConfiguration>> loaded = c.loadAsync("state", null);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!loaded.isDone() && System.currentTimeMillis() < deadline) {
+            server.getScheduler().performOneTick();
+        }
+        assertEquals(1, c.getValue().getInt("n"));
+    }
 }
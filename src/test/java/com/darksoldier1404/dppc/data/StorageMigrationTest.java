@@ -0,0 +1,106 @@
+package com.darksoldier1404.dppc.data;
+
+import com.darksoldier1404.dppc.data.storage.FileStorageBackend;
+import com.darksoldier1404.dppc.support.PluginTest;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StorageMigrationTest extends PluginTest {
+
+    private static byte[] yaml(int i) {
+        return ("value: " + i + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void copiesEveryEntryAndResumesFromTheCheckpoint() throws IOException {
+        MemoryStorageBackend source = new MemoryStorageBackend();
+        MemoryStorageBackend target = new MemoryStorageBackend();
+        for (int i = 0; i < 600; i++) {
+            source.put("udata", "k" + i, yaml(i));
+        }
+        // An earlier run already copied k0.
+        target.put("udata", "k0", yaml(0));
+        StorageMigration migration = new StorageMigration(plugin, "udata", source, target);
+        CRC32 crc = new CRC32();
+        crc.update(yaml(0));
+        migration.getCheckpoint().getParentFile().mkdirs();
+        Files.write(migration.getCheckpoint().toPath(), ("k0\t" + Long.toHexString(crc.getValue()) + "\n").getBytes(StandardCharsets.UTF_8));
+
+        StorageMigration.Result result = migration.start().join();
+
+        assertTrue(result.isVerified());
+        assertEquals(599, result.getProgress().getMigrated());
+        assertEquals(1, result.getProgress().getResumed());
+        assertEquals(600, result.getProgress().getTotal());
+        assertArrayEquals(yaml(42), target.get("udata", "k42"));
+        assertTrue(target.batches.get() >= 3);
+        assertFalse(migration.getCheckpoint().exists());
+    }
+
+    @Test
+    void invalidEntriesAreReportedAndTheCheckpointIsKept() {
+        MemoryStorageBackend source = new MemoryStorageBackend();
+        MemoryStorageBackend target = new MemoryStorageBackend();
+        source.put("data", "good", yaml(1));
+        source.put("data", "broken", ": : [".getBytes(StandardCharsets.UTF_8));
+
+        StorageMigration migration = new StorageMigration(plugin, "data", source, target);
+        StorageMigration.Result result = migration.start().join();
+
+        assertFalse(result.isVerified());
+        assertTrue(result.getFailed().containsKey("broken"));
+        assertEquals(1, result.getMissing());
+        assertTrue(target.entries.containsKey("data/good"));
+        assertTrue(migration.getCheckpoint().exists());
+    }
+
+    @Test
+    void checkpointedKeysDeletedFromTheSourceAreDropped() throws IOException {
+        MemoryStorageBackend source = new MemoryStorageBackend();
+        MemoryStorageBackend target = new MemoryStorageBackend();
+        source.put("gone", "kept", yaml(1));
+        StorageMigration migration = new StorageMigration(plugin, "gone", source, target);
+        migration.getCheckpoint().getParentFile().mkdirs();
+        // An earlier run copied two entries that were deleted from the source since.
+        Files.write(migration.getCheckpoint().toPath(), "deleted1\t0\ndeleted2\t0\n".getBytes(StandardCharsets.UTF_8));
+
+        StorageMigration.Result result = migration.start().join();
+
+        assertTrue(result.isVerified());
+        assertEquals(0, result.getMissing());
+        assertEquals(0, result.getProgress().getResumed());
+        assertEquals(1, result.getProgress().getTotal());
+        assertArrayEquals(yaml(1), target.get("gone", "kept"));
+    }
+
+    @Test
+    void binaryFilesAreMigratedInsteadOfStaleYaml() throws IOException {
+        FileStorageBackend yml = new FileStorageBackend(plugin);
+        FileStorageBackend bin = yml.withExtension(BinaryDataCargo.EXTENSION);
+        BinaryTestCargo cargo = new BinaryTestCargo();
+        cargo.value = "current";
+        byte[] binary = BinaryCargoCodec.encode(cargo);
+        bin.put("mig_bin", "a", binary);
+        yml.put("mig_bin", "a", yaml(1));
+        bin.put("mig_bin", "b", binary);
+        yml.put("mig_bin", "c", yaml(3));
+        MemoryStorageBackend target = new MemoryStorageBackend();
+
+        StorageMigration.Result result = new StorageMigration(plugin, "mig_bin", yml, target).start().join();
+
+        assertTrue(result.isVerified());
+        assertEquals(3, result.getProgress().getTotal());
+        assertArrayEquals(binary, target.get("mig_bin", "a"));
+        assertArrayEquals(binary, target.get("mig_bin", "b"));
+        assertArrayEquals(yaml(3), target.get("mig_bin", "c"));
+    }
+}
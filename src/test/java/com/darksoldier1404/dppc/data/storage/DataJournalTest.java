@@ -0,0 +1,149 @@
+package com.darksoldier1404.dppc.data.storage;
+
+import com.darksoldier1404.dppc.support.PluginTest;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DataJournalTest extends PluginTest {
+
+    @AfterEach
+    void closeJournals() {
+        DataJournal.closeAll();
+    }
+
+    private DataJournal journal(String name) {
+        DataJournal journal = new DataJournal(plugin, new File(plugin.getDataFolder(), name));
+        journal.setCompactIntervalMillis(Long.MAX_VALUE / 2);
+        return journal;
+    }
+
+    @Test
+    void writesAreServedFromTheJournalUntilCompacted() throws IOException {
+        FileStorageBackend files = new FileStorageBackend(plugin);
+        DataJournal journal = journal("journal_a");
+        JournalStorageBackend backend = journal.backend(files);
+        backend.put("journal_data", "a", new byte[]{1});
+        assertArrayEquals(new byte[]{1}, backend.get("journal_data", "a"));
+        assertFalse(files.exists("journal_data", "a"));
+        assertEquals(1, journal.getPendingCount());
+
+        journal.compact();
+        assertArrayEquals(new byte[]{1}, files.get("journal_data", "a"));
+        assertEquals(0, journal.getPendingCount());
+        journal.close();
+    }
+
+    @Test
+    void deleteHidesTheStoredValue() throws IOException {
+        FileStorageBackend files = new FileStorageBackend(plugin);
+        files.put("journal_delete", "a", new byte[]{1});
+        DataJournal journal = journal("journal_b");
+        JournalStorageBackend backend = journal.backend(files);
+        assertTrue(backend.delete("journal_delete", "a"));
+        assertNull(backend.get("journal_delete", "a"));
+        assertTrue(backend.scan("journal_delete").isEmpty());
+        journal.compact();
+        assertFalse(files.exists("journal_delete", "a"));
+        journal.close();
+    }
+
+    @Test
+    void openReplaysSegmentsLeftByACrashAndIgnoresATornRecord() throws IOException {
+        FileStorageBackend files = new FileStorageBackend(plugin);
+        DataJournal crashed = journal("journal_c");
+        Map<String, byte[]> batch = new LinkedHashMap<>();
+        batch.put("a", new byte[]{1});
+        batch.put("b", new byte[]{2});
+        crashed.backend(files).batch("journal_replay", batch);
+        File[] segments = crashed.getFolder().listFiles((dir, name) -> name.endsWith(".wal"));
+        assertEquals(1, segments.length);
+        Files.write(segments[0].toPath(), new byte[]{0, 0, 0, 40, 1, 2}, StandardOpenOption.APPEND);
+
+        DataJournal recovered = journal("journal_c");
+        recovered.backend(files);
+        recovered.open();
+        assertArrayEquals(new byte[]{1}, files.get("journal_replay", "a"));
+        assertArrayEquals(new byte[]{2}, files.get("journal_replay", "b"));
+        assertFalse(segments[0].exists());
+        recovered.close();
+    }
+
+    @Test
+    void backendsWithTheSameNameKeepTheirOwnRecords() throws IOException {
+        FileStorageBackend flat = new FileStorageBackend(plugin);
+        FileStorageBackend sharded = flat.withShardDepth(2);
+        assertEquals(flat.getName(), sharded.getName());
+        DataJournal journal = journal("journal_targets");
+        journal.backend(flat).put("journal_targets_data", "flat", new byte[]{1});
+        journal.backend(sharded).put("journal_targets_data", "sharded", new byte[]{2});
+        journal.compact();
+        assertTrue(flat.getFile("journal_targets_data", "flat").isFile());
+        assertTrue(sharded.getFile("journal_targets_data", "sharded").isFile());
+        assertFalse(flat.getFile("journal_targets_data", "sharded").exists());
+        journal.close();
+    }
+
+    @Test
+    void closeWaitsForACompactionInFlight() throws Exception {
+        FileStorageBackend files = new FileStorageBackend(plugin);
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FileStorageBackend slow = new FileStorageBackend(plugin) {
+            @Override
+            public String getName() {
+                return "slow";
+            }
+
+            @Override
+            public void batch(@NotNull String path, @NotNull Map<String, byte[]> entries) throws IOException {
+                applying.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.batch(path, entries);
+            }
+        };
+        // Already forced to disk, so the journal compacts into this backend and not a copy of it.
+        slow.setFsync(true);
+        DataJournal journal = journal("journal_close");
+        journal.backend(slow).put("journal_close_data", "a", new byte[]{1});
+
+        Thread compaction = new Thread(() -> {
+            try {
+                journal.compact();
+            } catch (IOException ignored) {
+            }
+        });
+        compaction.start();
+        assertTrue(applying.await(5, TimeUnit.SECONDS));
+        Thread closing = new Thread(journal::close);
+        closing.start();
+        closing.join(200L);
+        assertTrue(closing.isAlive());
+
+        release.countDown();
+        closing.join(5000L);
+        compaction.join(5000L);
+        assertFalse(closing.isAlive());
+        assertArrayEquals(new byte[]{1}, files.get("journal_close_data", "a"));
+        assertEquals(0, journal.getPendingCount());
+    }
+}
@@ -0,0 +1,124 @@
+package com.darksoldier1404.dppc.data.storage;
+
+import com.darksoldier1404.dppc.support.PluginTest;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileStorageBackendTest extends PluginTest {
+
+    @Test
+    void putGetDeleteRoundTrip() throws IOException {
+        FileStorageBackend backend = new FileStorageBackend(plugin);
+        byte[] data = "value: 1\n".getBytes(StandardCharsets.UTF_8);
+        backend.put("backend_test", "a", data);
+        assertTrue(backend.getFile("backend_test", "a").isFile());
+        assertArrayEquals(data, backend.get("backend_test", "a"));
+        assertTrue(backend.delete("backend_test", "a"));
+        assertFalse(backend.exists("backend_test", "a"));
+        assertNull(backend.get("backend_test", "a"));
+    }
+
+    @Test
+    void scanListsKeysWithTheBackendExtensionOnly() throws IOException {
+        FileStorageBackend yml = new FileStorageBackend(plugin);
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("a", new byte[]{1});
+        entries.put("b", new byte[]{2});
+        yml.batch("scan_test", entries);
+        new FileStorageBackend(plugin, ".bin").put("scan_test", "c", new byte[]{3});
+        assertEquals(2, yml.scan("scan_test").size());
+        assertTrue(yml.scan("scan_test").containsAll(entries.keySet()));
+    }
+
+    @Test
+    void shardedBackendNestsFilesAndStillReadsFlatOnes() throws IOException {
+        FileStorageBackend flat = new FileStorageBackend(plugin);
+        FileStorageBackend sharded = flat.withShardDepth(2);
+        String key = UUID.randomUUID().toString();
+        sharded.put("shard_test", key, new byte[]{1});
+        File file = sharded.getFile("shard_test", key);
+        assertTrue(file.isFile());
+        assertNotEquals(flat.getFolder("shard_test"), file.getParentFile());
+        assertEquals(flat.getFolder("shard_test"), file.getParentFile().getParentFile().getParentFile());
+
+        flat.put("shard_test", "legacy", new byte[]{2});
+        assertArrayEquals(new byte[]{2}, sharded.get("shard_test", "legacy"));
+        assertEquals(2, sharded.scan("shard_test").size());
+        sharded.put("shard_test", "legacy", new byte[]{3});
+        assertFalse(flat.getFile("shard_test", "legacy").exists());
+        assertEquals(2, sharded.scan("shard_test").size());
+    }
+
+    @Test
+    void pendingReshardFindsEntriesLeftInAnotherLayout() throws IOException {
+        FileStorageBackend flat = new FileStorageBackend(plugin);
+        FileStorageBackend sharded = flat.withShardDepth(1);
+        flat.withShardDepth(2).put("layout_test", "deep", new byte[]{1});
+        assertNull(flat.get("layout_test", "deep"), "a flat backend reads only its own layout");
+        flat.markReshardPending("layout_test");
+        assertTrue(sharded.isReshardPending("layout_test"));
+        assertTrue(flat.scan("layout_test").isEmpty(), "the marker is not a key");
+        assertArrayEquals(new byte[]{1}, flat.get("layout_test", "deep"));
+        assertArrayEquals(new byte[]{1}, sharded.get("layout_test", "deep"));
+        assertTrue(flat.exists("layout_test", "deep"));
+        assertTrue(sharded.delete("layout_test", "deep"));
+        assertFalse(flat.exists("layout_test", "deep"));
+        assertNull(flat.get("layout_test", "deep"));
+        flat.reshard("layout_test");
+        assertFalse(flat.isReshardPending("layout_test"));
+    }
+
+    @Test
+    void reshardMovesFlatFilesAndBack() throws IOException {
+        FileStorageBackend flat = new FileStorageBackend(plugin);
+        for (int i = 0; i < 10; i++) {
+            flat.put("reshard_test", "k" + i, new byte[]{(byte) i});
+        }
+        FileStorageBackend sharded = flat.withShardDepth(1);
+        assertEquals(10, sharded.reshard("reshard_test"));
+        assertEquals(0, flat.scan("reshard_test").size());
+        assertEquals(10, sharded.scan("reshard_test").size());
+        assertArrayEquals(new byte[]{4}, sharded.get("reshard_test", "k4"));
+
+        assertEquals(10, flat.reshard("reshard_test"));
+        assertEquals(10, flat.scan("reshard_test").size());
+        File[] left = flat.getFolder("reshard_test").listFiles(File::isDirectory);
+        assertEquals(0, left == null ? 0 : left.length);
+    }
+
+    @Test
+    void streamKeysWalksFlatAndShardedFiles() throws IOException {
+        FileStorageBackend flat = new FileStorageBackend(plugin);
+        FileStorageBackend sharded = flat.withShardDepth(2);
+        flat.put("stream_keys", "flat", new byte[]{1});
+        sharded.put("stream_keys", "nested", new byte[]{2});
+        new FileStorageBackend(plugin, ".bin").put("stream_keys", "other", new byte[]{3});
+        try (Stream<String> keys = sharded.streamKeys("stream_keys")) {
+            assertEquals(new HashSet<>(Arrays.asList("flat", "nested")), keys.collect(Collectors.toSet()));
+        }
+        try (Stream<String> keys = flat.streamKeys("stream_keys")) {
+            assertEquals(Collections.singletonList("flat"), keys.collect(Collectors.toList()));
+        }
+        try (Stream<String> keys = flat.streamKeys("stream_missing")) {
+            assertEquals(0, keys.count());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.darksoldier1404.dppc.data.storage;
+
+import com.darksoldier1404.dppc.support.PluginTest;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class YamlSnapshotCacheTest extends PluginTest {
+
+    private YamlConfiguration sample() {
+        YamlConfiguration data = new YamlConfiguration();
+        data.set("name", "steve");
+        data.set("stats.level", 12);
+        data.set("stats.money", 1234567890123L);
+        data.set("stats.ratio", 0.5);
+        data.set("flags", Arrays.asList("a", "b"));
+        data.set("enabled", true);
+        return data;
+    }
+
+    private File writeFile(FileStorageBackend backend, String key, YamlConfiguration data) throws IOException {
+        backend.put("snapshot_test", key, data.saveToString().getBytes(StandardCharsets.UTF_8));
+        return backend.getFile("snapshot_test", key);
+    }
+
+    @Test
+    void restoresUnchangedFilesWithTheSameValues() throws IOException {
+        FileStorageBackend backend = new FileStorageBackend(plugin);
+        YamlConfiguration data = sample();
+        writeFile(backend, "a", data);
+        YamlSnapshotCache cache = new YamlSnapshotCache(backend.getFolder("snapshot_test"), ".yml");
+        assertTrue(cache.put("a", data));
+        cache.write();
+
+        YamlConfiguration restored = YamlSnapshotCache.read(backend.getFolder("snapshot_test"), ".yml").restore("a");
+        assertNotNull(restored);
+        assertEquals("steve", restored.getString("name"));
+        assertEquals(12, restored.getInt("stats.level"));
+        assertEquals(1234567890123L, restored.getLong("stats.money"));
+        assertTrue(restored.isConfigurationSection("stats"));
+        assertEquals(Arrays.asList("a", "b"), restored.getStringList("flags"));
+        assertTrue(restored.getBoolean("enabled"));
+    }
+
+    @Test
+    void changedFilesAreNotRestored() throws IOException {
+        FileStorageBackend backend = new FileStorageBackend(plugin);
+        YamlConfiguration data = sample();
+        File file = writeFile(backend, "a", data);
+        YamlSnapshotCache cache = new YamlSnapshotCache(backend.getFolder("snapshot_test"), ".yml");
+        cache.put("a", data);
+        cache.write();
+
+        data.set("name", "alex-edited-by-hand");
+        writeFile(backend, "a", data);
+        file.setLastModified(file.lastModified() + 2000L);
+        assertNull(YamlSnapshotCache.read(backend.getFolder("snapshot_test"), ".yml").restore("a"));
+    }
+
+    @Test
+    void unsupportedValuesAreNotCached() throws IOException {
+        FileStorageBackend backend = new FileStorageBackend(plugin);
+        YamlConfiguration data = new YamlConfiguration();
+        data.set("when", new Date());
+        writeFile(backend, "b", data);
+        YamlSnapshotCache cache = new YamlSnapshotCache(backend.getFolder("snapshot_test"), ".yml");
+        assertFalse(cache.put("b", data));
+        assertEquals(0, cache.size());
+    }
+}
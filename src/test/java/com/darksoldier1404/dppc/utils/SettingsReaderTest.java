@@ -0,0 +1,51 @@
+package com.darksoldier1404.dppc.utils;
+
+import com.darksoldier1404.dppc.CoreSettings;
+import com.darksoldier1404.dppc.support.PluginTest;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.event.EventPriority;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SettingsReaderTest extends PluginTest {
+
+    @Test
+    void invalidOrMissingValuesFallBackToDefaults() {
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("flag", "yes");
+        config.set("period", 0);
+        config.set("limit", 40);
+        config.set("priority", "high");
+        config.set("name", "dppc");
+        SettingsReader reader = new SettingsReader(config, plugin.getLog());
+
+        assertTrue(reader.getBoolean("flag", true));
+        assertEquals(60, reader.getInt("period", 60, 1, 3600));
+        assertEquals(40L, reader.getLong("limit", 5L, 0L, 100L));
+        assertEquals(EventPriority.HIGH, reader.getEnum("priority", EventPriority.class, EventPriority.NORMAL));
+        assertEquals("dppc", reader.getString("name", null));
+        assertEquals("x", reader.getString("missing", "x"));
+        assertTrue(reader.getStringList("missing").isEmpty());
+    }
+
+    @Test
+    void reloadSwapsTheCoreSettings() {
+        CoreSettings before = CoreSettings.get();
+        assertSame(before, plugin.getSettings());
+
+        plugin.getConfig().set("Settings.notify_admins_on_join", false);
+        plugin.getConfig().set("Settings.Data.shutdown_deadline_ms", 1234);
+        plugin.saveConfig();
+        plugin.reload();
+
+        CoreSettings after = CoreSettings.get();
+        assertNotSame(before, after);
+        assertFalse(after.notifyAdminsOnJoin);
+        assertEquals(1234L, after.shutdownDeadlineMillis);
+    }
+}